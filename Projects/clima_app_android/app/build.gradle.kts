@@ -29,6 +29,15 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests.all { test ->
+            // Opt-in switches for unit tests, e.g. ./gradlew test -Pclima.benchmark.report=true
+            for (name in listOf("clima.benchmark.report", "clima.record.url", "clima.record.file")) {
+                val value = project.findProperty(name) ?: continue
+                test.systemProperty(name, value.toString())
+            }
+        }
+    }
 }
 
 dependencies {
@@ -38,6 +47,7 @@ dependencies {
     implementation(libs.activity)
     implementation(libs.constraintlayout)
     testImplementation(libs.junit)
+    testImplementation(libs.json)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
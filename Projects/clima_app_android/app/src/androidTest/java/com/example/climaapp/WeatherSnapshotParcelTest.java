@@ -0,0 +1,87 @@
+package com.example.climaapp;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class WeatherSnapshotParcelTest {
+
+    private static final String WEATHER_JSON = "{\"coord\":{\"lon\":-73.5878,\"lat\":45.5088},"
+            + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\",\"icon\":\"04d\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":12.37,\"feels_like\":11.52,\"temp_min\":11.05,"
+            + "\"temp_max\":13.32,\"pressure\":1017,\"humidity\":71,\"sea_level\":1017,\"grnd_level\":1006},"
+            + "\"visibility\":10000,\"wind\":{\"speed\":4.63,\"deg\":250},\"clouds\":{\"all\":75},"
+            + "\"dt\":1760793015,\"sys\":{\"type\":2,\"id\":2093452,\"country\":\"CA\",\"sunrise\":1760786095,"
+            + "\"sunset\":1760824830},\"timezone\":-14400,\"id\":6077243,\"name\":\"Montreal\",\"cod\":200}";
+
+    @Test
+    public void snapshotRoundTripsThroughParcel() throws Exception {
+        WeatherSnapshot snapshot = WeatherDataParser.parse(WEATHER_JSON).withAirQuality(4);
+
+        Parcel parcel = Parcel.obtain();
+        snapshot.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        WeatherSnapshot copy = WeatherSnapshot.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertEquals(snapshot.getCityName(), copy.getCityName());
+        assertEquals(snapshot.getCityId(), copy.getCityId());
+        assertEquals(snapshot.getTemperature(), copy.getTemperature(), 0);
+        assertEquals(snapshot.getConditionId(), copy.getConditionId());
+        assertEquals(snapshot.getLatitude(), copy.getLatitude(), 0);
+        assertEquals(snapshot.getLongitude(), copy.getLongitude(), 0);
+        assertEquals(snapshot.getTimestamp(), copy.getTimestamp());
+        assertEquals(4, copy.getAirQualityIndex());
+    }
+
+    @Test
+    public void snapshotExtraIsSmallerThanRawJsonExtras() throws Exception {
+        Intent rawIntent = new Intent();
+        rawIntent.putExtra("weatherData", WEATHER_JSON);
+        rawIntent.putExtra("lat", 45.5088);
+        rawIntent.putExtra("lon", -73.5878);
+
+        Intent snapshotIntent = new Intent();
+        snapshotIntent.putExtra(WeatherActivity.EXTRA_SNAPSHOT, WeatherDataParser.parse(WEATHER_JSON));
+
+        int rawSize = bundleSize(rawIntent.getExtras());
+        int snapshotSize = bundleSize(snapshotIntent.getExtras());
+        android.util.Log.i("WeatherSnapshotParcelTest", "raw JSON extras: " + rawSize + " B, snapshot extra: " + snapshotSize + " B");
+
+        assertTrue(snapshotSize < rawSize / 2);
+    }
+
+    @Test
+    public void readingSnapshotExtraDoesNotParse() throws Exception {
+        Intent intent = new Intent();
+        intent.putExtra(WeatherActivity.EXTRA_SNAPSHOT, WeatherDataParser.parse(WEATHER_JSON));
+        Parcel parcel = Parcel.obtain();
+        intent.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        int parsesBefore = WeatherDataParser.parseCount();
+
+        Intent received = Intent.CREATOR.createFromParcel(parcel);
+        received.setExtrasClassLoader(WeatherSnapshot.class.getClassLoader());
+        WeatherSnapshot snapshot = received.getParcelableExtra(WeatherActivity.EXTRA_SNAPSHOT);
+        parcel.recycle();
+
+        assertEquals("Montreal", snapshot.getCityName());
+        assertEquals(parsesBefore, WeatherDataParser.parseCount());
+    }
+
+    private static int bundleSize(Bundle bundle) {
+        Parcel parcel = Parcel.obtain();
+        parcel.writeBundle(bundle);
+        int size = parcel.dataSize();
+        parcel.recycle();
+        return size;
+    }
+}
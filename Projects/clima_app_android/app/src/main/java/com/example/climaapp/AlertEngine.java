@@ -0,0 +1,262 @@
+package com.example.climaapp;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates {@link AlertRule}s against each new reading. Rules are compiled once, grouped by
+ * city with their thresholds sorted, and the engine remembers the last reading per city. A new
+ * reading then only touches the rules whose state it flips: the thresholds between the old and
+ * the new temperature, found by binary search, and the thunderstorm rules when a storm starts.
+ * An unchanged reading touches none.
+ *
+ * A rule that fired is quiet for the debounce period, so a temperature hovering around a
+ * threshold doesn't alert on every refresh.
+ */
+public final class AlertEngine {
+
+    public static final long DEFAULT_DEBOUNCE_MS = TimeUnit.HOURS.toMillis(3);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /** A rule that fired, with the reading that made it fire. */
+    public static final class Alert {
+        private final AlertRule rule;
+        private final WeatherSnapshot snapshot;
+
+        Alert(AlertRule rule, WeatherSnapshot snapshot) {
+            this.rule = rule;
+            this.snapshot = snapshot;
+        }
+
+        public AlertRule getRule() {
+            return rule;
+        }
+
+        public WeatherSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public String getMessage() {
+            return rule.describe(snapshot);
+        }
+    }
+
+    /** One city's rules, thresholds ascending, and its last reading. */
+    private static final class CityRules {
+        double[] above;
+        int[] aboveRules;
+        double[] below;
+        int[] belowRules;
+        int[] stormRules;
+
+        boolean seen;
+        double temperature;
+        boolean stormy;
+    }
+
+    private final AlertRule[] rules;
+    private final long[] lastFired;
+    private final Map<Long, CityRules> cities = new HashMap<>();
+    private final Map<Long, Integer> indexById = new HashMap<>();
+    private final long debounceMs;
+    private long checked;
+
+    public AlertEngine(List<AlertRule> rules) {
+        this(rules, DEFAULT_DEBOUNCE_MS);
+    }
+
+    public AlertEngine(List<AlertRule> rules, long debounceMs) {
+        this.rules = rules.toArray(new AlertRule[0]);
+        this.lastFired = new long[this.rules.length];
+        this.debounceMs = debounceMs;
+        Arrays.fill(lastFired, NEVER);
+        compile();
+    }
+
+    private void compile() {
+        Map<Long, List<Integer>> byCity = new HashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            indexById.put(rules[i].getId(), i);
+            byCity.computeIfAbsent(rules[i].getCityId(), id -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<Long, List<Integer>> entry : byCity.entrySet()) {
+            List<Integer> above = new ArrayList<>();
+            List<Integer> below = new ArrayList<>();
+            List<Integer> storms = new ArrayList<>();
+            for (int index : entry.getValue()) {
+                switch (rules[index].getKind()) {
+                    case TEMPERATURE_ABOVE:
+                        above.add(index);
+                        break;
+                    case TEMPERATURE_BELOW:
+                        below.add(index);
+                        break;
+                    default:
+                        storms.add(index);
+                }
+            }
+            CityRules city = new CityRules();
+            city.aboveRules = sortedByThreshold(above);
+            city.above = thresholds(city.aboveRules);
+            city.belowRules = sortedByThreshold(below);
+            city.below = thresholds(city.belowRules);
+            city.stormRules = toArray(storms);
+            cities.put(entry.getKey(), city);
+        }
+    }
+
+    private int[] sortedByThreshold(List<Integer> indices) {
+        indices.sort((a, b) -> Double.compare(rules[a].getThreshold(), rules[b].getThreshold()));
+        return toArray(indices);
+    }
+
+    private double[] thresholds(int[] indices) {
+        double[] values = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            values[i] = rules[indices[i]].getThreshold();
+        }
+        return values;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    public int ruleCount() {
+        return rules.length;
+    }
+
+    /** Whether any rule is about {@code cityId}; readings for other cities are ignored. */
+    public boolean watches(long cityId) {
+        return cities.containsKey(cityId);
+    }
+
+    /**
+     * Feeds a new reading and returns the rules it made fire, if any. The first reading for a
+     * city fires every rule that already holds.
+     */
+    public synchronized List<Alert> evaluate(WeatherSnapshot snapshot, long nowMillis) {
+        CityRules city = cities.get(snapshot.getCityId());
+        if (city == null) return Collections.emptyList();
+
+        double temperature = snapshot.getTemperature();
+        boolean stormy = WeatherConditions.isThunderstorm(snapshot.getConditionId());
+        double previous = city.temperature;
+        boolean wasStormy = city.seen && city.stormy;
+        List<Alert> alerts = new ArrayList<>(0);
+
+        if (!city.seen || temperature > previous) {
+            // "Above t" turned true for every t with previous <= t < temperature
+            int from = city.seen ? lowerBound(city.above, previous) : 0;
+            int to = lowerBound(city.above, temperature);
+            fire(city.aboveRules, from, to, snapshot, nowMillis, alerts);
+        }
+        if (!city.seen || temperature < previous) {
+            // "Below t" turned true for every t with temperature < t <= previous
+            int from = upperBound(city.below, temperature);
+            int to = city.seen ? upperBound(city.below, previous) : city.below.length;
+            fire(city.belowRules, from, to, snapshot, nowMillis, alerts);
+        }
+        if (stormy && !wasStormy) {
+            fire(city.stormRules, 0, city.stormRules.length, snapshot, nowMillis, alerts);
+        }
+
+        city.seen = true;
+        city.temperature = temperature;
+        city.stormy = stormy;
+        return alerts;
+    }
+
+    private void fire(int[] ruleIndices, int from, int to, WeatherSnapshot snapshot, long nowMillis,
+                      List<Alert> alerts) {
+        checked += to - from;
+        for (int i = from; i < to; i++) {
+            int index = ruleIndices[i];
+            if (lastFired[index] != NEVER && nowMillis - lastFired[index] < debounceMs) continue;
+            lastFired[index] = nowMillis;
+            alerts.add(new Alert(rules[index], snapshot));
+        }
+    }
+
+    /** First index whose value is at least {@code key}. */
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /** First index whose value is greater than {@code key}. */
+    private static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * The last reading per city and when each rule last fired, one entry per line, so a process
+     * started for the next background refresh can carry on where this one stopped.
+     */
+    public synchronized String saveState() {
+        StringBuilder state = new StringBuilder();
+        for (Map.Entry<Long, CityRules> entry : cities.entrySet()) {
+            CityRules city = entry.getValue();
+            if (!city.seen) continue;
+            state.append("c|").append(entry.getKey()).append('|').append(city.temperature)
+                    .append('|').append(city.stormy).append('\n');
+        }
+        for (int i = 0; i < rules.length; i++) {
+            if (lastFired[i] == NEVER) continue;
+            state.append("r|").append(rules[i].getId()).append('|').append(lastFired[i]).append('\n');
+        }
+        return state.toString();
+    }
+
+    /** Restores {@link #saveState()} output; entries for rules or cities no longer watched are skipped. */
+    public synchronized void restoreState(String state) {
+        for (String line : state.split("\n")) {
+            String[] fields = line.split("\\|");
+            try {
+                if (fields.length == 4 && fields[0].equals("c")) {
+                    CityRules city = cities.get(Long.parseLong(fields[1]));
+                    if (city == null) continue;
+                    city.seen = true;
+                    city.temperature = Double.parseDouble(fields[2]);
+                    city.stormy = Boolean.parseBoolean(fields[3]);
+                } else if (fields.length == 3 && fields[0].equals("r")) {
+                    Integer index = indexById.get(Long.parseLong(fields[1]));
+                    if (index != null) lastFired[index] = Long.parseLong(fields[2]);
+                }
+            } catch (NumberFormatException ignored) {
+                // Skip a corrupt line rather than losing the whole state
+            }
+        }
+    }
+
+    /** Rules looked at by {@link #evaluate} so far, to show how few each reading touches. */
+    @VisibleForTesting
+    synchronized long checkedCount() {
+        return checked;
+    }
+}
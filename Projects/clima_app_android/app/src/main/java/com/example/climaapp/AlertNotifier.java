@@ -0,0 +1,76 @@
+package com.example.climaapp;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import java.util.List;
+
+/**
+ * Posts fired alerts as local notifications on their own channel, one per rule, so a rule that
+ * fires again replaces its earlier notification instead of stacking up.
+ */
+public class AlertNotifier {
+
+    static final String CHANNEL_ID = "weather_alerts";
+
+    private final Context context;
+
+    public AlertNotifier(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void show(List<AlertEngine.Alert> alerts) {
+        if (alerts.isEmpty() || !canNotify()) return;
+        createChannel();
+
+        Intent open = new Intent(context, MainActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        PendingIntent tap = PendingIntent.getActivity(context, 0, open, PendingIntent.FLAG_IMMUTABLE);
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        for (AlertEngine.Alert alert : alerts) {
+            WeatherSnapshot snapshot = alert.getSnapshot();
+            NotificationCompat.Builder notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                    .setSmallIcon(snapshot.getWeatherIcon())
+                    .setContentTitle("Weather alert")
+                    .setContentText(alert.getMessage())
+                    .setWhen(snapshot.getTimestamp() * 1000)
+                    .setPriority(NotificationCompat.PRIORITY_DEFAULT)
+                    .setContentIntent(tap)
+                    .setAutoCancel(true);
+            try {
+                manager.notify((int) alert.getRule().getId(), notification.build());
+            } catch (SecurityException e) {
+                // Permission revoked between the check and here
+                return;
+            }
+        }
+    }
+
+    private boolean canNotify() {
+        // Android 13+ asks the user; without the grant notifications are dropped silently anyway
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return false;
+        }
+        return NotificationManagerCompat.from(context).areNotificationsEnabled();
+    }
+
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+        // Creating an existing channel is a no-op, so this is safe on every call
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Weather alerts",
+                NotificationManager.IMPORTANCE_DEFAULT);
+        channel.setDescription("Temperature thresholds and thunderstorms for your places");
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+    }
+}
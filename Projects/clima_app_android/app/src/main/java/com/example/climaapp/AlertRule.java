@@ -0,0 +1,79 @@
+package com.example.climaapp;
+
+/**
+ * One user alert for one city: the temperature rising above or falling below a threshold, or a
+ * thunderstorm (any 2xx condition) starting. Rules fire when their condition starts to hold, not
+ * on every reading while it does.
+ */
+public final class AlertRule {
+
+    public enum Kind { TEMPERATURE_ABOVE, TEMPERATURE_BELOW, THUNDERSTORM }
+
+    private final long id;
+    private final long cityId;
+    private final Kind kind;
+    private final double threshold;
+
+    public AlertRule(long id, long cityId, Kind kind, double threshold) {
+        this.id = id;
+        this.cityId = cityId;
+        this.kind = kind;
+        this.threshold = threshold;
+    }
+
+    public static AlertRule temperatureAbove(long id, long cityId, double celsius) {
+        return new AlertRule(id, cityId, Kind.TEMPERATURE_ABOVE, celsius);
+    }
+
+    public static AlertRule temperatureBelow(long id, long cityId, double celsius) {
+        return new AlertRule(id, cityId, Kind.TEMPERATURE_BELOW, celsius);
+    }
+
+    public static AlertRule thunderstorm(long id, long cityId) {
+        return new AlertRule(id, cityId, Kind.THUNDERSTORM, 0);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /** The API's city ID, as in {@link WeatherSnapshot#getCityId()}. */
+    public long getCityId() {
+        return cityId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** Degrees Celsius; unused for {@link Kind#THUNDERSTORM}. */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /** Whether this rule's condition holds for {@code snapshot}, ignoring which city it is for. */
+    public boolean matches(WeatherSnapshot snapshot) {
+        switch (kind) {
+            case TEMPERATURE_ABOVE:
+                return snapshot.getTemperature() > threshold;
+            case TEMPERATURE_BELOW:
+                return snapshot.getTemperature() < threshold;
+            default:
+                return WeatherConditions.isThunderstorm(snapshot.getConditionId());
+        }
+    }
+
+    public String describe(WeatherSnapshot snapshot) {
+        String city = snapshot.getCityName().isEmpty() ? "your location" : snapshot.getCityName();
+        switch (kind) {
+            case TEMPERATURE_ABOVE:
+                return "It's " + snapshot.getRoundedTemperature() + "° in " + city
+                        + ", above " + Math.round(threshold) + "°";
+            case TEMPERATURE_BELOW:
+                return "It's " + snapshot.getRoundedTemperature() + "° in " + city
+                        + ", below " + Math.round(threshold) + "°";
+            default:
+                return "⛈️ " + WeatherConditions.getDescription(snapshot.getConditionId()) + " in " + city;
+        }
+    }
+}
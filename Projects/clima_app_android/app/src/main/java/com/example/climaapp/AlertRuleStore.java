@@ -0,0 +1,72 @@
+package com.example.climaapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The user's alert rules and the engine's state between runs. The compiled {@link AlertEngine}
+ * is kept for the life of the process and only rebuilt when the stored rules change.
+ */
+public class AlertRuleStore {
+
+    private static final String PREFS_NAME = "alerts";
+    private static final String KEY_RULES = "rules";
+    private static final String KEY_STATE = "state";
+
+    private static String compiledFrom;
+    private static AlertEngine compiled;
+
+    private final SharedPreferences prefs;
+
+    public AlertRuleStore(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public List<AlertRule> load() {
+        return parse(prefs.getString(KEY_RULES, ""));
+    }
+
+    public void save(List<AlertRule> rules) {
+        StringBuilder stored = new StringBuilder();
+        for (AlertRule rule : rules) {
+            stored.append(rule.getId()).append('|').append(rule.getCityId()).append('|')
+                    .append(rule.getKind().name()).append('|').append(rule.getThreshold()).append('\n');
+        }
+        prefs.edit().putString(KEY_RULES, stored.toString()).apply();
+    }
+
+    /** The engine for the stored rules, with the state the last run left behind. */
+    public AlertEngine engine() {
+        String stored = prefs.getString(KEY_RULES, "");
+        synchronized (AlertRuleStore.class) {
+            if (compiled == null || !stored.equals(compiledFrom)) {
+                compiled = new AlertEngine(parse(stored));
+                compiled.restoreState(prefs.getString(KEY_STATE, ""));
+                compiledFrom = stored;
+            }
+            return compiled;
+        }
+    }
+
+    public void saveState(AlertEngine engine) {
+        prefs.edit().putString(KEY_STATE, engine.saveState()).apply();
+    }
+
+    private static List<AlertRule> parse(String stored) {
+        List<AlertRule> rules = new ArrayList<>();
+        for (String line : stored.split("\n")) {
+            String[] fields = line.split("\\|");
+            if (fields.length != 4) continue;
+            try {
+                rules.add(new AlertRule(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        AlertRule.Kind.valueOf(fields[2]), Double.parseDouble(fields[3])));
+            } catch (IllegalArgumentException ignored) {
+                // Skip a corrupt line rather than losing every rule
+            }
+        }
+        return rules;
+    }
+}
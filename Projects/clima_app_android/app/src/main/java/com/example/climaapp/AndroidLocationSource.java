@@ -0,0 +1,97 @@
+package com.example.climaapp;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@SuppressLint("MissingPermission")
+class AndroidLocationSource implements LocationSource {
+
+    private static final String[] RACED_PROVIDERS = {LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER};
+
+    private final LocationManager locationManager;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<Consumer<LocationFix>, List<LocationListener>> registrations = new HashMap<>();
+
+    AndroidLocationSource(Context context) {
+        this.locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+    }
+
+    @Override
+    public List<String> getEnabledProviders() {
+        List<String> providers = new ArrayList<>();
+        for (String provider : RACED_PROVIDERS) {
+            if (locationManager.isProviderEnabled(provider)) {
+                providers.add(provider);
+            }
+        }
+        return providers;
+    }
+
+    @Override
+    public LocationFix getLastKnownFix(String provider) {
+        return toFix(locationManager.getLastKnownLocation(provider));
+    }
+
+    @Override
+    public void requestUpdates(String provider, Consumer<LocationFix> listener) {
+        LocationListener locationListener = new LocationListener() {
+            @Override
+            public void onLocationChanged(@NonNull Location location) {
+                listener.accept(toFix(location));
+            }
+
+            // Abstract on API 24-28 and deprecated after, so it has to stay until minSdk is 29
+            @SuppressWarnings("deprecation")
+            @Override public void onStatusChanged(String provider, int status, Bundle extras) {}
+            @Override public void onProviderEnabled(@NonNull String provider) {}
+            @Override public void onProviderDisabled(@NonNull String provider) {}
+        };
+        registrations.computeIfAbsent(listener, key -> new ArrayList<>()).add(locationListener);
+        locationManager.requestLocationUpdates(provider, 0, 0, locationListener, Looper.getMainLooper());
+    }
+
+    @Override
+    public void removeUpdates(Consumer<LocationFix> listener) {
+        List<LocationListener> locationListeners = registrations.remove(listener);
+        if (locationListeners == null) return;
+        for (LocationListener locationListener : locationListeners) {
+            locationManager.removeUpdates(locationListener);
+        }
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+        handler.postDelayed(task, delayMillis);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable task) {
+        handler.removeCallbacks(task);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private static LocationFix toFix(Location location) {
+        if (location == null) return null;
+        float accuracy = location.hasAccuracy() ? location.getAccuracy() : Float.MAX_VALUE;
+        return new LocationFix(location.getLatitude(), location.getLongitude(), accuracy,
+                location.getTime(), location.getProvider());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.climaapp;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling an upstream that keeps failing. After {@code failureThreshold} failures in a row
+ * the circuit opens and every request fails fast for {@code openMs}; then a single probe is let
+ * through (half-open). If the probe succeeds the circuit closes, otherwise it opens again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MS = 30_000;
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private int rejected;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MS, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a request may go out now. A true answer must be followed by a success, a failure or
+     * a cancellation.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.CLOSED) return true;
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+        probeInFlight = false;
+    }
+
+    /**
+     * The caller gave up on the request, which says nothing about the upstream: the state stays
+     * as it is, but the probe slot is freed so the next request can probe instead.
+     */
+    public synchronized void recordCancelled() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /** Requests turned away since this breaker was created. */
+    public synchronized int rejectedCount() {
+        return rejected;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.climaapp;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only prefix index over a city list, stored as a sorted array in one file and read through
+ * a memory-mapped view, so a 200k-city list costs almost no heap.
+ *
+ * <pre>
+ * header  (16 bytes): magic, version, city count, offset of the string area
+ * entries (24 bytes each, sorted by normalized name):
+ *     string offset (int), key length (short), name length (short),
+ *     latitude (float), longitude (float), population (int), country code (2 ASCII bytes), padding
+ * strings: per city, the normalized key followed by the display name, both UTF-8
+ * </pre>
+ *
+ * A prefix maps to one contiguous run of entries, found with two binary searches; the most
+ * populous cities in the run are returned.
+ */
+public final class CityIndex {
+
+    static final int MAGIC = 0x434C4349;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int stringsOffset;
+
+    private CityIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a city index");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.stringsOffset = buffer.getInt(12);
+    }
+
+    public static CityIndex open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            // The mapping stays valid after the file is closed
+            return new CityIndex(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** City at {@code index}, in normalized-name order. */
+    public City get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + count);
+        }
+        return city(index);
+    }
+
+    double latitudeAt(int index) {
+        return buffer.getFloat(entry(index) + 8);
+    }
+
+    double longitudeAt(int index) {
+        return buffer.getFloat(entry(index) + 12);
+    }
+
+    /**
+     * Up to {@code limit} cities whose normalized name starts with the normalized {@code prefix},
+     * most populous first.
+     */
+    public List<City> search(String prefix, int limit) {
+        byte[] key = WeatherCache.normalizeCityName(prefix).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || limit <= 0) return Collections.emptyList();
+
+        int from = lowerBound(key, false);
+        int to = lowerBound(key, true);
+
+        // Keep the best `limit` entries in a small array sorted by population, highest first
+        int[] best = new int[Math.min(limit, to - from)];
+        int found = 0;
+        for (int i = from; i < to; i++) {
+            int population = population(i);
+            if (found == best.length && population <= population(best[found - 1])) continue;
+            int at = found == best.length ? found - 1 : found++;
+            while (at > 0 && population(best[at - 1]) < population) {
+                best[at] = best[at - 1];
+                at--;
+            }
+            best[at] = i;
+        }
+
+        List<City> cities = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            cities.add(city(best[i]));
+        }
+        return cities;
+    }
+
+    /** The most populous city whose normalized name is exactly {@code name}'s, or null. */
+    public City findExact(String name) {
+        byte[] key = WeatherCache.normalizeCityName(name).getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) return null;
+        int best = -1;
+        for (int i = lowerBound(key, false), to = lowerBound(key, true); i < to; i++) {
+            if (keyLength(i) == key.length && (best < 0 || population(i) > population(best))) {
+                best = i;
+            }
+        }
+        return best < 0 ? null : city(best);
+    }
+
+    /**
+     * First entry whose key is not below {@code prefix}; with {@code past}, first entry whose key
+     * is above every key starting with {@code prefix}.
+     */
+    private int lowerBound(byte[] prefix, boolean past) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (past && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Compares entry {@code index}'s key, cut to the prefix length, with the prefix. */
+    private int comparePrefix(int index, byte[] prefix) {
+        int base = stringsOffset + buffer.getInt(entry(index));
+        int length = keyLength(index);
+        int n = Math.min(length, prefix.length);
+        for (int i = 0; i < n; i++) {
+            int a = buffer.get(base + i) & 0xFF;
+            int b = prefix[i] & 0xFF;
+            if (a != b) return a - b;
+        }
+        return length < prefix.length ? -1 : 0;
+    }
+
+    private static int entry(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    private int keyLength(int index) {
+        return buffer.getShort(entry(index) + 4) & 0xFFFF;
+    }
+
+    private int population(int index) {
+        return buffer.getInt(entry(index) + 16);
+    }
+
+    private City city(int index) {
+        int at = entry(index);
+        int nameStart = stringsOffset + buffer.getInt(at) + keyLength(index);
+        byte[] name = new byte[buffer.getShort(at + 6) & 0xFFFF];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.get(nameStart + i);
+        }
+        String country = new String(new char[]{(char) buffer.get(at + 20), (char) buffer.get(at + 21)}).trim();
+        return new City(new String(name, StandardCharsets.UTF_8), country,
+                buffer.getFloat(at + 8), buffer.getFloat(at + 12), population(index));
+    }
+
+    /** Writes the index for {@code cities} to {@code file}, replacing it atomically. */
+    public static void write(List<City> cities, File file) throws IOException {
+        int size = cities.size();
+        byte[][] keys = new byte[size][];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = WeatherCache.normalizeCityName(cities.get(i).getName()).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareBytes(keys[a], keys[b]));
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int[] offsets = new int[size];
+        byte[][] names = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            int city = order[i];
+            names[city] = cities.get(city).getName().getBytes(StandardCharsets.UTF_8);
+            offsets[city] = strings.size();
+            strings.write(keys[city]);
+            strings.write(names[city]);
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(HEADER_SIZE + size * ENTRY_SIZE);
+            for (int i = 0; i < size; i++) {
+                int index = order[i];
+                City city = cities.get(index);
+                String country = (city.getCountry() + "  ").substring(0, 2);
+                out.writeInt(offsets[index]);
+                out.writeShort(keys[index].length);
+                out.writeShort(names[index].length);
+                out.writeFloat((float) city.getLatitude());
+                out.writeFloat((float) city.getLongitude());
+                out.writeInt(city.getPopulation());
+                out.writeByte(country.charAt(0));
+                out.writeByte(country.charAt(1));
+                out.writeShort(0);
+            }
+            strings.writeTo(out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return a.length - b.length;
+    }
+
+    /** Reads "name,country,latitude,longitude,population" lines; '#' starts a comment. */
+    public static List<City> readCsv(Reader source) throws IOException {
+        List<City> cities = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split(",");
+            if (parts.length != 5) throw new IOException("Bad city line: " + line);
+            cities.add(new City(parts[0], parts[1], Double.parseDouble(parts[2]),
+                    Double.parseDouble(parts[3]), Integer.parseInt(parts[4])));
+        }
+        return cities;
+    }
+
+    public static final class City {
+
+        private final String name;
+        private final String country;
+        private final double latitude;
+        private final double longitude;
+        private final int population;
+
+        public City(String name, String country, double latitude, double longitude, int population) {
+            this.name = name;
+            this.country = country;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.population = population;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** ISO 3166 alpha-2 code. */
+        public String getCountry() {
+            return country;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public int getPopulation() {
+            return population;
+        }
+
+        @Override
+        public String toString() {
+            return country.isEmpty() ? name : name + ", " + country;
+        }
+    }
+}
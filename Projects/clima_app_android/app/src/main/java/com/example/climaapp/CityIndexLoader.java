@@ -0,0 +1,76 @@
+package com.example.climaapp;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Builds the {@link CityIndex} from the bundled assets/cities.csv the first time it is needed and
+ * keeps it in filesDir, so later launches only map the file. {@link #load} and {@link #locator}
+ * can block on that first build; call them off the main thread.
+ */
+public class CityIndexLoader {
+
+    private static final String ASSET = "cities.csv";
+    // Bump when cities.csv changes so installed apps rebuild their index
+    private static final String INDEX_FILE = "cities-1.idx";
+
+    private static final ExecutorService LOOKUP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "city-lookup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static CityIndex index;
+    private static NearestCityLocator locator;
+
+    public static synchronized CityIndex load(Context context) {
+        if (index != null) return index;
+
+        File file = new File(context.getFilesDir(), INDEX_FILE);
+        try {
+            if (!file.exists()) {
+                try (Reader reader = new InputStreamReader(context.getAssets().open(ASSET), StandardCharsets.UTF_8)) {
+                    CityIndex.write(CityIndex.readCsv(reader), file);
+                }
+            }
+            index = CityIndex.open(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            file.delete();
+        }
+        return index;
+    }
+
+    public static synchronized NearestCityLocator locator(Context context) {
+        if (locator == null) {
+            CityIndex loaded = load(context);
+            if (loaded != null) locator = new NearestCityLocator(loaded);
+        }
+        return locator;
+    }
+
+    /**
+     * Finds the known city nearest to the coordinates on a background thread and delivers it (or
+     * null if none is close) on the main thread. Nothing is delivered once {@code scope} is cancelled.
+     */
+    public static void findNearestCity(Context context, double lat, double lon, RequestScope scope,
+                                       Consumer<CityIndex.City> callback) {
+        if (scope.isCancelled()) return;
+        Context appContext = context.getApplicationContext();
+        Consumer<CityIndex.City> bound = scope.bind(callback);
+        LOOKUP_EXECUTOR.execute(() -> {
+            NearestCityLocator loaded = locator(appContext);
+            CityIndex.City city = loaded != null
+                    ? loaded.nearestWithin(lat, lon, NearestCityLocator.DEFAULT_MAX_DISTANCE_KM) : null;
+            WeatherNetworkClient.postToCallbackThread(() -> bound.accept(city));
+        });
+    }
+}
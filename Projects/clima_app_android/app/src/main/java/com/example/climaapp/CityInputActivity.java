@@ -2,24 +2,72 @@ package com.example.climaapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 public class CityInputActivity extends AppCompatActivity {
 
+    private static final ScheduledExecutorService SUGGESTION_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "city-suggestions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private EditText cityEditText;
     private Button getWeatherButton;
+    private CitySuggester citySuggester;
+    private ArrayAdapter<CityIndex.City> suggestionsAdapter;
+    private RequestScope requestScope;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_city_input);
+        // 🧹 Requests started here are dropped when the screen is destroyed
+        requestScope = RequestScope.of(this);
 
         cityEditText = findViewById(R.id.city_edit_text);
         getWeatherButton = findViewById(R.id.get_weather_button);
+        ListView suggestionsList = findViewById(R.id.city_suggestions_list);
+
+        // 🔎 Suggestions from the bundled city list while typing
+        citySuggester = new CitySuggester(() -> CityIndexLoader.load(getApplicationContext()),
+                SUGGESTION_EXECUTOR, this::runOnUiThread,
+                CitySuggester.DEFAULT_DEBOUNCE_MS, CitySuggester.DEFAULT_LIMIT);
+        suggestionsAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        suggestionsList.setAdapter(suggestionsAdapter);
+        suggestionsList.setOnItemClickListener((parent, view, position, id) ->
+                fetchWeather(suggestionsAdapter.getItem(position)));
+
+        cityEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                citySuggester.query(s.toString(), cities -> {
+                    suggestionsAdapter.clear();
+                    suggestionsAdapter.addAll(cities);
+                });
+            }
+        });
 
         cityEditText.setOnEditorActionListener((v, actionId, event) -> {
             if (actionId == EditorInfo.IME_ACTION_DONE) {
@@ -34,20 +82,44 @@ public class CityInputActivity extends AppCompatActivity {
             public void onClick(View v) {
                 String cityName = cityEditText.getText().toString().trim();
                 if (!cityName.isEmpty()) {
-                    WeatherNetworkClient.fetchWeatherByCity(cityName, weatherJson -> {
-                        WeatherDataParser parser = new WeatherDataParser(weatherJson);
-                        double lat = parser.getLatitude();
-                        double lon = parser.getLongitude();
-
-                        Intent intent = new Intent(CityInputActivity.this, WeatherActivity.class);
-                        intent.putExtra("weatherData", weatherJson);
-                        intent.putExtra("lat", lat);
-                        intent.putExtra("lon", lon);
-                        startActivity(intent);
-                        finish();
+                    // A name we know resolves to coordinates; anything else goes to the API as typed
+                    SUGGESTION_EXECUTOR.execute(() -> {
+                        CityIndex.City city = citySuggester.resolve(cityName);
+                        runOnUiThread(() -> {
+                            if (city != null) {
+                                fetchWeather(city);
+                            } else {
+                                WeatherNetworkClient.fetchSnapshotByCity(cityName, requestScope, CityInputActivity.this::showWeather);
+                            }
+                        });
                     });
                 }
             }
         });
     }
+
+    private void fetchWeather(CityIndex.City city) {
+        citySuggester.cancel();
+        WeatherNetworkClient.fetchSnapshotByCoordinates(city.getLatitude(), city.getLongitude(), requestScope,
+                this::showWeather);
+    }
+
+    private void showWeather(WeatherSnapshot snapshot) {
+        if (isFinishing()) return;
+        if (snapshot == null) {
+            Toast.makeText(CityInputActivity.this, "Unable to fetch weather", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        Intent intent = new Intent(CityInputActivity.this, WeatherActivity.class);
+        intent.putExtra(WeatherActivity.EXTRA_SNAPSHOT, snapshot);
+        startActivity(intent);
+        finish();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        citySuggester.cancel();
+    }
 }
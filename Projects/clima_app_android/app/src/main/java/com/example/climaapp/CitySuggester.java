@@ -0,0 +1,90 @@
+package com.example.climaapp;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * As-you-type city suggestions. Each keystroke restarts a short timer; only when typing pauses is
+ * the index searched, on the scheduler's thread, and only the newest query's results are
+ * delivered.
+ */
+public class CitySuggester {
+
+    public static final long DEFAULT_DEBOUNCE_MS = 150;
+    public static final int DEFAULT_LIMIT = 8;
+
+    private final Supplier<CityIndex> indexSupplier;
+    private final ScheduledExecutorService scheduler;
+    private final Executor callbackExecutor;
+    private final long debounceMs;
+    private final int limit;
+
+    private final Object indexLock = new Object();
+    private volatile CityIndex index;
+    private ScheduledFuture<?> pending;
+    private int generation;
+
+    /**
+     * @param indexSupplier called on the scheduler thread when the first query runs, and again
+     *                      later if it returned null (no index available yet)
+     */
+    public CitySuggester(Supplier<CityIndex> indexSupplier, ScheduledExecutorService scheduler,
+                         Executor callbackExecutor, long debounceMs, int limit) {
+        this.indexSupplier = indexSupplier;
+        this.scheduler = scheduler;
+        this.callbackExecutor = callbackExecutor;
+        this.debounceMs = debounceMs;
+        this.limit = limit;
+    }
+
+    public synchronized void query(String text, Consumer<List<CityIndex.City>> callback) {
+        cancel();
+        int requested = generation;
+        pending = scheduler.schedule(() -> {
+            List<CityIndex.City> cities = search(text);
+            callbackExecutor.execute(() -> {
+                if (isCurrent(requested)) callback.accept(cities);
+            });
+        }, debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Drops any query not yet delivered. */
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /** Looks {@code name} up directly, on the calling thread, loading the index if needed. */
+    public CityIndex.City resolve(String name) {
+        CityIndex loaded = index();
+        return loaded != null ? loaded.findExact(name) : null;
+    }
+
+    private List<CityIndex.City> search(String text) {
+        CityIndex loaded = index();
+        return loaded != null ? loaded.search(text, limit) : Collections.emptyList();
+    }
+
+    private synchronized boolean isCurrent(int requested) {
+        return requested == generation;
+    }
+
+    private CityIndex index() {
+        // Separate lock: loading can take a while and must not block query() on the UI thread
+        synchronized (indexLock) {
+            if (index == null) {
+                index = indexSupplier.get();
+            }
+            return index;
+        }
+    }
+}
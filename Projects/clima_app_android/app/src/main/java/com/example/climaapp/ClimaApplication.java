@@ -0,0 +1,20 @@
+package com.example.climaapp;
+
+import android.app.Application;
+
+import java.io.File;
+
+public class ClimaApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ClimaTrace.mark(ClimaTrace.APP_START);
+        ClimaTrace.enablePlatformTracing();
+        WeatherNetworkClient.setCache(new WeatherCache(new File(getCacheDir(), "weather")));
+        WeatherNetworkClient.setHistory(new WeatherHistoryStore(new File(getFilesDir(), "history")));
+        // Requests are idempotent GETs, so a duplicate for the slowest 5% is safe and cheap
+        WeatherNetworkClient.setHedgePolicy(new HedgePolicy(HedgePolicy.DEFAULT_PERCENTILE, 500));
+        WeatherRefreshJobService.schedule(this);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.climaapp;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spans around the cold-start and request path. Every span goes to the in-process
+ * {@link TraceRecorder}; once {@link #enablePlatformTracing()} has been called they also show up
+ * as sections in system traces (Perfetto / Android Studio profiler).
+ *
+ * <pre>
+ * long start = ClimaTrace.begin(ClimaTrace.PARSE);
+ * ...
+ * ClimaTrace.end(ClimaTrace.PARSE, start);
+ * </pre>
+ */
+public final class ClimaTrace {
+
+    public static final String APP_START = "Clima.appStart";
+    public static final String MAIN_REDIRECT = "MainActivity.redirect";
+    public static final String GET_WEATHER_DATA = "LoadingActivity.getWeatherData";
+    public static final String LOCATION_WAIT = "LocationHelper.getCurrentLocation";
+    public static final String LOCATION_FIRST_FIX = "LocationStrategy.firstFix";
+    public static final String LOCATION_FIRST_FIX_CACHED = "LocationStrategy.firstFixCached";
+    public static final String LOCATION_BEST_FIX = "LocationStrategy.bestFix";
+    public static final String FETCH = "WeatherNetworkClient.fetchData";
+    public static final String HTTP = "WeatherNetworkClient.httpGet";
+    public static final String PARSE = "WeatherDataParser.parse";
+    public static final String UPDATE_UI = "WeatherActivity.updateUI";
+    public static final String WEATHER_DRAWN = "WeatherActivity.weatherDrawn";
+    public static final String MAP_LITE = "WeatherActivity.liteMap";
+    public static final String MAP_INTERACTIVE = "WeatherActivity.interactiveMap";
+
+    private static final TraceRecorder RECORDER = new TraceRecorder(4096);
+    // Async sections of one name are told apart by cookie; a counter never repeats one in flight
+    private static final AtomicInteger ASYNC_COOKIES = new AtomicInteger();
+
+    private static volatile boolean platformTracing;
+
+    private ClimaTrace() {
+    }
+
+    public static void enablePlatformTracing() {
+        platformTracing = true;
+    }
+
+    public static TraceRecorder recorder() {
+        return RECORDER;
+    }
+
+    /** Starts a span that begins and ends on the same thread. */
+    public static long begin(String name) {
+        if (platformTracing) {
+            Trace.beginSection(name);
+        }
+        return System.nanoTime();
+    }
+
+    public static void end(String name, long startNanos) {
+        RECORDER.record(name, startNanos, System.nanoTime() - startNanos);
+        if (platformTracing) {
+            Trace.endSection();
+        }
+    }
+
+    /** Starts a span that may end on another thread (a callback, a worker). */
+    public static AsyncSpan beginAsync(String name) {
+        AsyncSpan span = new AsyncSpan(name, System.nanoTime(), ASYNC_COOKIES.incrementAndGet());
+        if (platformTracing && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, span.cookie);
+        }
+        return span;
+    }
+
+    public static void endAsync(AsyncSpan span) {
+        RECORDER.record(span.name, span.startNanos, System.nanoTime() - span.startNanos);
+        if (platformTracing && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(span.name, span.cookie);
+        }
+    }
+
+    /**
+     * Records how long a {@link LocationStrategy} took to its first and to its most accurate fix,
+     * as spans starting at {@code startNanos}. A first fix served from the cache gets its own name,
+     * so it doesn't drag down the provider numbers. Strategies that found nothing record nothing.
+     */
+    public static void recordLocationMetrics(long startNanos, LocationStrategy.Metrics metrics) {
+        if (metrics.timeToFirstFixMs < 0) return;
+        String first = metrics.firstFixFromCache ? LOCATION_FIRST_FIX_CACHED : LOCATION_FIRST_FIX;
+        RECORDER.record(first, startNanos, TimeUnit.MILLISECONDS.toNanos(metrics.timeToFirstFixMs));
+        RECORDER.record(LOCATION_BEST_FIX, startNanos, TimeUnit.MILLISECONDS.toNanos(metrics.timeToBestFixMs));
+    }
+
+    /** Records an instant, e.g. process start. */
+    public static void mark(String name) {
+        RECORDER.record(name, System.nanoTime(), 0);
+    }
+
+    /**
+     * Milliseconds from {@link #APP_START} to the end of the first weather render, or -1 if
+     * either has not happened yet.
+     */
+    public static double timeToWeatherMillis() {
+        long start = RECORDER.firstStartNanos(APP_START);
+        long rendered = RECORDER.firstEndNanos(UPDATE_UI);
+        if (start < 0 || rendered < 0) return -1;
+        return (rendered - start) / 1_000_000.0;
+    }
+
+    /**
+     * Milliseconds from the first weather frame to the start of the lite map, or -1 until that map
+     * has loaded. Never negative: the map is only started after the weather is drawn.
+     */
+    public static double mapStartAfterWeatherMillis() {
+        long drawn = RECORDER.firstStartNanos(WEATHER_DRAWN);
+        long map = RECORDER.firstStartNanos(MAP_LITE);
+        if (drawn < 0 || map < 0) return -1;
+        return (map - drawn) / 1_000_000.0;
+    }
+
+    /** A span from {@link #beginAsync}, to hand to {@link #endAsync} wherever it finishes. */
+    public static final class AsyncSpan {
+        final String name;
+        final long startNanos;
+        final int cookie;
+
+        AsyncSpan(String name, long startNanos, int cookie) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.cookie = cookie;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.climaapp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The marker changes needed to go from the clusters on screen to a new set. Clusters whose
+ * {@link MarkerClusterer.Cluster#getKey() key} is on both sides keep their marker; they are listed
+ * in {@link #getKept()} in case a point moved or was relabelled under the same ID.
+ */
+public final class ClusterDiff {
+
+    private final List<MarkerClusterer.Cluster> added;
+    private final List<Long> removed;
+    private final List<MarkerClusterer.Cluster> kept;
+
+    private ClusterDiff(List<MarkerClusterer.Cluster> added, List<Long> removed, List<MarkerClusterer.Cluster> kept) {
+        this.added = added;
+        this.removed = removed;
+        this.kept = kept;
+    }
+
+    public static ClusterDiff between(Set<Long> shownKeys, List<MarkerClusterer.Cluster> next) {
+        List<MarkerClusterer.Cluster> added = new ArrayList<>();
+        List<MarkerClusterer.Cluster> keptClusters = new ArrayList<>();
+        Set<Long> kept = new HashSet<>();
+        for (MarkerClusterer.Cluster cluster : next) {
+            Long key = cluster.getKey();
+            if (shownKeys.contains(key)) {
+                kept.add(key);
+                keptClusters.add(cluster);
+            } else {
+                added.add(cluster);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Long key : shownKeys) {
+            if (!kept.contains(key)) {
+                removed.add(key);
+            }
+        }
+        return new ClusterDiff(added, removed, keptClusters);
+    }
+
+    public List<MarkerClusterer.Cluster> getAdded() {
+        return added;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public List<MarkerClusterer.Cluster> getKept() {
+        return kept;
+    }
+
+    /** Markers to add or remove; kept ones are not counted. */
+    public int size() {
+        return added.size() + removed.size();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.climaapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shows a list of {@link MapPoint}s on a {@link GoogleMap} as clusters. Clustering happens on a
+ * background thread whenever the camera settles; the resulting marker changes are applied on the
+ * main thread a batch at a time so a big update never blocks a frame.
+ */
+class ClusterLayer implements GoogleMap.OnCameraIdleListener {
+
+    // Marker adds/removes per main-thread message; each one costs a binder call into the map
+    static final int MARKERS_PER_BATCH = 40;
+
+    private static final ExecutorService CLUSTER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "marker-cluster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final GoogleMap map;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Long, Shown> markers = new HashMap<>();
+
+    private MarkerClusterer clusterer = new MarkerClusterer(new ArrayList<>());
+    private int pointsVersion;
+    // Bumped on every update so batches from an outdated one stop early
+    private int generation;
+
+    ClusterLayer(GoogleMap map) {
+        this.map = map;
+    }
+
+    void setPoints(List<MapPoint> points) {
+        int requested = ++pointsVersion;
+        CLUSTER_EXECUTOR.execute(() -> {
+            MarkerClusterer built = new MarkerClusterer(points);
+            mainHandler.post(() -> {
+                if (requested != pointsVersion) return;
+                // Keys follow point IDs, so markers for points still there stay put
+                clusterer = built;
+                onCameraIdle();
+            });
+        });
+    }
+
+    @Override
+    public void onCameraIdle() {
+        CameraPosition camera = map.getCameraPosition();
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        MarkerClusterer current = clusterer;
+        HashSet<Long> shown = new HashSet<>(markers.keySet());
+        int requested = ++generation;
+
+        CLUSTER_EXECUTOR.execute(() -> {
+            List<MarkerClusterer.Cluster> visible = current.clusters(camera.zoom,
+                    bounds.southwest.latitude, bounds.southwest.longitude,
+                    bounds.northeast.latitude, bounds.northeast.longitude);
+            ClusterDiff diff = ClusterDiff.between(shown, visible);
+            mainHandler.post(() -> applyBatch(requested, diff, 0));
+        });
+    }
+
+    /** Removes every marker and stops any update in progress. */
+    void clear() {
+        generation++;
+        for (Shown shown : markers.values()) {
+            shown.marker.remove();
+        }
+        markers.clear();
+    }
+
+    private void applyBatch(int requested, ClusterDiff diff, int start) {
+        if (requested != generation) return;
+
+        if (start == 0) {
+            for (MarkerClusterer.Cluster cluster : diff.getKept()) {
+                Shown shown = markers.get(cluster.getKey());
+                if (shown != null) shown.update(cluster);
+            }
+        }
+
+        List<Long> removed = diff.getRemoved();
+        List<MarkerClusterer.Cluster> added = diff.getAdded();
+        int end = Math.min(diff.size(), start + MARKERS_PER_BATCH);
+        for (int i = start; i < end; i++) {
+            // Removals first, so the marker count never overshoots
+            if (i < removed.size()) {
+                Shown shown = markers.remove(removed.get(i));
+                if (shown != null) shown.marker.remove();
+            } else {
+                MarkerClusterer.Cluster cluster = added.get(i - removed.size());
+                LatLng position = position(cluster);
+                String title = title(cluster);
+                Marker marker = map.addMarker(new MarkerOptions().position(position).title(title));
+                if (marker != null) markers.put(cluster.getKey(), new Shown(marker, position, title));
+            }
+        }
+        if (end < diff.size()) {
+            mainHandler.post(() -> applyBatch(requested, diff, end));
+        }
+    }
+
+    private static LatLng position(MarkerClusterer.Cluster cluster) {
+        return new LatLng(cluster.getLatitude(), cluster.getLongitude());
+    }
+
+    private static String title(MarkerClusterer.Cluster cluster) {
+        MapPoint point = cluster.getPoint();
+        return point != null ? point.getLabel() : cluster.size() + " locations";
+    }
+
+    /** A marker on the map and what it was last given, so unchanged ones cost no binder call. */
+    private static final class Shown {
+        final Marker marker;
+        LatLng position;
+        String title;
+
+        Shown(Marker marker, LatLng position, String title) {
+            this.marker = marker;
+            this.position = position;
+            this.title = title;
+        }
+
+        void update(MarkerClusterer.Cluster cluster) {
+            LatLng nextPosition = position(cluster);
+            if (!nextPosition.equals(position)) {
+                marker.setPosition(nextPosition);
+                position = nextPosition;
+            }
+            String nextTitle = title(cluster);
+            if (!nextTitle.equals(title)) {
+                marker.setTitle(nextTitle);
+                title = nextTitle;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.climaapp;
+
+/**
+ * Decides when {@link WeatherActivity} builds its map. Nothing happens until the first weather
+ * frame is on screen; then a lite-mode map (a static bitmap, far cheaper to create) is attached,
+ * and the interactive map only when the user asks for it. Each step is traced so the ordering
+ * shows up in {@link ClimaTrace#mapStartAfterWeatherMillis()}.
+ */
+final class DeferredMapLoader {
+
+    interface Host {
+        /** Replaces whatever map is showing with a new one, lite or interactive. */
+        void attachMap(boolean liteMode);
+    }
+
+    enum Stage { WAITING, LITE, INTERACTIVE }
+
+    private final Host host;
+    private Stage stage = Stage.WAITING;
+    private ClimaTrace.AsyncSpan mapSpan;
+    private boolean mapLoaded;
+
+    DeferredMapLoader(Host host) {
+        this.host = host;
+    }
+
+    Stage getStage() {
+        return stage;
+    }
+
+    boolean isLite() {
+        return stage == Stage.LITE;
+    }
+
+    /** Call once the weather text and icon have been drawn. */
+    void onWeatherDrawn() {
+        if (stage != Stage.WAITING) return;
+        ClimaTrace.mark(ClimaTrace.WEATHER_DRAWN);
+        stage = Stage.LITE;
+        attach(ClimaTrace.MAP_LITE, true);
+    }
+
+    /** Swaps the lite snapshot for a map that pans and zooms; does nothing if already interactive. */
+    void upgrade() {
+        if (stage == Stage.INTERACTIVE) return;
+        if (stage == Stage.LITE && !mapLoaded) {
+            // The lite map never finished; close its span so it doesn't dangle in the trace
+            ClimaTrace.endAsync(mapSpan);
+        }
+        stage = Stage.INTERACTIVE;
+        attach(ClimaTrace.MAP_INTERACTIVE, false);
+    }
+
+    /** Call when the map created for {@code liteMode} has rendered; stale maps are ignored. */
+    boolean onMapLoaded(boolean liteMode) {
+        if (liteMode != isLite() || stage == Stage.WAITING || mapLoaded) return false;
+        mapLoaded = true;
+        ClimaTrace.endAsync(mapSpan);
+        return true;
+    }
+
+    private void attach(String span, boolean liteMode) {
+        mapLoaded = false;
+        mapSpan = ClimaTrace.beginAsync(span);
+        host.attachMap(liteMode);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.climaapp;
+
+public final class FavoriteCity {
+
+    public static final long UNKNOWN_ID = 0;
+
+    private final String name;
+    private final long cityId;
+
+    public FavoriteCity(String name, long cityId) {
+        this.name = name;
+        this.cityId = cityId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** OpenWeatherMap city ID, or {@link #UNKNOWN_ID} until the city has been fetched once. */
+    public long getCityId() {
+        return cityId;
+    }
+
+    public boolean hasCityId() {
+        return cityId != UNKNOWN_ID;
+    }
+
+    public FavoriteCity withCityId(long id) {
+        return new FavoriteCity(name, id);
+    }
+}
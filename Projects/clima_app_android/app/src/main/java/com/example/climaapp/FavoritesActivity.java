@@ -0,0 +1,118 @@
+package com.example.climaapp;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FavoritesActivity extends AppCompatActivity {
+
+    private final List<FavoriteCity> cities = new ArrayList<>();
+    private final List<WeatherSnapshot> snapshots = new ArrayList<>();
+    private final List<String> rows = new ArrayList<>();
+    private final FavoritesFetcher fetcher = new FavoritesFetcher();
+
+    private FavoritesStore store;
+    private RequestScope requestScope;
+    private ArrayAdapter<String> adapter;
+    private EditText cityEditText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_favorites);
+
+        cityEditText = findViewById(R.id.favorite_city_edit_text);
+        Button addButton = findViewById(R.id.add_favorite_button);
+        Button refreshButton = findViewById(R.id.refresh_favorites_button);
+        ListView favoritesList = findViewById(R.id.favorites_list);
+
+        store = new FavoritesStore(this);
+        requestScope = RequestScope.of(this);
+        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, rows);
+        favoritesList.setAdapter(adapter);
+
+        for (FavoriteCity city : store.load()) {
+            cities.add(city);
+            snapshots.add(null);
+            rows.add(city.getName());
+        }
+
+        addButton.setOnClickListener(v -> {
+            String name = cityEditText.getText().toString().trim();
+            if (name.isEmpty()) return;
+            cities.add(new FavoriteCity(name, FavoriteCity.UNKNOWN_ID));
+            snapshots.add(null);
+            rows.add(name);
+            cityEditText.setText("");
+            store.save(cities);
+            refresh();
+        });
+
+        refreshButton.setOnClickListener(v -> refresh());
+
+        // 🌤️ Open the full weather screen for a city that has loaded
+        favoritesList.setOnItemClickListener((parent, view, position, id) -> {
+            WeatherSnapshot snapshot = snapshots.get(position);
+            if (snapshot == null) return;
+            Intent intent = new Intent(FavoritesActivity.this, WeatherActivity.class);
+            intent.putExtra(WeatherActivity.EXTRA_SNAPSHOT, snapshot);
+            startActivity(intent);
+        });
+
+        // 🗑️ Long press removes a favorite
+        favoritesList.setOnItemLongClickListener((parent, view, position, id) -> {
+            cities.remove(position);
+            snapshots.remove(position);
+            rows.remove(position);
+            adapter.notifyDataSetChanged();
+            store.save(cities);
+            return true;
+        });
+
+        refresh();
+    }
+
+    private void refresh() {
+        for (int i = 0; i < cities.size(); i++) {
+            rows.set(i, cities.get(i).getName() + "   …");
+        }
+        adapter.notifyDataSetChanged();
+
+        fetcher.refresh(new ArrayList<>(cities), requestScope, new FavoritesFetcher.Listener() {
+            @Override
+            public void onCityResult(FavoriteCity city, WeatherSnapshot snapshot) {
+                int index = cities.indexOf(city);
+                if (index < 0) return;  // Removed while the refresh was running
+
+                snapshots.set(index, snapshot);
+                if (snapshot == null) {
+                    rows.set(index, city.getName() + "   ⚠️");
+                } else {
+                    rows.set(index, city.getName() + "   " + snapshot.getRoundedTemperature() + "°");
+                    if (!city.hasCityId() && snapshot.getCityId() != FavoriteCity.UNKNOWN_ID) {
+                        // Remember the ID so the next refresh can use the batch endpoint
+                        cities.set(index, city.withCityId(snapshot.getCityId()));
+                        store.save(cities);
+                    }
+                }
+                adapter.notifyDataSetChanged();
+            }
+
+            @Override
+            public void onComplete(int succeeded, int failed) {
+                if (failed > 0) {
+                    Toast.makeText(FavoritesActivity.this, failed + " cities could not be refreshed", Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+}
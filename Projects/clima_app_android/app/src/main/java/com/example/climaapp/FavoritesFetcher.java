@@ -0,0 +1,259 @@
+package com.example.climaapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes a list of favorite cities in parallel. Cities with a known ID are batched through
+ * the group endpoint; the rest are fetched by name. At most {@code maxConcurrent} requests are
+ * on the wire at once, and a city that has not answered within its deadline is reported as failed.
+ * Listener calls arrive on the main thread as each city resolves.
+ */
+public class FavoritesFetcher {
+
+    public static final int DEFAULT_MAX_CONCURRENT = 3;
+    public static final long DEFAULT_DEADLINE_MS = 8_000;
+
+    public interface Listener {
+        /** Called once per city; {@code snapshot} is null if the city failed or timed out. */
+        void onCityResult(FavoriteCity city, WeatherSnapshot snapshot);
+
+        void onComplete(int succeeded, int failed);
+    }
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "favorites-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxConcurrent;
+    private final long deadlineMs;
+
+    public FavoritesFetcher() {
+        this(DEFAULT_MAX_CONCURRENT, DEFAULT_DEADLINE_MS);
+    }
+
+    public FavoritesFetcher(int maxConcurrent, long deadlineMs) {
+        this.maxConcurrent = maxConcurrent;
+        this.deadlineMs = deadlineMs;
+    }
+
+    public void refresh(List<FavoriteCity> cities, Listener listener) {
+        refresh(cities, null, listener);
+    }
+
+    /** As above, but nothing more is fetched or delivered once {@code scope} is cancelled. */
+    public void refresh(List<FavoriteCity> cities, RequestScope scope, Listener listener) {
+        if (scope != null && scope.isCancelled()) return;
+        new Refresh(cities, scope, listener).start();
+    }
+
+    private class Refresh implements RequestScope.Request {
+        private final RequestScope scope;
+        private volatile Listener listener;
+        private final Set<FavoriteCity> outstanding = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<FavoriteCity, ScheduledFuture<?>> deadlines = new IdentityHashMap<>();
+        private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        // Tasks holding a slot; a task leaves once, whether it answered or timed out first
+        private final Set<Task> running = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int slots;
+        private boolean cancelled;
+        private int succeeded;
+        private int failed;
+
+        Refresh(List<FavoriteCity> cities, RequestScope scope, Listener listener) {
+            this.scope = scope;
+            this.listener = listener;
+            outstanding.addAll(cities);
+
+            List<FavoriteCity> withIds = new ArrayList<>();
+            for (FavoriteCity city : cities) {
+                if (city.hasCityId()) {
+                    withIds.add(city);
+                } else {
+                    pending.add(() -> fetchSingle(city));
+                }
+            }
+            for (int i = 0; i < withIds.size(); i += WeatherNetworkClient.MAX_GROUP_SIZE) {
+                List<FavoriteCity> batch = withIds.subList(i, Math.min(withIds.size(), i + WeatherNetworkClient.MAX_GROUP_SIZE));
+                if (batch.size() == 1) {
+                    FavoriteCity city = batch.get(0);
+                    pending.add(() -> fetchSingle(city));
+                } else {
+                    List<FavoriteCity> group = new ArrayList<>(batch);
+                    pending.add(() -> fetchGroup(group));
+                }
+            }
+        }
+
+        void start() {
+            if (outstanding.isEmpty()) {
+                WeatherNetworkClient.postToCallbackThread(() -> listener.onComplete(0, 0));
+                return;
+            }
+            if (scope != null && !scope.add(this)) return;
+            dispatch();
+        }
+
+        private void dispatch() {
+            List<Runnable> toRun = new ArrayList<>();
+            synchronized (this) {
+                while (slots < maxConcurrent && !pending.isEmpty()) {
+                    slots++;
+                    toRun.add(pending.poll());
+                }
+            }
+            for (Runnable task : toRun) {
+                task.run();
+            }
+        }
+
+        private Task begin(List<FavoriteCity> cities) {
+            Task task = new Task(cities);
+            synchronized (this) {
+                if (cancelled) task.scope.cancel();
+                else running.add(task);
+            }
+            for (FavoriteCity city : cities) {
+                armDeadline(city, task);
+            }
+            return task;
+        }
+
+        private void taskFinished(Task task) {
+            synchronized (this) {
+                if (!running.remove(task)) return;
+                slots--;
+            }
+            dispatch();
+        }
+
+        private void fetchSingle(FavoriteCity city) {
+            Task task = begin(Collections.singletonList(city));
+            WeatherNetworkClient.fetchSnapshotByCity(city.getName(), task.scope, snapshot -> {
+                resolve(city, snapshot);
+                taskFinished(task);
+            });
+        }
+
+        private void fetchGroup(List<FavoriteCity> group) {
+            Task task = begin(group);
+            long[] ids = new long[group.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = group.get(i).getCityId();
+            }
+            WeatherNetworkClient.fetchGroup(ids, task.scope, snapshots -> {
+                List<FavoriteCity> missing = new ArrayList<>();
+                for (FavoriteCity city : group) {
+                    WeatherSnapshot match = null;
+                    if (snapshots != null) {
+                        for (WeatherSnapshot snapshot : snapshots) {
+                            if (snapshot.getCityId() == city.getCityId()) {
+                                match = snapshot;
+                                break;
+                            }
+                        }
+                    }
+                    if (match != null) {
+                        resolve(city, match);
+                    } else {
+                        missing.add(city);
+                    }
+                }
+                // Group lookups can fail (unsupported key, stale ID): fall back to one request per city
+                synchronized (this) {
+                    for (FavoriteCity city : missing) {
+                        if (outstanding.contains(city)) {
+                            pending.add(() -> fetchSingle(city));
+                        }
+                    }
+                }
+                taskFinished(task);
+            });
+        }
+
+        private void armDeadline(FavoriteCity city, Task task) {
+            ScheduledFuture<?> deadline = DEADLINES.schedule(
+                    () -> WeatherNetworkClient.postToCallbackThread(() -> timedOut(city, task)),
+                    deadlineMs, TimeUnit.MILLISECONDS);
+            synchronized (this) {
+                ScheduledFuture<?> previous = deadlines.put(city, deadline);
+                if (previous != null) previous.cancel(false);
+            }
+        }
+
+        private void resolve(FavoriteCity city, WeatherSnapshot snapshot) {
+            boolean complete;
+            Listener target;
+            synchronized (this) {
+                if (!outstanding.remove(city)) return;
+                ScheduledFuture<?> deadline = deadlines.remove(city);
+                if (deadline != null) deadline.cancel(false);
+                if (snapshot != null) succeeded++;
+                else failed++;
+                complete = outstanding.isEmpty();
+                if (complete) pending.clear();
+                target = listener;
+            }
+            if (complete && scope != null) scope.remove(this);
+            if (target == null) return;
+            target.onCityResult(city, snapshot);
+            if (complete) {
+                target.onComplete(succeeded, failed);
+            }
+        }
+
+        private void timedOut(FavoriteCity city, Task task) {
+            resolve(city, null);
+            boolean abandoned;
+            synchronized (this) {
+                abandoned = running.contains(task) && Collections.disjoint(task.cities, outstanding);
+            }
+            if (abandoned) {
+                // Nobody is waiting on this request any more: stop it and hand its slot on
+                task.scope.cancel();
+                taskFinished(task);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            List<Task> stopped;
+            synchronized (this) {
+                cancelled = true;
+                stopped = new ArrayList<>(running);
+                running.clear();
+                outstanding.clear();
+                pending.clear();
+                for (ScheduledFuture<?> deadline : deadlines.values()) {
+                    deadline.cancel(false);
+                }
+                deadlines.clear();
+                listener = null;
+            }
+            for (Task task : stopped) {
+                task.scope.cancel();
+            }
+        }
+    }
+
+    /** One request's worth of cities, a single one or a group, with a scope to abort it by. */
+    private static final class Task {
+        final List<FavoriteCity> cities;
+        final RequestScope scope = new RequestScope();
+
+        Task(List<FavoriteCity> cities) {
+            this.cities = cities;
+        }
+    }
+}
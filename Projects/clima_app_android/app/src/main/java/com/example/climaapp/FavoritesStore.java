@@ -0,0 +1,43 @@
+package com.example.climaapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FavoritesStore {
+
+    private static final String PREFS_NAME = "favorites";
+    private static final String KEY_CITIES = "cities";
+
+    private final SharedPreferences prefs;
+
+    public FavoritesStore(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public List<FavoriteCity> load() {
+        List<FavoriteCity> cities = new ArrayList<>();
+        String stored = prefs.getString(KEY_CITIES, "");
+        for (String line : stored.split("\n")) {
+            int separator = line.indexOf('|');
+            if (separator <= 0) continue;
+            try {
+                long id = Long.parseLong(line.substring(0, separator));
+                cities.add(new FavoriteCity(line.substring(separator + 1), id));
+            } catch (NumberFormatException ignored) {
+                // Skip a corrupt line rather than losing the whole list
+            }
+        }
+        return cities;
+    }
+
+    public void save(List<FavoriteCity> cities) {
+        StringBuilder stored = new StringBuilder();
+        for (FavoriteCity city : cities) {
+            stored.append(city.getCityId()).append('|').append(city.getName()).append('\n');
+        }
+        prefs.edit().putString(KEY_CITIES, stored.toString()).apply();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.climaapp;
+
+import java.util.Arrays;
+
+/**
+ * The 3-hourly /forecast response held column by column: one primitive array per field instead
+ * of one object per entry. Forty entries cost four small arrays, and scanning a single field
+ * (e.g. every temperature for a chart) walks contiguous memory.
+ *
+ * Entries are sorted by time, as the API returns them.
+ */
+public final class Forecast {
+
+    private final long cityId;
+    private final String cityName;
+    private final int size;
+    private final long[] times;
+    private final double[] temperatures;
+    private final int[] conditionIds;
+    private final double[] windSpeeds;
+
+    Forecast(long cityId, String cityName, int size,
+             long[] times, double[] temperatures, int[] conditionIds, double[] windSpeeds) {
+        this.cityId = cityId;
+        this.cityName = cityName;
+        this.size = size;
+        this.times = times;
+        this.temperatures = temperatures;
+        this.conditionIds = conditionIds;
+        this.windSpeeds = windSpeeds;
+    }
+
+    public long getCityId() {
+        return cityId;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Forecast time of entry {@code index}, in Unix seconds. */
+    public long getTime(int index) {
+        return times[checkIndex(index)];
+    }
+
+    public double getTemperature(int index) {
+        return temperatures[checkIndex(index)];
+    }
+
+    public int getConditionId(int index) {
+        return conditionIds[checkIndex(index)];
+    }
+
+    /** Wind speed in m/s (metric units). */
+    public double getWindSpeed(int index) {
+        return windSpeeds[checkIndex(index)];
+    }
+
+    /**
+     * Index of the entry in effect at {@code timeSeconds}: the last one whose time is not after
+     * it. Returns -1 if the time is before the first entry.
+     */
+    public int indexAt(long timeSeconds) {
+        int found = Arrays.binarySearch(times, 0, size, timeSeconds);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /** Index of the entry closest to {@code timeSeconds}, or -1 if the forecast is empty. */
+    public int nearestIndex(long timeSeconds) {
+        if (size == 0) return -1;
+        int before = indexAt(timeSeconds);
+        if (before < 0) return 0;
+        if (before == size - 1) return before;
+        return timeSeconds - times[before] <= times[before + 1] - timeSeconds ? before : before + 1;
+    }
+
+    public long[] copyTimes() {
+        return Arrays.copyOf(times, size);
+    }
+
+    public double[] copyTemperatures() {
+        return Arrays.copyOf(temperatures, size);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.climaapp;
+
+public class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    // 5 characters is a cell of roughly 4.9 km x 4.9 km, close enough for the same weather
+    public static final int DEFAULT_PRECISION = 5;
+
+    public static String encode(double lat, double lon) {
+        return encode(lat, lon, DEFAULT_PRECISION);
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        int length = 0;
+
+        while (length < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value = value << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value = value << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash[length++] = BASE32[value];
+                bit = 0;
+                value = 0;
+            }
+        }
+        return new String(hash);
+    }
+}
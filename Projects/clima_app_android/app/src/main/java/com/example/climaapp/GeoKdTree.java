@@ -0,0 +1,161 @@
+package com.example.climaapp;
+
+/**
+ * Nearest-neighbour lookup over points on the globe. Each point becomes a unit vector in 3D, so
+ * straight-line (chord) distance orders points exactly like great-circle distance, with no special
+ * cases at the poles or the antimeridian.
+ *
+ * The tree is implicit: the points are reordered so that every range's middle element splits it
+ * on the axis where the range is widest. No node objects, just four parallel arrays.
+ */
+public final class GeoKdTree {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    // Original index of the point at each tree position, and the axis its node splits on
+    private final int[] ids;
+    private final byte[] axes;
+
+    public GeoKdTree(double[] latitudes, double[] longitudes) {
+        int size = latitudes.length;
+        xs = new double[size];
+        ys = new double[size];
+        zs = new double[size];
+        ids = new int[size];
+        axes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            xs[i] = Math.cos(lat) * Math.cos(lon);
+            ys[i] = Math.cos(lat) * Math.sin(lon);
+            zs[i] = Math.sin(lat);
+            ids[i] = i;
+        }
+        build(0, size);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Index (into the arrays given to the constructor) of the closest point, or -1 if empty. */
+    public int nearest(double latitude, double longitude) {
+        if (ids.length == 0) return -1;
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        Search search = new Search(Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat));
+        search(search, 0, ids.length);
+        return ids[search.best];
+    }
+
+    /** Great-circle distance in kilometres. */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void build(int from, int to) {
+        if (to - from <= 1) return;
+        int axis = widestAxis(from, to);
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        axes[mid] = (byte) axis;
+        build(from, mid);
+        build(mid + 1, to);
+    }
+
+    private int widestAxis(int from, int to) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double minZ = Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+        }
+        double x = maxX - minX, y = maxY - minY, z = maxZ - minZ;
+        return x >= y && x >= z ? 0 : y >= z ? 1 : 2;
+    }
+
+    /** Quickselect: puts the k-th smallest on {@code axis} at k, smaller before, larger after. */
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            double pivot = coordinate((left + right) >>> 1, axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(i, axis) < pivot) i++;
+                while (coordinate(j, axis) > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coordinate(int i, int axis) {
+        return axis == 0 ? xs[i] : axis == 1 ? ys[i] : zs[i];
+    }
+
+    private void swap(int a, int b) {
+        double x = xs[a]; xs[a] = xs[b]; xs[b] = x;
+        double y = ys[a]; ys[a] = ys[b]; ys[b] = y;
+        double z = zs[a]; zs[a] = zs[b]; zs[b] = z;
+        int id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+    }
+
+    private void search(Search search, int from, int to) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+        double dx = xs[mid] - search.x, dy = ys[mid] - search.y, dz = zs[mid] - search.z;
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (distance < search.bestDistance) {
+            search.bestDistance = distance;
+            search.best = mid;
+        }
+        if (to - from == 1) return;
+
+        int axis = axes[mid];
+        double split = coordinate(mid, axis) - search.coordinate(axis);
+        // split > 0: the query is on the low side of this node
+        if (split > 0) {
+            search(search, from, mid);
+            if (split * split < search.bestDistance) search(search, mid + 1, to);
+        } else {
+            search(search, mid + 1, to);
+            if (split * split < search.bestDistance) search(search, from, mid);
+        }
+    }
+
+    private static final class Search {
+        final double x, y, z;
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+
+        Search(double x, double y, double z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        double coordinate(int axis) {
+            return axis == 0 ? x : axis == 1 ? y : z;
+        }
+    }
+}
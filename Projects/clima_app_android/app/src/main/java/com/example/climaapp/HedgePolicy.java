@@ -0,0 +1,48 @@
+package com.example.climaapp;
+
+import java.util.Arrays;
+
+/**
+ * Decides when to send a second, "hedged" copy of a slow request. It keeps the latencies of the
+ * last {@code window} requests; once a request has been outstanding longer than the chosen
+ * percentile of those, a duplicate is sent and whichever answer arrives first wins. With the 95th
+ * percentile this costs about 5% extra requests and cuts off most of the slow tail.
+ */
+public class HedgePolicy {
+
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    private static final int DEFAULT_WINDOW = 64;
+    // Too few samples make the percentile meaningless; don't hedge until we have these
+    private static final int MIN_SAMPLES = 16;
+
+    private final double percentile;
+    private final long minDelayMs;
+    private final long[] latencies;
+    private int next;
+    private int count;
+
+    public HedgePolicy(double percentile, long minDelayMs) {
+        this(percentile, minDelayMs, DEFAULT_WINDOW);
+    }
+
+    HedgePolicy(double percentile, long minDelayMs, int window) {
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.latencies = new long[window];
+    }
+
+    public synchronized void record(long latencyMs) {
+        latencies[next] = latencyMs;
+        next = (next + 1) % latencies.length;
+        if (count < latencies.length) count++;
+    }
+
+    /** How long to wait before hedging, or -1 while there is too little history to tell. */
+    public synchronized long hedgeDelayMs() {
+        if (count < Math.min(MIN_SAMPLES, latencies.length)) return -1;
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+        return Math.max(minDelayMs, sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.climaapp;
+
+import java.io.IOException;
+
+/** A response other than 200/304, with the server's Retry-After hint if it sent one. */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int code;
+    private final long retryAfterMs;
+
+    public HttpStatusException(int code, String path, long retryAfterMs) {
+        super("HTTP " + code + " for " + path);
+        this.code = code;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /** 0 if the response had no usable Retry-After header. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
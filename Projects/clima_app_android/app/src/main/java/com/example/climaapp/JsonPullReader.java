@@ -0,0 +1,367 @@
+package com.example.climaapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal forward-only JSON reader. It tokenizes straight from the stream so callers can pick
+ * out the few values they need and skip the rest without building a tree.
+ */
+public class JsonPullReader implements Closeable {
+
+    public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    private static final int MAX_DEPTH = 64;
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+
+    // One entry per open object/array: true when a ',' must come before the next element
+    private final boolean[] needsComma = new boolean[MAX_DEPTH];
+    private final boolean[] inObject = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean expectingValue;
+
+    private final StringBuilder scratch = new StringBuilder(32);
+
+    public JsonPullReader(Reader in) {
+        this.in = in;
+    }
+
+    public Token peek() throws IOException {
+        int c = nextNonWhitespace(false);
+        if (c == -1) return Token.END_DOCUMENT;
+
+        if (depth > 0 && !expectingValue) {
+            if (c == '}' || c == ']') {
+                return c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+            }
+            if (needsComma[depth - 1]) {
+                if (c != ',') throw syntaxError("Expected ','");
+                pos++;
+                needsComma[depth - 1] = false;
+                c = nextNonWhitespace(true);
+            }
+            if (inObject[depth - 1]) {
+                if (c != '"') throw syntaxError("Expected name");
+                return Token.NAME;
+            }
+            // Array element: fall through and classify the value
+            expectingValue = true;
+        }
+
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case 't':
+            case 'f': return Token.BOOLEAN;
+            case 'n': return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return Token.NUMBER;
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(true);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        pop();
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(false);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        pop();
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        pos++;
+        String name = readString();
+        if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+        pos++;
+        expectingValue = true;
+        return name;
+    }
+
+    /** Compares the next name to {@code expected} without allocating a String. */
+    public boolean nextNameIs(String expected) throws IOException {
+        expect(Token.NAME);
+        pos++;
+        boolean matches = matchString(expected);
+        if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+        pos++;
+        expectingValue = true;
+        return matches;
+    }
+
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            pos++;
+            String value = readString();
+            valueDone();
+            return value;
+        }
+        if (token == Token.NUMBER) {
+            String value = readLiteral();
+            valueDone();
+            return value;
+        }
+        throw syntaxError("Expected a string but was " + token);
+    }
+
+    public double nextDouble() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER) throw syntaxError("Expected a number but was " + token);
+        double value = parseNumber();
+        valueDone();
+        return value;
+    }
+
+    public long nextLong() throws IOException {
+        return (long) nextDouble();
+    }
+
+    public int nextInt() throws IOException {
+        return (int) nextDouble();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        boolean value = buffer[pos] == 't';
+        skipLiteral();
+        valueDone();
+        return value;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        skipLiteral();
+        valueDone();
+    }
+
+    public void skipValue() throws IOException {
+        int startDepth = depth;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT: beginObject(); break;
+                case BEGIN_ARRAY: beginArray(); break;
+                case END_OBJECT: endObject(); break;
+                case END_ARRAY: endArray(); break;
+                case NAME:
+                    pos++;
+                    skipString();
+                    if (nextNonWhitespace(true) != ':') throw syntaxError("Expected ':'");
+                    pos++;
+                    expectingValue = true;
+                    break;
+                case STRING:
+                    pos++;
+                    skipString();
+                    valueDone();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    skipLiteral();
+                    valueDone();
+            }
+        } while (depth != startDepth);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token actual = peek();
+        if (actual != expected) throw syntaxError("Expected " + expected + " but was " + actual);
+    }
+
+    private void push(boolean object) throws IOException {
+        if (depth == MAX_DEPTH) throw syntaxError("Nesting too deep");
+        pos++;
+        needsComma[depth] = false;
+        inObject[depth] = object;
+        depth++;
+        expectingValue = false;
+    }
+
+    private void pop() {
+        pos++;
+        depth--;
+        valueDone();
+    }
+
+    private void valueDone() {
+        expectingValue = false;
+        if (depth > 0) {
+            needsComma[depth - 1] = true;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        limit = in.read(buffer, 0, buffer.length);
+        pos = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (required) throw syntaxError("Unexpected end of input");
+                return -1;
+            }
+            char c = buffer[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) throw syntaxError("Unterminated value");
+        return buffer[pos++];
+    }
+
+    private String readString() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') return scratch.toString();
+            scratch.append(c == '\\' ? readEscape() : (char) c);
+        }
+    }
+
+    private boolean matchString(String expected) throws IOException {
+        int index = 0;
+        boolean matches = true;
+        while (true) {
+            int c = read();
+            if (c == '"') return matches && index == expected.length();
+            char ch = c == '\\' ? readEscape() : (char) c;
+            if (matches && (index >= expected.length() || expected.charAt(index) != ch)) {
+                matches = false;
+            }
+            index++;
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') return;
+            if (c == '\\') readEscape();
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) throw syntaxError("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                return (char) c;
+        }
+    }
+
+    private boolean isLiteralChar(char c) {
+        return c != ',' && c != '}' && c != ']' && c != ':' && c != ' ' && c != '\n' && c != '\r' && c != '\t';
+    }
+
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while ((pos < limit || fill()) && isLiteralChar(buffer[pos])) {
+            scratch.append(buffer[pos++]);
+        }
+        return scratch.toString();
+    }
+
+    private void skipLiteral() throws IOException {
+        while ((pos < limit || fill()) && isLiteralChar(buffer[pos])) {
+            pos++;
+        }
+    }
+
+    private double parseNumber() throws IOException {
+        // Fast path for the plain integers and short decimals that make up weather payloads
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean negative = false;
+        boolean fraction = false;
+        boolean simple = true;
+        scratch.setLength(0);
+
+        while ((pos < limit || fill()) && isLiteralChar(buffer[pos])) {
+            char c = buffer[pos++];
+            scratch.append(c);
+            if (c == '-' && scratch.length() == 1) {
+                negative = true;
+            } else if (c >= '0' && c <= '9' && digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) fractionDigits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                simple = false;
+            }
+        }
+        if (digits == 0) throw syntaxError("Invalid number");
+        if (!simple) {
+            try {
+                return Double.parseDouble(scratch.toString());
+            } catch (NumberFormatException e) {
+                throw syntaxError("Invalid number " + scratch);
+            }
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
@@ -3,8 +3,8 @@ package com.example.climaapp;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.location.Location;
 import android.os.Bundle;
+import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -14,55 +14,136 @@ public class LoadingActivity extends AppCompatActivity {
 
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1;
 
+    private LocationStrategy locationStrategy;
+    private WeatherSnapshotStore snapshotStore;
+    private ClimaTrace.AsyncSpan getWeatherDataSpan;
+    private CityIndex.City nearestCity;
+    private LocationFix firstFix;
+    private RequestScope requestScope;
+    // Both have to be in before the screen knows where to go
+    private boolean storedLoaded;
+    private WeatherSnapshot stored;
+    private boolean permissionAnswered;
+    private boolean permissionGranted;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_loading);
+        // 🧹 Leaving this screen drops its pending requests instead of keeping it alive for them
+        requestScope = RequestScope.of(this);
+
+        // ⚡ Show the last known weather right away; WeatherActivity revalidates it in the background.
+        // Past a day old it would pass for today's weather, so load from scratch instead.
+        snapshotStore = new WeatherSnapshotStore(this);
+        snapshotStore.loadRecent(System.currentTimeMillis(), requestScope, snapshot -> {
+            storedLoaded = true;
+            stored = snapshot;
+            proceed();
+        });
 
+        // 📍 Asked for even with a stored snapshot: revalidating it needs a fix too
         if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
             ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.ACCESS_FINE_LOCATION}, LOCATION_PERMISSION_REQUEST_CODE);
         } else {
+            permissionAnswered = true;
+            permissionGranted = true;
+        }
+    }
+
+    private void proceed() {
+        if (!storedLoaded || !permissionAnswered) return;
+        if (stored != null) {
+            openWeatherActivity(stored, true);
+        } else if (permissionGranted) {
             getWeatherData();
+        } else {
+            Toast.makeText(this, "Location permission denied", Toast.LENGTH_SHORT).show();
         }
     }
 
     private void getWeatherData() {
+        getWeatherDataSpan = ClimaTrace.beginAsync(ClimaTrace.GET_WEATHER_DATA);
+        ClimaTrace.AsyncSpan locationSpan = ClimaTrace.beginAsync(ClimaTrace.LOCATION_WAIT);
+
         LocationHelper locationHelper = new LocationHelper(this);
-        locationHelper.getCurrentLocation(location -> {
+        locationStrategy = locationHelper.getCurrentLocation(location -> {
+            if (firstFix != null) {
+                // 🎯 A sharper fix arrived while the weather loads: name the place from it instead
+                findNearestCity(location, null);
+                return;
+            }
+            ClimaTrace.endAsync(locationSpan);
             if (location != null) {
-                double latitude = location.getLatitude();
-                double longitude = location.getLongitude();
+                firstFix = location;
 
-                WeatherNetworkClient.fetchWeatherByCoordinates(latitude, longitude, this::goToWeatherActivity);
+                // 🏙️ The name comes from the bundled city list before anything goes on the wire
+                findNearestCity(location, () ->
+                        // 🌫️ Air quality comes along in parallel; if it's slow the weather goes out without it
+                        WeatherNetworkClient.fetchSnapshotWithAirQuality(location.getLatitude(), location.getLongitude(),
+                                WeatherNetworkClient.AIR_QUALITY_DEADLINE_MS, requestScope, this::goToWeatherActivity));
             } else {
+                ClimaTrace.endAsync(getWeatherDataSpan);
                 Toast.makeText(this, "Unable to retrieve location", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
-    private void goToWeatherActivity(String weatherDataJson) {
-        WeatherDataParser parser = new WeatherDataParser(weatherDataJson);
-        double lat = parser.getLatitude();
-        double lon = parser.getLongitude();
+    /**
+     * Names the place from the bundled city list, a local k-d tree query once the index is loaded,
+     * then runs {@code then} (if any) whether or not a city was close enough.
+     */
+    private void findNearestCity(LocationFix location, Runnable then) {
+        CityIndexLoader.findNearestCity(this, location.getLatitude(), location.getLongitude(), requestScope, city -> {
+            if (city != null) {
+                nearestCity = city;
+                TextView loadingText = findViewById(R.id.loading_text);
+                loadingText.setText("Loading weather for " + city.getName() + "...");
+            }
+            if (then != null) then.run();
+        });
+    }
+
+    private void goToWeatherActivity(WeatherSnapshot snapshot) {
+        ClimaTrace.endAsync(getWeatherDataSpan);
+        if (snapshot == null) {
+            Toast.makeText(this, "Unable to fetch weather", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // The API leaves the name empty for spots outside any city it knows; ours is in by now
+        if (snapshot.getCityName().isEmpty() && nearestCity != null) {
+            snapshot = snapshot.withCityName(nearestCity.getName());
+        }
+
+        snapshotStore.save(snapshot);
+        openWeatherActivity(snapshot, false);
+    }
 
+    private void openWeatherActivity(WeatherSnapshot snapshot, boolean revalidate) {
         Intent intent = new Intent(LoadingActivity.this, WeatherActivity.class);
-        intent.putExtra("weatherData", weatherDataJson);
-        intent.putExtra("lat", lat);
-        intent.putExtra("lon", lon);
+        intent.putExtra(WeatherActivity.EXTRA_SNAPSHOT, snapshot);
+        intent.putExtra(WeatherActivity.EXTRA_REVALIDATE, revalidate);
         startActivity(intent);
         finish();
     }
 
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (locationStrategy != null) {
+            locationStrategy.cancel();
+        }
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == LOCATION_PERMISSION_REQUEST_CODE) {
-            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                getWeatherData();
-            } else {
-                Toast.makeText(this, "Location permission denied", Toast.LENGTH_SHORT).show();
-            }
+            permissionAnswered = true;
+            permissionGranted = grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED;
+            proceed();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.climaapp;
+
+public final class LocationFix {
+
+    private final double latitude;
+    private final double longitude;
+    private final float accuracyMeters;
+    private final long timeMillis;
+    private final String provider;
+
+    public LocationFix(double latitude, double longitude, float accuracyMeters, long timeMillis, String provider) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracyMeters = accuracyMeters;
+        this.timeMillis = timeMillis;
+        this.provider = provider;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /** Estimated horizontal accuracy radius; smaller is better. */
+    public float getAccuracyMeters() {
+        return accuracyMeters;
+    }
+
+    /** Wall-clock time the fix was taken. */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public boolean isMoreAccurateThan(LocationFix other) {
+        return other == null || accuracyMeters < other.accuracyMeters;
+    }
+}
@@ -1,11 +1,6 @@
 package com.example.climaapp;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.location.Location;
-import android.location.LocationListener;
-import android.location.LocationManager;
-import android.os.Bundle;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
@@ -23,28 +18,32 @@ public class LocationHelper {
         this.context = context;
     }
 
-    @SuppressLint("MissingPermission")
-    public void getCurrentLocation(@NonNull Consumer<Location> callback) {
+    /**
+     * Delivers the first usable fix (possibly a recent cached one), then again each time a more
+     * accurate one arrives, until the strategy finishes; or null once if no fix arrives before the
+     * deadline. Returns the running strategy, which the caller must cancel from its onDestroy, or
+     * null if the permission is missing. Time-to-fix metrics go to {@link ClimaTrace}.
+     */
+    public LocationStrategy getCurrentLocation(@NonNull Consumer<LocationFix> callback) {
         if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
                 != PackageManager.PERMISSION_GRANTED) {
             callback.accept(null);
-            return;
+            return null;
         }
 
-        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
-
-        LocationListener locationListener = new LocationListener() {
+        long startNanos = System.nanoTime();
+        LocationStrategy strategy = new LocationStrategy(new AndroidLocationSource(context));
+        strategy.start(new LocationStrategy.Listener() {
             @Override
-            public void onLocationChanged(@NonNull Location location) {
-                callback.accept(location);
-                locationManager.removeUpdates(this);
+            public void onLocation(LocationFix fix) {
+                callback.accept(fix);
             }
 
-            @Override public void onStatusChanged(String provider, int status, Bundle extras) {}
-            @Override public void onProviderEnabled(@NonNull String provider) {}
-            @Override public void onProviderDisabled(@NonNull String provider) {}
-        };
-
-        locationManager.requestLocationUpdates(LocationManager.NETWORK_PROVIDER, 0, 0, locationListener);
+            @Override
+            public void onFinished(LocationStrategy.Metrics metrics) {
+                ClimaTrace.recordLocationMetrics(startNanos, metrics);
+            }
+        });
+        return strategy;
     }
-}
\ No newline at end of file
+}
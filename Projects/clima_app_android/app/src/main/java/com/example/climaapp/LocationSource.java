@@ -0,0 +1,27 @@
+package com.example.climaapp;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The parts of the platform location service {@link LocationStrategy} needs, so the strategy can
+ * run against a fake in tests. All callbacks are expected on one thread (the main thread on device).
+ */
+public interface LocationSource {
+
+    List<String> getEnabledProviders();
+
+    /** Last fix the provider has cached, or null. */
+    LocationFix getLastKnownFix(String provider);
+
+    void requestUpdates(String provider, Consumer<LocationFix> listener);
+
+    /** Stops every provider registered for this listener. */
+    void removeUpdates(Consumer<LocationFix> listener);
+
+    void postDelayed(Runnable task, long delayMillis);
+
+    void removeCallbacks(Runnable task);
+
+    long currentTimeMillis();
+}
@@ -0,0 +1,172 @@
+package com.example.climaapp;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Gets a usable location as fast as possible:
+ * <ol>
+ *     <li>a recent enough cached fix is delivered immediately,</li>
+ *     <li>otherwise every enabled provider is raced and the first fix wins,</li>
+ *     <li>later fixes are only delivered if they are more accurate,</li>
+ *     <li>everything stops at the deadline or once a fix is accurate enough.</li>
+ * </ol>
+ * Listeners are always unregistered when the strategy finishes or is cancelled.
+ */
+public class LocationStrategy {
+
+    public static final long DEFAULT_MAX_AGE_MS = 2 * 60 * 1000;
+    public static final float DEFAULT_GOOD_ACCURACY_METERS = 100;
+    public static final long DEFAULT_DEADLINE_MS = 10_000;
+
+    public interface Listener {
+        /**
+         * Called with the first fix, then again only with strictly more accurate fixes.
+         * Called once with null if no location could be found before the deadline.
+         */
+        void onLocation(LocationFix fix);
+
+        default void onFinished(Metrics metrics) {
+        }
+    }
+
+    public static final class Metrics {
+        /** Milliseconds from start to the first delivered fix, or -1 if none. */
+        public final long timeToFirstFixMs;
+        /** Milliseconds from start to the last (most accurate) delivered fix, or -1 if none. */
+        public final long timeToBestFixMs;
+        public final boolean firstFixFromCache;
+        public final int fixesDelivered;
+
+        Metrics(long timeToFirstFixMs, long timeToBestFixMs, boolean firstFixFromCache, int fixesDelivered) {
+            this.timeToFirstFixMs = timeToFirstFixMs;
+            this.timeToBestFixMs = timeToBestFixMs;
+            this.firstFixFromCache = firstFixFromCache;
+            this.fixesDelivered = fixesDelivered;
+        }
+    }
+
+    private final LocationSource source;
+    private final long maxAgeMs;
+    private final float goodAccuracyMeters;
+    private final long deadlineMs;
+
+    private final Consumer<LocationFix> updateListener = this::onUpdate;
+    private final Runnable deadline = this::onDeadline;
+
+    private Listener listener;
+    private LocationFix staleFallback;
+    private LocationFix delivered;
+    private long startedAt;
+    private long firstFixAt = -1;
+    private long bestFixAt = -1;
+    private boolean firstFromCache;
+    private int fixesDelivered;
+    private boolean running;
+
+    public LocationStrategy(LocationSource source) {
+        this(source, DEFAULT_MAX_AGE_MS, DEFAULT_GOOD_ACCURACY_METERS, DEFAULT_DEADLINE_MS);
+    }
+
+    public LocationStrategy(LocationSource source, long maxAgeMs, float goodAccuracyMeters, long deadlineMs) {
+        this.source = source;
+        this.maxAgeMs = maxAgeMs;
+        this.goodAccuracyMeters = goodAccuracyMeters;
+        this.deadlineMs = deadlineMs;
+    }
+
+    public void start(Listener listener) {
+        this.listener = listener;
+        this.running = true;
+        this.startedAt = source.currentTimeMillis();
+
+        List<String> providers = source.getEnabledProviders();
+
+        // 1. Cached fixes cost nothing; pick the best of them
+        LocationFix cached = null;
+        for (String provider : providers) {
+            LocationFix fix = source.getLastKnownFix(provider);
+            if (fix == null) continue;
+            boolean fresh = startedAt - fix.getTimeMillis() <= maxAgeMs;
+            if (fresh && fix.isMoreAccurateThan(cached)) {
+                cached = fix;
+            } else if (!fresh && (staleFallback == null || fix.getTimeMillis() > staleFallback.getTimeMillis())) {
+                staleFallback = fix;
+            }
+        }
+        if (cached != null) {
+            firstFromCache = true;
+            deliver(cached);
+            if (!running) return;  // The listener cancelled us from onLocation
+            if (cached.getAccuracyMeters() <= goodAccuracyMeters) {
+                finish();
+                return;
+            }
+        }
+
+        if (providers.isEmpty()) {
+            onDeadline();
+            return;
+        }
+
+        // 2. Race every enabled provider under one deadline
+        for (String provider : providers) {
+            source.requestUpdates(provider, updateListener);
+        }
+        source.postDelayed(deadline, deadlineMs);
+    }
+
+    public void cancel() {
+        if (running) {
+            finish();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void onUpdate(LocationFix fix) {
+        if (!running || fix == null) return;
+        if (fix.isMoreAccurateThan(delivered)) {
+            deliver(fix);
+        }
+        if (running && fix.getAccuracyMeters() <= goodAccuracyMeters) {
+            finish();
+        }
+    }
+
+    private void onDeadline() {
+        if (!running) return;
+        if (delivered == null) {
+            // An old fix is still better than leaving the user on the loading screen
+            listener.onLocation(staleFallback);
+            if (staleFallback != null) {
+                recordDelivery();
+            }
+        }
+        if (running) {
+            finish();
+        }
+    }
+
+    private void deliver(LocationFix fix) {
+        delivered = fix;
+        recordDelivery();
+        listener.onLocation(fix);
+    }
+
+    private void recordDelivery() {
+        long now = source.currentTimeMillis() - startedAt;
+        if (firstFixAt < 0) firstFixAt = now;
+        bestFixAt = now;
+        fixesDelivered++;
+    }
+
+    private void finish() {
+        running = false;
+        source.removeUpdates(updateListener);
+        source.removeCallbacks(deadline);
+        listener.onFinished(new Metrics(firstFixAt, bestFixAt, firstFromCache, fixesDelivered));
+    }
+}
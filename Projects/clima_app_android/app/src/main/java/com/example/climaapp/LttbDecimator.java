@@ -0,0 +1,86 @@
+package com.example.climaapp;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013). Splits a series into as many
+ * buckets as points wanted and keeps, from each bucket, the point forming the largest triangle
+ * with the point kept before it and the average of the next bucket. Peaks and dips survive,
+ * unlike with plain striding or averaging.
+ *
+ * Works in one pass without allocating: the caller owns the index buffer, so a chart can reuse it
+ * from frame to frame.
+ */
+final class LttbDecimator {
+
+    private LttbDecimator() {
+    }
+
+    /**
+     * Picks at most {@code threshold} of the first {@code length} points and writes their indices,
+     * in ascending order, to {@code out}. The first and last points are kept as long as
+     * {@code threshold} leaves room for them. If the series already fits every index is written.
+     *
+     * @param x ascending x values, e.g. times
+     * @param out room for at least {@code min(threshold, length)} indices
+     * @return how many indices were written
+     */
+    static int decimate(double[] x, double[] y, int length, int threshold, int[] out) {
+        if (length < 0 || length > x.length || length > y.length) {
+            throw new IllegalArgumentException("length " + length + " outside the series");
+        }
+        if (threshold >= length) {
+            for (int i = 0; i < length; i++) {
+                out[i] = i;
+            }
+            return length;
+        }
+        if (threshold < 3) {
+            // No room for a middle bucket: keep whichever endpoints fit
+            int count = 0;
+            if (threshold >= 1) out[count++] = 0;
+            if (threshold >= 2) out[count++] = length - 1;
+            return count;
+        }
+
+        // First and last points are their own buckets; the rest share threshold - 2 buckets
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int count = 0;
+        int kept = 0;
+        out[count++] = kept;
+
+        int bucketStart = 1;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int bucketEnd = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Third vertex: the average of the next bucket (the last point for the final bucket)
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = bucketEnd; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextCount = nextEnd - bucketEnd;
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            double keptX = x[kept];
+            double keptY = y[kept];
+            double largestArea = -1;
+            int largest = bucketStart;
+            for (int i = bucketStart; i < bucketEnd; i++) {
+                // Twice the triangle's area; only the comparison matters
+                double area = Math.abs((keptX - averageX) * (y[i] - keptY) - (keptX - x[i]) * (averageY - keptY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            out[count++] = largest;
+            kept = largest;
+            bucketStart = bucketEnd;
+        }
+
+        out[count++] = length - 1;
+        return count;
+    }
+}
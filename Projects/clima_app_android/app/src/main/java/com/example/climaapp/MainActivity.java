@@ -9,10 +9,13 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        long traceStart = ClimaTrace.begin(ClimaTrace.MAIN_REDIRECT);
 
         // No need to set a layout, redirect immediately to loading screen
         Intent intent = new Intent(MainActivity.this, LoadingActivity.class);
         startActivity(intent);
         finish();
+
+        ClimaTrace.end(ClimaTrace.MAIN_REDIRECT, traceStart);
     }
 }
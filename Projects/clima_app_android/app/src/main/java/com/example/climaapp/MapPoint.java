@@ -0,0 +1,37 @@
+package com.example.climaapp;
+
+/**
+ * Something to show on the map: the current location, a saved city, a grid reading. The ID names
+ * the thing rather than the reading, and must be unique within one point list: a point that keeps
+ * its ID across updates keeps its marker.
+ */
+public final class MapPoint {
+
+    private final int id;
+    private final double latitude;
+    private final double longitude;
+    private final String label;
+
+    public MapPoint(int id, double latitude, double longitude, String label) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.label = label;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.climaapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid-based marker clustering in Web Mercator space, with no Android dependencies.
+ *
+ * At zoom z the world is {@code 256 * 2^z} pixels wide and is cut into square cells of
+ * {@code cellSizePx}; the points in one cell become one cluster. A cell at zoom z covers exactly
+ * four cells at zoom z + 1, so each level is built by merging the level below it rather than
+ * re-reading every point, and every level is kept once built. Zooming therefore costs at most one
+ * pass over the clusters of the finer level, and nothing when the level was seen before.
+ *
+ * The heavy work should run off the main thread; instances are safe to share between threads.
+ */
+public class MarkerClusterer {
+
+    public static final int DEFAULT_CELL_SIZE_PX = 80;
+    public static final int MAX_ZOOM = 21;
+
+    private static final double TILE_SIZE = 256;
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private final List<MapPoint> points;
+    private final double[] xs;
+    private final double[] ys;
+    private final int cellSizePx;
+    private final Level[] levels = new Level[MAX_ZOOM + 1];
+
+    public MarkerClusterer(List<MapPoint> points) {
+        this(points, DEFAULT_CELL_SIZE_PX);
+    }
+
+    public MarkerClusterer(List<MapPoint> points, int cellSizePx) {
+        this.points = new ArrayList<>(points);
+        this.cellSizePx = cellSizePx;
+        int size = this.points.size();
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            MapPoint point = this.points.get(i);
+            xs[i] = mercatorX(point.getLongitude());
+            ys[i] = mercatorY(point.getLatitude());
+        }
+    }
+
+    public int pointCount() {
+        return points.size();
+    }
+
+    /** Every cluster at this zoom level (fractional zooms round down). */
+    public List<Cluster> clusters(double zoom) {
+        return Collections.unmodifiableList(level(zoomLevel(zoom)).clusters);
+    }
+
+    /**
+     * The clusters at this zoom whose centre lies in the given bounds. {@code west > east} means
+     * the bounds cross the antimeridian.
+     */
+    public List<Cluster> clusters(double zoom, double south, double west, double north, double east) {
+        List<Cluster> visible = new ArrayList<>();
+        for (Cluster cluster : level(zoomLevel(zoom)).clusters) {
+            double lat = cluster.getLatitude();
+            double lon = cluster.getLongitude();
+            boolean inLongitude = west <= east ? lon >= west && lon <= east : lon >= west || lon <= east;
+            if (lat >= south && lat <= north && inLongitude) {
+                visible.add(cluster);
+            }
+        }
+        return visible;
+    }
+
+    private static int zoomLevel(double zoom) {
+        return (int) Math.max(0, Math.min(MAX_ZOOM, Math.floor(zoom)));
+    }
+
+    private synchronized Level level(int zoom) {
+        if (levels[zoom] == null) {
+            levels[zoom] = zoom == MAX_ZOOM ? fromPoints() : merge(level(zoom + 1));
+        }
+        return levels[zoom];
+    }
+
+    private Level fromPoints() {
+        double scale = TILE_SIZE * (1L << MAX_ZOOM) / cellSizePx;
+        Map<Long, Integer> byCell = new HashMap<>();
+        Level level = new Level(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            long cellX = (long) (xs[i] * scale);
+            long cellY = (long) (ys[i] * scale);
+            Integer index = byCell.get(cell(cellX, cellY));
+            if (index == null) {
+                byCell.put(cell(cellX, cellY), level.clusters.size());
+                level.add(new Cluster(this, i, xs[i], ys[i], 1), cellX, cellY);
+            } else {
+                level.clusters.set(index, level.clusters.get(index).plus(i, xs[i], ys[i], 1));
+            }
+        }
+        return level;
+    }
+
+    private Level merge(Level finer) {
+        Map<Long, Integer> byCell = new HashMap<>();
+        Level level = new Level(finer.clusters.size());
+        for (int i = 0; i < finer.clusters.size(); i++) {
+            Cluster child = finer.clusters.get(i);
+            long cellX = finer.cellXs[i] >> 1;
+            long cellY = finer.cellYs[i] >> 1;
+            Integer index = byCell.get(cell(cellX, cellY));
+            if (index == null) {
+                byCell.put(cell(cellX, cellY), level.clusters.size());
+                // A cell with a single child is the same cluster: reuse it, key and all
+                level.add(child, cellX, cellY);
+            } else {
+                Cluster merged = level.clusters.get(index).plus(child.anchor, child.sumX, child.sumY, child.count);
+                level.clusters.set(index, merged);
+            }
+        }
+        return level;
+    }
+
+    private static long cell(long cellX, long cellY) {
+        return (cellX << 32) | cellY;
+    }
+
+    static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    static double longitude(double mercatorX) {
+        return mercatorX * 360 - 180;
+    }
+
+    static double latitude(double mercatorY) {
+        return 90 - 360 * Math.atan(Math.exp((mercatorY - 0.5) * 2 * Math.PI)) / Math.PI;
+    }
+
+    private static final class Level {
+        final List<Cluster> clusters;
+        final long[] cellXs;
+        final long[] cellYs;
+
+        Level(int expected) {
+            clusters = new ArrayList<>(expected);
+            cellXs = new long[Math.max(1, expected)];
+            cellYs = new long[Math.max(1, expected)];
+        }
+
+        void add(Cluster cluster, long cellX, long cellY) {
+            int index = clusters.size();
+            clusters.add(cluster);
+            cellXs[index] = cellX;
+            cellYs[index] = cellY;
+        }
+    }
+
+    /**
+     * One marker's worth of points. Clusters are immutable; the same membership always has the
+     * same {@link #getKey() key}, at any zoom and across point lists that keep their
+     * {@link MapPoint#getId() IDs}, so markers that did not change can be left alone.
+     */
+    public static final class Cluster {
+
+        private final MarkerClusterer owner;
+        // Index of the point with the lowest ID: with the count, identifies the membership
+        private final int anchor;
+        private final double sumX;
+        private final double sumY;
+        private final int count;
+
+        Cluster(MarkerClusterer owner, int anchor, double sumX, double sumY, int count) {
+            this.owner = owner;
+            this.anchor = anchor;
+            this.sumX = sumX;
+            this.sumY = sumY;
+            this.count = count;
+        }
+
+        Cluster plus(int otherAnchor, double otherSumX, double otherSumY, int otherCount) {
+            int lowest = owner.points.get(otherAnchor).getId() < owner.points.get(anchor).getId() ? otherAnchor : anchor;
+            return new Cluster(owner, lowest, sumX + otherSumX, sumY + otherSumY, count + otherCount);
+        }
+
+        public long getKey() {
+            return ((long) count << 32) | (owner.points.get(anchor).getId() & 0xffffffffL);
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /** The point itself for a cluster of one, otherwise null. */
+        public MapPoint getPoint() {
+            return count == 1 ? owner.points.get(anchor) : null;
+        }
+
+        public double getLatitude() {
+            return count == 1 ? owner.points.get(anchor).getLatitude() : latitude(sumY / count);
+        }
+
+        public double getLongitude() {
+            return count == 1 ? owner.points.get(anchor).getLongitude() : longitude(sumX / count);
+        }
+    }
+}
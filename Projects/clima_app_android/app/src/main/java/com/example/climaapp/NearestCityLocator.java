@@ -0,0 +1,40 @@
+package com.example.climaapp;
+
+/**
+ * Resolves coordinates to the closest city in a {@link CityIndex} without touching the network,
+ * so the loading screen can name the place and build cache keys before the API answers.
+ */
+public class NearestCityLocator {
+
+    // Farther than this from every known city, the nearest one is not a useful name for the spot
+    public static final double DEFAULT_MAX_DISTANCE_KM = 75;
+
+    private final CityIndex index;
+    private final GeoKdTree tree;
+
+    public NearestCityLocator(CityIndex index) {
+        this.index = index;
+        int size = index.size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = index.latitudeAt(i);
+            longitudes[i] = index.longitudeAt(i);
+        }
+        tree = new GeoKdTree(latitudes, longitudes);
+    }
+
+    /** The closest city, however far away, or null if the index is empty. */
+    public CityIndex.City nearest(double latitude, double longitude) {
+        int found = tree.nearest(latitude, longitude);
+        return found < 0 ? null : index.get(found);
+    }
+
+    /** The closest city if it is within {@code maxDistanceKm}, otherwise null. */
+    public CityIndex.City nearestWithin(double latitude, double longitude, double maxDistanceKm) {
+        CityIndex.City city = nearest(latitude, longitude);
+        if (city == null) return null;
+        double distance = GeoKdTree.distanceKm(latitude, longitude, city.getLatitude(), city.getLongitude());
+        return distance <= maxDistanceKm ? city : null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.climaapp;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket capping how many optional requests (map prefetches, say) go out: up to
+ * {@code capacity} at once, then one more every {@code refillMs}. The API key has a per-minute
+ * quota, and the screen the user is looking at should never be the one that runs into it.
+ */
+final class RequestBudget {
+
+    private final int capacity;
+    private final long refillMs;
+    private final LongSupplier clock;
+    private int tokens;
+    private long lastRefill;
+
+    RequestBudget(int capacity, long refillMs) {
+        this(capacity, refillMs, System::currentTimeMillis);
+    }
+
+    RequestBudget(int capacity, long refillMs, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillMs = refillMs;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    synchronized boolean tryAcquire() {
+        refill();
+        if (tokens == 0) return false;
+        tokens--;
+        return true;
+    }
+
+    synchronized int available() {
+        refill();
+        return tokens;
+    }
+
+    /** Milliseconds until {@link #tryAcquire()} can succeed again; 0 if it can now. */
+    synchronized long millisUntilNext() {
+        refill();
+        if (tokens > 0) return 0;
+        return Math.max(1, lastRefill + refillMs - clock.getAsLong());
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        long earned = (now - lastRefill) / refillMs;
+        if (earned <= 0) return;
+        if (tokens + earned >= capacity) {
+            tokens = capacity;
+            lastRefill = now;
+        } else {
+            tokens += (int) earned;
+            lastRefill += earned * refillMs;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.climaapp;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Groups the requests a screen starts so they can all be dropped when the screen goes away.
+ * Cancelling forgets every pending callback (and whatever Activity it captured) and aborts the
+ * connections nobody else is waiting on. Use {@link #of(LifecycleOwner)} to cancel on destroy.
+ */
+public final class RequestScope {
+
+    /** A request started in this scope. */
+    interface Request {
+        void cancel();
+    }
+
+    private final Set<Request> requests = new LinkedHashSet<>();
+    private boolean cancelled;
+
+    /** A scope cancelled when {@code owner} is destroyed. */
+    public static RequestScope of(LifecycleOwner owner) {
+        RequestScope scope = new RequestScope();
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            scope.cancel();
+            return scope;
+        }
+        lifecycle.addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                source.getLifecycle().removeObserver(this);
+                scope.cancel();
+            }
+        });
+        return scope;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Cancels every request still pending; requests added afterwards are cancelled at once. */
+    public void cancel() {
+        List<Request> pending;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            pending = new ArrayList<>(requests);
+            requests.clear();
+        }
+        for (Request request : pending) {
+            request.cancel();
+        }
+    }
+
+    /** Returns false (and cancels the request) if the scope is already cancelled. */
+    boolean add(Request request) {
+        synchronized (this) {
+            if (!cancelled) {
+                requests.add(request);
+                return true;
+            }
+        }
+        request.cancel();
+        return false;
+    }
+
+    synchronized void remove(Request request) {
+        requests.remove(request);
+    }
+
+    synchronized int pendingCount() {
+        return requests.size();
+    }
+
+    /**
+     * Wraps a one-shot {@code callback} started outside the network client so it is tied to this
+     * scope: cancelling drops the callback, and whatever it captured, before it is called.
+     */
+    <T> Consumer<T> bind(Consumer<T> callback) {
+        Bound<T> bound = new Bound<>(this, callback);
+        add(bound);
+        return bound;
+    }
+
+    private static final class Bound<T> implements Request, Consumer<T> {
+        private final RequestScope scope;
+        private volatile Consumer<T> callback;
+
+        Bound(RequestScope scope, Consumer<T> callback) {
+            this.scope = scope;
+            this.callback = callback;
+        }
+
+        @Override
+        public void cancel() {
+            callback = null;
+        }
+
+        @Override
+        public void accept(T value) {
+            Consumer<T> target = callback;
+            callback = null;
+            scope.remove(this);
+            if (target != null) target.accept(value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.climaapp;
+
+import java.io.IOException;
+
+/**
+ * When and how long to wait before trying a failed request again. Only transient failures are
+ * retried: I/O errors, 5xx, 408 and 429. Delays grow exponentially and use "full jitter" (a random
+ * delay between zero and the exponential cap), so clients that failed together don't retry
+ * together.
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 250, 4_000);
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public static boolean isRetryable(Exception e) {
+        if (e instanceof HttpStatusException) {
+            int code = ((HttpStatusException) e).getCode();
+            return code >= 500 || code == 408 || code == 429;
+        }
+        return e instanceof IOException;
+    }
+
+    /**
+     * Delay before attempt {@code attempt + 1}, after {@code attempt} (1-based) has failed.
+     * {@code random} is uniform in [0, 1).
+     */
+    public long delayMs(int attempt, double random) {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return (long) (cap * random);
+    }
+
+    /**
+     * Like {@link #delayMs(int, double)}, but never shorter than the server asked for with
+     * Retry-After. Returns -1 if the server wants us to wait longer than this policy allows.
+     */
+    public long delayMs(int attempt, double random, Exception failure) {
+        long delay = delayMs(attempt, random);
+        if (failure instanceof HttpStatusException) {
+            long retryAfterMs = ((HttpStatusException) failure).getRetryAfterMs();
+            if (retryAfterMs > maxDelayMs) return -1;
+            delay = Math.max(delay, retryAfterMs);
+        }
+        return delay;
+    }
+}
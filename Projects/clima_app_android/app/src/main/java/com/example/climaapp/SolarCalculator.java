@@ -0,0 +1,203 @@
+package com.example.climaapp;
+
+/**
+ * Sun position and sunrise/sunset for any place and time, computed on the device with the NOAA
+ * solar equations (good to about a minute between 1800 and 2100). Times are Unix seconds like
+ * everything the weather API returns.
+ *
+ * The batch methods are for the forecast and favorites views. The slow part, the sun's
+ * declination and the equation of time, is the same for every place at a given moment and
+ * changes smoothly over a day, so a batch works it out once per UTC midnight and interpolates
+ * in between. Each point then costs a handful of trig calls and allocates nothing.
+ *
+ * @see <a href="https://gml.noaa.gov/grad/solcalc/calcdetails.html">NOAA solar calculation details</a>
+ */
+public final class SolarCalculator {
+
+    /** Returned by {@link #sunrise} and {@link #sunset} on polar days and nights. */
+    public static final long NO_EVENT = Long.MIN_VALUE;
+
+    // Sunrise and sunset are when the top of the disc touches the horizon, refraction included
+    static final double HORIZON_ELEVATION = -0.833;
+
+    private static final long DAY_SECONDS = 86_400;
+    // The sun moves one degree of longitude every 240 seconds
+    private static final double SECONDS_PER_DEGREE = 240;
+
+    private SolarCalculator() {
+    }
+
+    /** Degrees above the horizon, negative at night; no refraction correction. */
+    public static double elevation(double lat, double lon, long unixSeconds) {
+        Ephemeris sun = new Ephemeris();
+        sun.exact(unixSeconds);
+        return elevation(Math.sin(Math.toRadians(lat)), Math.cos(Math.toRadians(lat)), lon, unixSeconds, sun);
+    }
+
+    /** Degrees clockwise from north. */
+    public static double azimuth(double lat, double lon, long unixSeconds) {
+        Ephemeris sun = new Ephemeris();
+        sun.exact(unixSeconds);
+        double latRad = Math.toRadians(lat);
+        double hourAngle = hourAngle(lon, unixSeconds, sun);
+        double azimuth = Math.toDegrees(Math.atan2(Math.sin(hourAngle),
+                Math.cos(hourAngle) * Math.sin(latRad) - Math.tan(sun.declination) * Math.cos(latRad))) + 180;
+        return azimuth % 360;
+    }
+
+    public static boolean isDaytime(double lat, double lon, long unixSeconds) {
+        return elevation(lat, lon, unixSeconds) > HORIZON_ELEVATION;
+    }
+
+    /**
+     * Sunrise on the local day containing {@code unixSeconds}, or {@link #NO_EVENT} if the sun
+     * stays up or down all day. "Local" is mean solar time at {@code lon}, so no time zone is needed.
+     */
+    public static long sunrise(double lat, double lon, long unixSeconds) {
+        return sunEvent(lat, lon, unixSeconds, -1, new Ephemeris(), false);
+    }
+
+    /** Sunset on the local day containing {@code unixSeconds}, like {@link #sunrise}. */
+    public static long sunset(double lat, double lon, long unixSeconds) {
+        return sunEvent(lat, lon, unixSeconds, 1, new Ephemeris(), false);
+    }
+
+    /** Elevations for {@code count} places and times, e.g. every favorite at one moment. */
+    public static void elevations(double[] lats, double[] lons, long[] times, int count, double[] out) {
+        Ephemeris sun = new Ephemeris();
+        double lastLat = Double.NaN;
+        double sinLat = 0;
+        double cosLat = 0;
+        for (int i = 0; i < count; i++) {
+            if (lats[i] != lastLat) {
+                lastLat = lats[i];
+                sinLat = Math.sin(Math.toRadians(lastLat));
+                cosLat = Math.cos(Math.toRadians(lastLat));
+            }
+            sun.interpolated(times[i]);
+            out[i] = elevation(sinLat, cosLat, lons[i], times[i], sun);
+        }
+    }
+
+    /** Day or night at one place for {@code count} times, e.g. the steps of a forecast. */
+    public static void isDaytime(double lat, double lon, long[] times, int count, boolean[] out) {
+        Ephemeris sun = new Ephemeris();
+        double sinLat = Math.sin(Math.toRadians(lat));
+        double cosLat = Math.cos(Math.toRadians(lat));
+        for (int i = 0; i < count; i++) {
+            sun.interpolated(times[i]);
+            out[i] = elevation(sinLat, cosLat, lon, times[i], sun) > HORIZON_ELEVATION;
+        }
+    }
+
+    /** Sunrise and sunset on the local day containing {@code unixSeconds} for {@code count} places. */
+    public static void sunTimes(double[] lats, double[] lons, long unixSeconds, int count,
+                                long[] sunrises, long[] sunsets) {
+        Ephemeris sun = new Ephemeris();
+        for (int i = 0; i < count; i++) {
+            sunrises[i] = sunEvent(lats[i], lons[i], unixSeconds, -1, sun, true);
+            sunsets[i] = sunEvent(lats[i], lons[i], unixSeconds, 1, sun, true);
+        }
+    }
+
+    private static double elevation(double sinLat, double cosLat, double lon, long unixSeconds, Ephemeris sun) {
+        double cosZenith = sinLat * sun.sinDeclination
+                + cosLat * sun.cosDeclination * Math.cos(hourAngle(lon, unixSeconds, sun));
+        return Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, cosZenith))));
+    }
+
+    /** Radians from local solar noon, negative in the morning. */
+    private static double hourAngle(double lon, long unixSeconds, Ephemeris sun) {
+        double minutes = Math.floorMod(unixSeconds, DAY_SECONDS) / 60.0;
+        double trueSolarMinutes = minutes + sun.equationOfTime + 4 * lon;
+        return Math.toRadians(trueSolarMinutes / 4 - 180);
+    }
+
+    /** {@code side} is -1 for sunrise and 1 for sunset. */
+    private static long sunEvent(double lat, double lon, long unixSeconds, int side, Ephemeris sun,
+                                 boolean interpolate) {
+        long localDay = Math.floorDiv(unixSeconds + Math.round(lon * SECONDS_PER_DEGREE), DAY_SECONDS);
+        double meanNoon = localDay * DAY_SECONDS + DAY_SECONDS / 2.0 - lon * SECONDS_PER_DEGREE;
+        double latRad = Math.toRadians(lat);
+
+        // First guess from the sun at noon, then once more from the sun at that guess
+        double event = meanNoon;
+        for (int pass = 0; pass < 2; pass++) {
+            if (interpolate) {
+                sun.interpolated(event);
+            } else {
+                sun.exact(event);
+            }
+            double cosHourAngle = (Math.sin(Math.toRadians(HORIZON_ELEVATION)) - Math.sin(latRad) * sun.sinDeclination)
+                    / (Math.cos(latRad) * sun.cosDeclination);
+            if (cosHourAngle > 1 || cosHourAngle < -1) return NO_EVENT;
+            double halfDay = Math.toDegrees(Math.acos(cosHourAngle)) * SECONDS_PER_DEGREE;
+            event = meanNoon - sun.equationOfTime * 60 + side * halfDay;
+        }
+        return Math.round(event);
+    }
+
+    /** Where the sun is along its yearly path: declination and equation of time. */
+    private static final class Ephemeris {
+        double declination;
+        double sinDeclination;
+        double cosDeclination;
+        // Minutes the true sun runs ahead of the mean sun
+        double equationOfTime;
+
+        // UTC midnight samples for interpolating within one day
+        private long sampledDay = Long.MIN_VALUE;
+        private double startDeclination;
+        private double endDeclination;
+        private double startEquation;
+        private double endEquation;
+
+        void exact(double unixSeconds) {
+            double t = (unixSeconds / DAY_SECONDS + 2440587.5 - 2451545.0) / 36525.0;
+            double meanLongitude = Math.toRadians((280.46646 + t * (36000.76983 + t * 0.0003032)) % 360);
+            double meanAnomaly = Math.toRadians(357.52911 + t * (35999.05029 - 0.0001537 * t));
+            double eccentricity = 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+            double center = Math.sin(meanAnomaly) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                    + Math.sin(2 * meanAnomaly) * (0.019993 - 0.000101 * t)
+                    + Math.sin(3 * meanAnomaly) * 0.000289;
+            double omega = Math.toRadians(125.04 - 1934.136 * t);
+            double apparentLongitude = Math.toRadians(Math.toDegrees(meanLongitude) + center - 0.00569
+                    - 0.00478 * Math.sin(omega));
+            double meanObliquity = 23 + (26 + (21.448 - t * (46.815 + t * (0.00059 - t * 0.001813))) / 60) / 60;
+            double obliquity = Math.toRadians(meanObliquity + 0.00256 * Math.cos(omega));
+
+            double y = Math.tan(obliquity / 2);
+            y *= y;
+            double e = eccentricity;
+            double m = meanAnomaly;
+            double l = meanLongitude;
+            equationOfTime = 4 * Math.toDegrees(y * Math.sin(2 * l) - 2 * e * Math.sin(m)
+                    + 4 * e * y * Math.sin(m) * Math.cos(2 * l) - 0.5 * y * y * Math.sin(4 * l)
+                    - 1.25 * e * e * Math.sin(2 * m));
+            setDeclination(Math.asin(Math.sin(obliquity) * Math.sin(apparentLongitude)));
+        }
+
+        /** Linear between the two surrounding UTC midnights; off by well under a second of time. */
+        void interpolated(double unixSeconds) {
+            long day = (long) Math.floor(unixSeconds / DAY_SECONDS);
+            if (day != sampledDay) {
+                exact(day * DAY_SECONDS);
+                startDeclination = declination;
+                startEquation = equationOfTime;
+                exact((day + 1) * DAY_SECONDS);
+                endDeclination = declination;
+                endEquation = equationOfTime;
+                sampledDay = day;
+            }
+            double f = (unixSeconds - day * DAY_SECONDS) / DAY_SECONDS;
+            equationOfTime = startEquation + (endEquation - startEquation) * f;
+            setDeclination(startDeclination + (endDeclination - startDeclination) * f);
+        }
+
+        private void setDeclination(double radians) {
+            declination = radians;
+            sinDeclination = Math.sin(radians);
+            cosDeclination = Math.cos(radians);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.climaapp;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process span recorder backed by fixed parallel arrays used as a ring buffer. Recording is an
+ * index claim plus three array writes, so it is cheap enough to leave on in release builds.
+ */
+public class TraceRecorder {
+
+    private final int mask;
+    private final int[] nameIds;
+    private final long[] starts;
+    private final long[] durations;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<String> names = new CopyOnWriteArrayList<>();
+
+    /** @param capacity rounded up to a power of two; older spans are overwritten when full */
+    public TraceRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        nameIds = new int[size];
+        starts = new long[size];
+        durations = new long[size];
+    }
+
+    public void record(String name, long startNanos, long durationNanos) {
+        int slot = (int) (cursor.getAndIncrement() & mask);
+        nameIds[slot] = idFor(name);
+        starts[slot] = startNanos;
+        durations[slot] = durationNanos;
+    }
+
+    public void clear() {
+        cursor.set(0);
+    }
+
+    public int size() {
+        return (int) Math.min(cursor.get(), mask + 1);
+    }
+
+    public int count(String name) {
+        Integer id = ids.get(name);
+        if (id == null) return 0;
+        int count = 0;
+        for (int i = 0, size = size(); i < size; i++) {
+            if (nameIds[i] == id) count++;
+        }
+        return count;
+    }
+
+    /** Durations of every recorded span with this name, in milliseconds, sorted ascending. */
+    public double[] durationsMillis(String name) {
+        Integer id = ids.get(name);
+        if (id == null) return new double[0];
+        int size = size();
+        double[] values = new double[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (nameIds[i] == id) values[count++] = durations[i] / 1_000_000.0;
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+        return values;
+    }
+
+    /** Nearest-rank percentile of the span's duration in milliseconds, or -1 if never recorded. */
+    public double percentileMillis(String name, double percentile) {
+        double[] values = durationsMillis(name);
+        if (values.length == 0) return -1;
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+    }
+
+    /** Start of the earliest recorded span with this name, or -1. */
+    public long firstStartNanos(String name) {
+        Integer id = ids.get(name);
+        if (id == null) return -1;
+        long first = Long.MAX_VALUE;
+        for (int i = 0, size = size(); i < size; i++) {
+            if (nameIds[i] == id) first = Math.min(first, starts[i]);
+        }
+        return first == Long.MAX_VALUE ? -1 : first;
+    }
+
+    /** End of the earliest-starting span with this name, or -1. */
+    public long firstEndNanos(String name) {
+        Integer id = ids.get(name);
+        if (id == null) return -1;
+        long firstStart = Long.MAX_VALUE;
+        long end = -1;
+        for (int i = 0, size = size(); i < size; i++) {
+            if (nameIds[i] == id && starts[i] < firstStart) {
+                firstStart = starts[i];
+                end = starts[i] + durations[i];
+            }
+        }
+        return end;
+    }
+
+    private int idFor(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        synchronized (names) {
+            id = ids.get(name);
+            if (id == null) {
+                names.add(name);
+                id = names.size() - 1;
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+}
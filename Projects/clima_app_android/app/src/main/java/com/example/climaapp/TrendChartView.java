@@ -0,0 +1,167 @@
+package com.example.climaapp;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A temperature line chart for series of any length. The series is cut down to about one point
+ * per horizontal pixel with {@link LttbDecimator}, and the resulting {@link Path} is kept between
+ * frames: it is only rebuilt when the data or the view size changes, so redraws allocate nothing.
+ * Night hours can be shaded behind the line with {@link #setDaylight}.
+ */
+public class TrendChartView extends View {
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint nightPaint = new Paint();
+    private final Path path = new Path();
+
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int size;
+    private int[] picked = new int[0];
+    private boolean[] daytime;
+    // Left and right edge of each shaded night stretch, in pixels
+    private float[] nightBands = new float[0];
+    private int nightBandCount;
+    private boolean pathDirty = true;
+
+    public TrendChartView(Context context) {
+        this(context, null);
+    }
+
+    public TrendChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        linePaint.setColor(Color.WHITE);
+        linePaint.setStrokeWidth(2 * getResources().getDisplayMetrics().density);
+        nightPaint.setColor(Color.argb(48, 0, 0, 0));
+    }
+
+    /**
+     * Shows the first {@code size} points, e.g. from {@link Forecast#copyTimes()} or
+     * {@link WeatherHistory.Range#times()}. The arrays are read when the chart next draws, so
+     * don't change them afterwards.
+     */
+    public void setSeries(long[] times, double[] temperatures, int size) {
+        if (xs.length < size) {
+            xs = new double[size];
+        }
+        for (int i = 0; i < size; i++) {
+            xs[i] = times[i];
+        }
+        this.ys = temperatures;
+        this.size = size;
+        this.daytime = null;
+        pathDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Shades the points where {@code daytime} is false, e.g. from
+     * {@link SolarCalculator#isDaytime(double, double, long[], int, boolean[])}. Call after
+     * {@link #setSeries}; a new series clears the shading.
+     */
+    public void setDaylight(boolean[] daytime) {
+        this.daytime = daytime;
+        pathDirty = true;
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        pathDirty = true;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (pathDirty) {
+            rebuildPath();
+            pathDirty = false;
+        }
+        for (int i = 0; i < nightBandCount; i++) {
+            canvas.drawRect(nightBands[2 * i], 0, nightBands[2 * i + 1], getHeight(), nightPaint);
+        }
+        canvas.drawPath(path, linePaint);
+    }
+
+    private void rebuildPath() {
+        path.rewind();
+        nightBandCount = 0;
+        float inset = linePaint.getStrokeWidth();
+        float left = getPaddingLeft() + inset;
+        float top = getPaddingTop() + inset;
+        float width = getWidth() - getPaddingRight() - inset - left;
+        float height = getHeight() - getPaddingBottom() - inset - top;
+        if (size < 2 || width <= 0 || height <= 0) return;
+
+        // More points than pixel columns would only overdraw
+        int target = Math.max(3, (int) width);
+        if (picked.length < Math.min(size, target)) {
+            picked = new int[Math.min(size, target)];
+        }
+        int count = LttbDecimator.decimate(xs, ys, size, target, picked);
+
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double y = ys[picked[i]];
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        double minX = xs[0];
+        double spanX = Math.max(xs[size - 1] - minX, 1);
+        // A flat line sits in the middle instead of dividing by zero
+        double spanY = maxY > minY ? maxY - minY : 1;
+        double offsetY = maxY > minY ? 0 : height / 2.0;
+
+        if (daytime != null) {
+            collectNightBands(left, width, minX, spanX);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int index = picked[i];
+            float px = (float) (left + (xs[index] - minX) / spanX * width);
+            float py = (float) (top + height - offsetY - (ys[index] - minY) / spanY * height);
+            if (i == 0) {
+                path.moveTo(px, py);
+            } else {
+                path.lineTo(px, py);
+            }
+        }
+    }
+
+    private void collectNightBands(float left, float width, double minX, double spanX) {
+        int i = 0;
+        while (i < size) {
+            if (daytime[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < size && !daytime[i]) {
+                i++;
+            }
+            // The band runs to the next daytime point, or the end of the chart
+            int end = Math.min(i, size - 1);
+            if (nightBands.length < 2 * (nightBandCount + 1)) {
+                nightBands = Arrays.copyOf(nightBands, Math.max(8, nightBands.length * 2));
+            }
+            nightBands[2 * nightBandCount] = (float) (left + (xs[start] - minX) / spanX * width);
+            nightBands[2 * nightBandCount + 1] = (float) (left + (xs[end] - minX) / spanX * width);
+            nightBandCount++;
+        }
+    }
+}
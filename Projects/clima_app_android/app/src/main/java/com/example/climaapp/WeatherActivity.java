@@ -1,32 +1,75 @@
 package com.example.climaapp;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.IntentCompat;
 
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
-import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.GoogleMapOptions;
 import com.google.android.gms.maps.SupportMapFragment;
+import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
 
-public class WeatherActivity extends AppCompatActivity implements OnMapReadyCallback {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class WeatherActivity extends AppCompatActivity {
+
+    public static final String EXTRA_SNAPSHOT = "weatherSnapshot";
+    public static final String EXTRA_REVALIDATE = "revalidate";
+
+    // Conditions are reported per town; moving less than this won't change them
+    private static final double REFRESH_DISTANCE_KM = 2;
+    // Offered alert thresholds sit this many degrees either side of the current temperature
+    private static final int ALERT_THRESHOLD_STEP = 5;
+    private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 2;
+    // Grid cells get positive IDs, so this one can never clash
+    private static final int YOUR_LOCATION_ID = 0;
 
     private GoogleMap mMap;
+    private ClusterLayer clusterLayer;
+    private DeferredMapLoader mapLoader;
+    private WeatherGridPrefetcher gridPrefetcher;
+    private LocationStrategy locationStrategy;
+    private LocationFix refreshedAt;
+    private final Map<WeatherGridPrefetcher.Cell, MapPoint> gridPoints = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable pushMapPoints = this::pushMapPoints;
+    private boolean mapPointsDirty;
+    private WeatherSnapshot shownSnapshot;
     private double latitude = 45.5017;  // Default Montreal
     private double longitude = -73.5673;
 
     private TextView temperatureText;
     private TextView cityText;
     private TextView weatherMessageText;
+    private TextView airQualityText;
     private ImageView weatherIcon;
     private View searchCityButton;
+    private TrendChartView trendChart;
+    private RequestScope requestScope;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -37,18 +80,31 @@ public class WeatherActivity extends AppCompatActivity implements OnMapReadyCall
         temperatureText = findViewById(R.id.temperature_text);
         cityText = findViewById(R.id.city_name_text);
         weatherMessageText = findViewById(R.id.weather_message_text);
+        airQualityText = findViewById(R.id.air_quality_text);
         weatherIcon = findViewById(R.id.weather_icon);
         searchCityButton = findViewById(R.id.search_city_button);
         Button backButton = findViewById(R.id.back_button);
+        trendChart = findViewById(R.id.trend_chart);
+
+        // 🧹 Requests started here are dropped when this screen is destroyed
+        requestScope = RequestScope.of(this);
 
-        // 🗺️ Get map coordinates
-        latitude = getIntent().getDoubleExtra("lat", latitude);
-        longitude = getIntent().getDoubleExtra("lon", longitude);
+        // 🌐 Load weather data, already parsed by the previous screen
+        WeatherSnapshot snapshot = IntentCompat.getParcelableExtra(getIntent(), EXTRA_SNAPSHOT, WeatherSnapshot.class);
+        if (snapshot != null) {
+            // 🗺️ Get map coordinates
+            latitude = snapshot.getLatitude();
+            longitude = snapshot.getLongitude();
+            updateUI(snapshot);
+            loadTrend();
+            if (!snapshot.hasAirQuality()) {
+                loadAirQuality();
+            }
 
-        // 🌐 Load weather data
-        String weatherJson = getIntent().getStringExtra("weatherData");
-        if (weatherJson != null) {
-            updateUI(weatherJson);
+            // 🔄 Opened from the stored snapshot: fetch fresh data and swap it in
+            if (getIntent().getBooleanExtra(EXTRA_REVALIDATE, false)) {
+                revalidate();
+            }
         }
 
         // 🔙 Back button
@@ -60,28 +116,263 @@ public class WeatherActivity extends AppCompatActivity implements OnMapReadyCall
             startActivity(intent);
         });
 
-        // 🗺️ Set up map
-        SupportMapFragment mapFragment = (SupportMapFragment) getSupportFragmentManager()
-                .findFragmentById(R.id.map);
-        if (mapFragment != null) {
-            mapFragment.getMapAsync(this);
+        // ⭐ Favorites dashboard
+        findViewById(R.id.favorites_button).setOnClickListener(v ->
+                startActivity(new Intent(WeatherActivity.this, FavoritesActivity.class)));
+
+        // 🔔 Alert rules for the city on screen
+        findViewById(R.id.alert_button).setOnClickListener(v -> showAlertChoices());
+
+        // 🗺️ Map waits for the first weather frame, then starts as a cheap lite-mode snapshot
+        mapLoader = new DeferredMapLoader(this::attachMap);
+        View mapContainer = findViewById(R.id.map_container);
+        mapContainer.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                mapContainer.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posted while this frame is drawing, so it runs once the weather is on screen
+                mapContainer.post(mapLoader::onWeatherDrawn);
+                return true;
+            }
+        });
+    }
+
+    private void updateUI(WeatherSnapshot snapshot) {
+        long traceStart = ClimaTrace.begin(ClimaTrace.UPDATE_UI);
+        shownSnapshot = snapshot;
+        temperatureText.setText(snapshot.getRoundedTemperature() + "°");
+        cityText.setText(snapshot.getCityName());
+        weatherMessageText.setText(snapshot.getMessage());
+        weatherIcon.setImageResource(snapshot.getWeatherIcon());
+        weatherIcon.setContentDescription(WeatherConditions.getDescription(snapshot.getConditionId()));
+        showAirQuality(snapshot.getAirQualityIndex());
+        ClimaTrace.end(ClimaTrace.UPDATE_UI, traceStart);
+    }
+
+    private void showAirQuality(int index) {
+        if (index == WeatherSnapshot.UNKNOWN_AIR_QUALITY) {
+            // Don't leave the previous location's reading up
+            airQualityText.setVisibility(View.GONE);
+            return;
         }
+        airQualityText.setText("Air quality: " + WeatherSnapshot.describeAirQuality(index));
+        airQualityText.setVisibility(View.VISIBLE);
     }
 
-    private void updateUI(String weatherJson) {
-        WeatherDataParser parser = new WeatherDataParser(weatherJson);
-        temperatureText.setText(parser.getTemperature() + "°");
-        cityText.setText(parser.getCityName());
-        weatherMessageText.setText(parser.getMessage());
-        weatherIcon.setImageResource(parser.getWeatherIcon());
+    // 🌫️ Searched cities come without air quality; fetch it on its own and fill it in
+    private void loadAirQuality() {
+        WeatherNetworkClient.fetchAirQuality(latitude, longitude, requestScope, index -> {
+            if (index != null) showAirQuality(index);
+        });
     }
 
-    @Override
-    public void onMapReady(GoogleMap googleMap) {
+    // 📈 Temperature trend for the coming days; the chart thins it out to fit its width
+    private void loadTrend() {
+        WeatherNetworkClient.fetchForecastByCoordinates(latitude, longitude, requestScope, forecast -> {
+            if (forecast == null || forecast.size() < 2) return;
+            long[] times = forecast.copyTimes();
+            trendChart.setSeries(times, forecast.copyTemperatures(), forecast.size());
+            // 🌙 Shade the hours after sunset
+            boolean[] daytime = new boolean[forecast.size()];
+            SolarCalculator.isDaytime(latitude, longitude, times, forecast.size(), daytime);
+            trendChart.setDaylight(daytime);
+            trendChart.setVisibility(View.VISIBLE);
+        });
+    }
+
+    private void revalidate() {
+        WeatherRefresher refresher = new WeatherRefresher(new WeatherSnapshotStore(this), requestScope);
+        Consumer<WeatherSnapshot> onFresh = fresh -> {
+            if (fresh == null || isDestroyed()) return;
+            latitude = fresh.getLatitude();
+            longitude = fresh.getLongitude();
+            updateUI(fresh);
+            loadTrend();
+            if (!fresh.hasAirQuality()) {
+                loadAirQuality();
+            }
+            showLocationOnMap();
+        };
+
+        // A quick fix if we have one, otherwise the location the stored snapshot was taken at
+        locationStrategy = new LocationHelper(this).getCurrentLocation(fix -> {
+            if (fix == null) {
+                refresher.refresh(onFresh);
+                return;
+            }
+            // 🎯 A sharper fix only matters if it moved us far enough for the weather to differ
+            if (refreshedAt != null && GeoKdTree.distanceKm(refreshedAt.getLatitude(), refreshedAt.getLongitude(),
+                    fix.getLatitude(), fix.getLongitude()) < REFRESH_DISTANCE_KM) {
+                return;
+            }
+            refreshedAt = fix;
+            refresher.refresh(fix.getLatitude(), fix.getLongitude(), onFresh);
+        });
+    }
+
+    private void showAlertChoices() {
+        WeatherSnapshot snapshot = shownSnapshot;
+        // Rules are kept per API city ID; a spot outside any city has none
+        if (snapshot == null || snapshot.getCityId() == FavoriteCity.UNKNOWN_ID) {
+            Toast.makeText(this, "Alerts need a named city", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        int above = snapshot.getRoundedTemperature() + ALERT_THRESHOLD_STEP;
+        int below = snapshot.getRoundedTemperature() - ALERT_THRESHOLD_STEP;
+        String[] choices = {"Warmer than " + above + "°", "Colder than " + below + "°", "Thunderstorm"};
+        new AlertDialog.Builder(this)
+                .setTitle("Alert me in " + snapshot.getCityName())
+                .setItems(choices, (dialog, which) -> {
+                    long cityId = snapshot.getCityId();
+                    AlertRuleStore ruleStore = new AlertRuleStore(this);
+                    List<AlertRule> rules = new ArrayList<>(ruleStore.load());
+                    long id = 1;
+                    for (AlertRule rule : rules) {
+                        id = Math.max(id, rule.getId() + 1);
+                    }
+                    if (which == 0) rules.add(AlertRule.temperatureAbove(id, cityId, above));
+                    else if (which == 1) rules.add(AlertRule.temperatureBelow(id, cityId, below));
+                    else rules.add(AlertRule.thunderstorm(id, cityId));
+                    ruleStore.save(rules);
+                    watchInBackground(snapshot);
+                    requestNotificationPermission();
+                    Toast.makeText(this, "Alert added", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // The background job reads the stored location and favorites; make sure this city is one of them
+    private void watchInBackground(WeatherSnapshot snapshot) {
+        WeatherSnapshot stored = new WeatherSnapshotStore(this).load();
+        if (stored != null && stored.getCityId() == snapshot.getCityId()) return;
+        FavoritesStore favoritesStore = new FavoritesStore(this);
+        List<FavoriteCity> favorites = new ArrayList<>(favoritesStore.load());
+        for (FavoriteCity city : favorites) {
+            if (city.getCityId() == snapshot.getCityId()) return;
+        }
+        favorites.add(new FavoriteCity(snapshot.getCityName(), snapshot.getCityId()));
+        favoritesStore.save(favorites);
+    }
+
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ActivityCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS},
+                    NOTIFICATION_PERMISSION_REQUEST_CODE);
+        }
+    }
+
+    private void attachMap(boolean liteMode) {
+        if (isFinishing()) return;
+        GoogleMapOptions options = new GoogleMapOptions()
+                .liteMode(liteMode)
+                .mapToolbarEnabled(false)
+                .camera(CameraPosition.fromLatLngZoom(new LatLng(latitude, longitude), 10f));
+        SupportMapFragment mapFragment = SupportMapFragment.newInstance(options);
+        // The map can be rebuilt at any time, so losing this transaction to a state save is fine
+        getSupportFragmentManager().beginTransaction()
+                .replace(R.id.map_container, mapFragment)
+                .commitAllowingStateLoss();
+        mapFragment.getMapAsync(googleMap -> onMapReady(googleMap, liteMode));
+    }
+
+    private void onMapReady(GoogleMap googleMap, boolean liteMode) {
+        // A lite map that finished after the user already asked for the interactive one
+        if (liteMode != mapLoader.isLite()) return;
+
         mMap = googleMap;
+        if (liteMode) {
+            // 👆 Tap the snapshot to get a map you can pan and zoom
+            clusterLayer = null;
+            mMap.setOnMapClickListener(latLng -> mapLoader.upgrade());
+        } else {
+            clusterLayer = new ClusterLayer(mMap);
+            // 🌦️ Conditions around the visible area, nearest the centre first
+            if (gridPrefetcher == null) {
+                gridPrefetcher = new WeatherGridPrefetcher(this::onGridCellLoaded);
+            }
+            mMap.setOnCameraIdleListener(() -> {
+                clusterLayer.onCameraIdle();
+                onViewportChanged();
+            });
+        }
+        mMap.setOnMapLoadedCallback(() -> mapLoader.onMapLoaded(liteMode));
+        showLocationOnMap();
+    }
+
+    private void onViewportChanged() {
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        gridPrefetcher.setViewport(bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude);
+        // Cells from another zoom level or off-screen would overlap the new ones
+        if (gridPoints.keySet().removeIf(cell -> !gridPrefetcher.isVisible(cell))) {
+            invalidateMapPoints();
+        }
+    }
+
+    private void onGridCellLoaded(WeatherGridPrefetcher.Cell cell, WeatherSnapshot snapshot) {
+        if (clusterLayer == null) return;
+        String label = snapshot.getRoundedTemperature() + "° " + WeatherConditions.getDescription(snapshot.getConditionId());
+        MapPoint previous = gridPoints.get(cell);
+        if (previous != null && previous.getLabel().equals(label)) return;
+        gridPoints.put(cell, new MapPoint(cell.id(), cell.centerLatitude(), cell.centerLongitude(), label));
+        invalidateMapPoints();
+    }
+
+    // Cells land one at a time; re-cluster once per frame however many arrived in it
+    private void invalidateMapPoints() {
+        if (mapPointsDirty) return;
+        mapPointsDirty = true;
+        mainHandler.post(pushMapPoints);
+    }
+
+    private void pushMapPoints() {
+        mapPointsDirty = false;
+        if (clusterLayer != null) {
+            clusterLayer.setPoints(mapPoints());
+        }
+    }
+
+    private List<MapPoint> mapPoints() {
+        List<MapPoint> points = new ArrayList<>(gridPoints.size() + 1);
+        points.add(new MapPoint(YOUR_LOCATION_ID, latitude, longitude, "Your Location"));
+        points.addAll(gridPoints.values());
+        return points;
+    }
+
+    private void showLocationOnMap() {
+        if (mMap == null) return;
 
         LatLng selectedLocation = new LatLng(latitude, longitude);
-        mMap.addMarker(new MarkerOptions().position(selectedLocation).title("Your Location"));
+        if (clusterLayer != null) {
+            invalidateMapPoints();
+        } else {
+            // Lite mode has no camera events to cluster on; one marker is all it shows anyway
+            mMap.clear();
+            mMap.addMarker(new MarkerOptions().position(selectedLocation).title("Your Location"));
+        }
         mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(selectedLocation, 10f));
     }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == NOTIFICATION_PERMISSION_REQUEST_CODE
+                && (grantResults.length == 0 || grantResults[0] != PackageManager.PERMISSION_GRANTED)) {
+            Toast.makeText(this, "Alerts won't show without notification permission", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mainHandler.removeCallbacks(pushMapPoints);
+        if (gridPrefetcher != null) {
+            gridPrefetcher.close();
+        }
+        if (locationStrategy != null) {
+            locationStrategy.cancel();
+        }
+    }
 }
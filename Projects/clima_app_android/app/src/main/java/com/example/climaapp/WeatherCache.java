@@ -0,0 +1,226 @@
+package com.example.climaapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class WeatherCache {
+
+    public static final long DEFAULT_TTL_MS = 10 * 60 * 1000;
+    private static final int DEFAULT_MEMORY_ENTRIES = 32;
+    private static final int DEFAULT_DISK_ENTRIES = 128;
+    private static final int DISK_FORMAT_VERSION = 1;
+
+    private final File directory;
+    private final int maxDiskEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> memory;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger diskHits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger evictions = new AtomicInteger();
+
+    public WeatherCache(File directory) {
+        this(directory, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_ENTRIES, DEFAULT_TTL_MS, System::currentTimeMillis);
+    }
+
+    WeatherCache(File directory, int maxMemoryEntries, int maxDiskEntries, long ttlMs, LongSupplier clock) {
+        this.directory = directory;
+        this.maxDiskEntries = maxDiskEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.memory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxMemoryEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (directory != null) {
+            directory.mkdirs();
+        }
+    }
+
+    public static String keyForCoordinates(double lat, double lon) {
+        return "geo:" + GeoHash.encode(lat, lon);
+    }
+
+    public static String keyForCity(String cityName) {
+        return "city:" + normalizeCityName(cityName);
+    }
+
+    /** "  São   Paulo" and "sao paulo" are the same city: strip accents, case and extra spaces. */
+    public static String normalizeCityName(String cityName) {
+        return Normalizer.normalize(cityName.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the cached entry for the key, fresh or stale, or null. Callers check
+     * {@link #isFresh(Entry)} and revalidate stale entries with their validators.
+     */
+    public Entry get(String key) {
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry == null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                diskHits.incrementAndGet();
+                synchronized (memory) {
+                    memory.put(key, entry);
+                }
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    public boolean isFresh(Entry entry) {
+        return clock.getAsLong() - entry.fetchedAt < ttlMs;
+    }
+
+    public Entry put(String key, String body, String etag, String lastModified) {
+        Entry entry = new Entry(body, etag, lastModified, clock.getAsLong());
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+        return entry;
+    }
+
+    /** Marks an entry as fresh again after the server answered 304 Not Modified. */
+    public Entry revalidated(String key, Entry entry) {
+        return put(key, entry.body, entry.etag, entry.lastModified);
+    }
+
+    public int hitCount() {
+        return hits.get();
+    }
+
+    public int diskHitCount() {
+        return diskHits.get();
+    }
+
+    public int missCount() {
+        return misses.get();
+    }
+
+    public int evictionCount() {
+        return evictions.get();
+    }
+
+    private File fileFor(String key) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            name.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return new File(directory, name.toString());
+    }
+
+    private Entry readFromDisk(String key) {
+        if (directory == null) return null;
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != DISK_FORMAT_VERSION) return null;
+            long fetchedAt = in.readLong();
+            String etag = readOptional(in);
+            String lastModified = readOptional(in);
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Entry(new String(body, StandardCharsets.UTF_8), etag, lastModified, fetchedAt);
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) return;
+        File file = fileFor(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(DISK_FORMAT_VERSION);
+            out.writeLong(entry.fetchedAt);
+            writeOptional(out, entry.etag);
+            writeOptional(out, entry.lastModified);
+            byte[] body = entry.body.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= maxDiskEntries) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - maxDiskEntries; i++) {
+            if (files[i].delete()) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static class Entry {
+        public final String body;
+        public final String etag;
+        public final String lastModified;
+        public final long fetchedAt;
+
+        Entry(String body, String etag, String lastModified, long fetchedAt) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
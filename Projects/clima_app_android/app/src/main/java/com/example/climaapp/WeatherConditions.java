@@ -0,0 +1,175 @@
+package com.example.climaapp;
+
+/**
+ * Precomputed lookup table for the OpenWeatherMap condition codes (2xx thunderstorm through 8xx
+ * clouds). Every code in range has one packed int holding its day icon, night icon and severity,
+ * so lookups are a bounds check and an array read.
+ *
+ * @see <a href="https://openweathermap.org/weather-conditions">Weather condition codes</a>
+ */
+public final class WeatherConditions {
+
+    public static final int SEVERITY_NONE = 0;
+    public static final int SEVERITY_LOW = 1;
+    public static final int SEVERITY_MODERATE = 2;
+    public static final int SEVERITY_HIGH = 3;
+    public static final int SEVERITY_SEVERE = 4;
+
+    static final int MIN_CODE = 200;
+    static final int MAX_CODE = 899;
+
+    private static final int ICON_THUNDERSTORM = 0;
+    private static final int ICON_DRIZZLE = 1;
+    private static final int ICON_RAIN = 2;
+    private static final int ICON_SNOW = 3;
+    private static final int ICON_ATMOSPHERE = 4;
+    private static final int ICON_CLEAR = 5;
+    private static final int ICON_CLOUDS = 6;
+    private static final int ICON_DEFAULT = 7;
+
+    // Indexed by the ICON_* constants above
+    private static final int[] ICONS = {
+            R.drawable.thunderstorm,
+            R.drawable.drizzle,
+            R.drawable.rain,
+            R.drawable.snow,
+            R.drawable.atmosphere,
+            R.drawable.clear,
+            R.drawable.clouds,
+            R.drawable.default_weather
+    };
+
+    // There is no separate night artwork yet, so the night column mirrors the day one.
+    // Swap entries here when moon/night drawables are added.
+    private static final int[] NIGHT_ICONS = ICONS;
+
+    // Packed entry: bits 0-3 icon index, bits 4-7 severity
+    private static final int[] TABLE = new int[MAX_CODE - MIN_CODE + 1];
+    private static final String[] DESCRIPTIONS = new String[MAX_CODE - MIN_CODE + 1];
+
+    static {
+        // Group defaults first, so codes the API does not document still map like they always have
+        fillGroup(200, 299, ICON_THUNDERSTORM, SEVERITY_HIGH, "thunderstorm");
+        fillGroup(300, 399, ICON_DRIZZLE, SEVERITY_LOW, "drizzle");
+        fillGroup(400, 599, ICON_RAIN, SEVERITY_MODERATE, "rain");
+        fillGroup(600, 699, ICON_SNOW, SEVERITY_MODERATE, "snow");
+        fillGroup(700, 799, ICON_ATMOSPHERE, SEVERITY_LOW, "atmosphere");
+        fillGroup(800, 800, ICON_CLEAR, SEVERITY_NONE, "clear sky");
+        fillGroup(801, 804, ICON_CLOUDS, SEVERITY_NONE, "clouds");
+        fillGroup(805, 899, ICON_DEFAULT, SEVERITY_NONE, "unknown");
+
+        define(200, SEVERITY_HIGH, "thunderstorm with light rain");
+        define(201, SEVERITY_HIGH, "thunderstorm with rain");
+        define(202, SEVERITY_SEVERE, "thunderstorm with heavy rain");
+        define(210, SEVERITY_HIGH, "light thunderstorm");
+        define(211, SEVERITY_HIGH, "thunderstorm");
+        define(212, SEVERITY_SEVERE, "heavy thunderstorm");
+        define(221, SEVERITY_SEVERE, "ragged thunderstorm");
+        define(230, SEVERITY_HIGH, "thunderstorm with light drizzle");
+        define(231, SEVERITY_HIGH, "thunderstorm with drizzle");
+        define(232, SEVERITY_SEVERE, "thunderstorm with heavy drizzle");
+
+        define(300, SEVERITY_LOW, "light intensity drizzle");
+        define(301, SEVERITY_LOW, "drizzle");
+        define(302, SEVERITY_MODERATE, "heavy intensity drizzle");
+        define(310, SEVERITY_LOW, "light intensity drizzle rain");
+        define(311, SEVERITY_LOW, "drizzle rain");
+        define(312, SEVERITY_MODERATE, "heavy intensity drizzle rain");
+        define(313, SEVERITY_MODERATE, "shower rain and drizzle");
+        define(314, SEVERITY_MODERATE, "heavy shower rain and drizzle");
+        define(321, SEVERITY_LOW, "shower drizzle");
+
+        define(500, SEVERITY_LOW, "light rain");
+        define(501, SEVERITY_MODERATE, "moderate rain");
+        define(502, SEVERITY_HIGH, "heavy intensity rain");
+        define(503, SEVERITY_HIGH, "very heavy rain");
+        define(504, SEVERITY_SEVERE, "extreme rain");
+        define(511, SEVERITY_SEVERE, "freezing rain");
+        define(520, SEVERITY_LOW, "light intensity shower rain");
+        define(521, SEVERITY_MODERATE, "shower rain");
+        define(522, SEVERITY_HIGH, "heavy intensity shower rain");
+        define(531, SEVERITY_MODERATE, "ragged shower rain");
+
+        define(600, SEVERITY_LOW, "light snow");
+        define(601, SEVERITY_MODERATE, "snow");
+        define(602, SEVERITY_HIGH, "heavy snow");
+        define(611, SEVERITY_MODERATE, "sleet");
+        define(612, SEVERITY_LOW, "light shower sleet");
+        define(613, SEVERITY_MODERATE, "shower sleet");
+        define(615, SEVERITY_LOW, "light rain and snow");
+        define(616, SEVERITY_MODERATE, "rain and snow");
+        define(620, SEVERITY_LOW, "light shower snow");
+        define(621, SEVERITY_MODERATE, "shower snow");
+        define(622, SEVERITY_HIGH, "heavy shower snow");
+
+        define(701, SEVERITY_LOW, "mist");
+        define(711, SEVERITY_MODERATE, "smoke");
+        define(721, SEVERITY_LOW, "haze");
+        define(731, SEVERITY_MODERATE, "sand/dust whirls");
+        define(741, SEVERITY_MODERATE, "fog");
+        define(751, SEVERITY_MODERATE, "sand");
+        define(761, SEVERITY_MODERATE, "dust");
+        define(762, SEVERITY_SEVERE, "volcanic ash");
+        define(771, SEVERITY_HIGH, "squalls");
+        define(781, SEVERITY_SEVERE, "tornado");
+
+        define(800, SEVERITY_NONE, "clear sky");
+        define(801, SEVERITY_NONE, "few clouds");
+        define(802, SEVERITY_NONE, "scattered clouds");
+        define(803, SEVERITY_NONE, "broken clouds");
+        define(804, SEVERITY_NONE, "overcast clouds");
+    }
+
+    private WeatherConditions() {
+    }
+
+    private static void fillGroup(int from, int to, int icon, int severity, String description) {
+        for (int code = from; code <= to; code++) {
+            TABLE[code - MIN_CODE] = pack(icon, severity);
+            DESCRIPTIONS[code - MIN_CODE] = description;
+        }
+    }
+
+    private static void define(int code, int severity, String description) {
+        int icon = TABLE[code - MIN_CODE] & 0xF;
+        TABLE[code - MIN_CODE] = pack(icon, severity);
+        DESCRIPTIONS[code - MIN_CODE] = description;
+    }
+
+    private static int pack(int icon, int severity) {
+        return icon | (severity << 4);
+    }
+
+    private static int entry(int code) {
+        if (code < MIN_CODE) {
+            // Matches the old "condition < 300" branch, which also caught bogus low codes
+            return pack(ICON_THUNDERSTORM, SEVERITY_NONE);
+        }
+        if (code > MAX_CODE) {
+            return pack(ICON_DEFAULT, SEVERITY_NONE);
+        }
+        return TABLE[code - MIN_CODE];
+    }
+
+    public static int getIcon(int code) {
+        return ICONS[entry(code) & 0xF];
+    }
+
+    public static int getIcon(int code, boolean night) {
+        return (night ? NIGHT_ICONS : ICONS)[entry(code) & 0xF];
+    }
+
+    public static int getSeverity(int code) {
+        return (entry(code) >> 4) & 0xF;
+    }
+
+    /** The API's English description for the code, or its group name for undocumented codes. */
+    public static String getDescription(int code) {
+        if (code < MIN_CODE || code > MAX_CODE) return "unknown";
+        return DESCRIPTIONS[code - MIN_CODE];
+    }
+
+    public static boolean isThunderstorm(int code) {
+        return code >= 200 && code < 300;
+    }
+}
@@ -1,66 +1,338 @@
 package com.example.climaapp;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WeatherDataParser {
 
-    private final JSONObject weatherJson;
+    private static final AtomicInteger parseCount = new AtomicInteger();
+
+    private final WeatherSnapshot snapshot;
 
     public WeatherDataParser(String jsonString) {
         try {
-            this.weatherJson = new JSONObject(jsonString);
-        } catch (JSONException e) {
+            this.snapshot = parse(jsonString);
+        } catch (IOException e) {
             throw new RuntimeException("Invalid JSON", e);
         }
     }
 
-    public int getTemperature() {
-        try {
-            return (int) Math.round(weatherJson.getJSONObject("main").getDouble("temp"));
-        } catch (JSONException e) {
-            return 0;
+    public static WeatherSnapshot parse(String json) throws IOException {
+        if (json == null) throw new IOException("No weather data");
+        return parse(new StringReader(json));
+    }
+
+    public static WeatherSnapshot parse(InputStream body) throws IOException {
+        return parse(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a /weather response in a single pass, keeping only the fields Clima displays.
+     */
+    public static WeatherSnapshot parse(Reader body) throws IOException {
+        parseCount.incrementAndGet();
+        long traceStart = ClimaTrace.begin(ClimaTrace.PARSE);
+        try (JsonPullReader reader = new JsonPullReader(body)) {
+            return readSnapshot(reader);
+        } finally {
+            ClimaTrace.end(ClimaTrace.PARSE, traceStart);
         }
     }
 
-    public String getCityName() {
-        try {
-            return weatherJson.getString("name");
-        } catch (JSONException e) {
-            return "";
+    /**
+     * Reads a /group response ({@code {"cnt":n,"list":[...]}}) into one snapshot per city.
+     */
+    public static List<WeatherSnapshot> parseList(Reader body) throws IOException {
+        parseCount.incrementAndGet();
+        long traceStart = ClimaTrace.begin(ClimaTrace.PARSE);
+        List<WeatherSnapshot> snapshots = new ArrayList<>();
+        try (JsonPullReader reader = new JsonPullReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextNameIs("list")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        snapshots.add(readSnapshot(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            ClimaTrace.end(ClimaTrace.PARSE, traceStart);
         }
+        return snapshots;
     }
 
-    public int getWeatherIcon() {
-        try {
-            int condition = weatherJson.getJSONArray("weather").getJSONObject(0).getInt("id");
-            return WeatherIconMapper.getIconResource(condition);
-        } catch (JSONException e) {
-            return R.drawable.default_weather;
+    /**
+     * Reads a /forecast response straight into {@link Forecast}'s columns, without building an
+     * object per entry.
+     */
+    public static Forecast parseForecast(Reader body) throws IOException {
+        parseCount.incrementAndGet();
+        long traceStart = ClimaTrace.begin(ClimaTrace.PARSE);
+        int capacity = 40;
+        int size = 0;
+        long[] times = new long[capacity];
+        double[] temps = new double[capacity];
+        int[] conditions = new int[capacity];
+        double[] winds = new double[capacity];
+        long cityId = 0;
+        String cityName = "";
+
+        try (JsonPullReader reader = new JsonPullReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonPullReader.Token.NULL) {
+                    reader.skipValue();
+                } else if (name.equals("cnt") && size == 0) {
+                    // "cnt" comes before "list", so the columns can be sized exactly up front
+                    capacity = Math.max(1, reader.nextInt());
+                    times = new long[capacity];
+                    temps = new double[capacity];
+                    conditions = new int[capacity];
+                    winds = new double[capacity];
+                } else if (name.equals("list")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (size == capacity) {
+                            capacity *= 2;
+                            times = Arrays.copyOf(times, capacity);
+                            temps = Arrays.copyOf(temps, capacity);
+                            conditions = Arrays.copyOf(conditions, capacity);
+                            winds = Arrays.copyOf(winds, capacity);
+                        }
+                        readForecastEntry(reader, size, times, temps, conditions, winds);
+                        size++;
+                    }
+                    reader.endArray();
+                } else if (name.equals("city")) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("id")) cityId = reader.nextLong();
+                        else if (field.equals("name")) cityName = reader.nextString();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } finally {
+            ClimaTrace.end(ClimaTrace.PARSE, traceStart);
+        }
+        return new Forecast(cityId, cityName, size, times, temps, conditions, winds);
+    }
+
+    /**
+     * Reads the Air Quality Index from an /air_pollution response
+     * ({@code {"list":[{"main":{"aqi":2},...}]}}), or {@link WeatherSnapshot#UNKNOWN_AIR_QUALITY}.
+     */
+    public static int parseAirQuality(Reader body) throws IOException {
+        parseCount.incrementAndGet();
+        long traceStart = ClimaTrace.begin(ClimaTrace.PARSE);
+        int index = WeatherSnapshot.UNKNOWN_AIR_QUALITY;
+        try (JsonPullReader reader = new JsonPullReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextNameIs("list") || reader.peek() != JsonPullReader.Token.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                // Only the current reading is asked for, so the first entry is the one
+                if (reader.hasNext()) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextNameIs("main") && reader.peek() == JsonPullReader.Token.BEGIN_OBJECT) {
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                if (reader.nextNameIs("aqi")) index = reader.nextInt();
+                                else reader.skipValue();
+                            }
+                            reader.endObject();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        } finally {
+            ClimaTrace.end(ClimaTrace.PARSE, traceStart);
+        }
+        return index;
+    }
+
+    private static void readForecastEntry(JsonPullReader reader, int index, long[] times,
+                                          double[] temps, int[] conditions, double[] winds) throws IOException {
+        conditions[index] = WeatherSnapshot.UNKNOWN_CONDITION;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonPullReader.Token.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "dt":
+                    times[index] = reader.nextLong();
+                    break;
+                case "main":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextNameIs("temp")) temps[index] = reader.nextDouble();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                    break;
+                case "weather":
+                    reader.beginArray();
+                    if (reader.hasNext()) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if (reader.nextNameIs("id")) conditions[index] = reader.nextInt();
+                            else reader.skipValue();
+                        }
+                        reader.endObject();
+                    }
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                    break;
+                case "wind":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextNameIs("speed")) winds[index] = reader.nextDouble();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    static WeatherSnapshot readSnapshot(JsonPullReader reader) throws IOException {
+        long cityId = 0;
+        String cityName = "";
+        double lat = 0;
+        double lon = 0;
+        double temp = 0;
+        int condition = WeatherSnapshot.UNKNOWN_CONDITION;
+        long timestamp = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonPullReader.Token token = reader.peek();
+            if (token == JsonPullReader.Token.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "coord":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String field = reader.nextName();
+                        if (field.equals("lat")) lat = reader.nextDouble();
+                        else if (field.equals("lon")) lon = reader.nextDouble();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                    break;
+                case "weather":
+                    reader.beginArray();
+                    if (reader.hasNext()) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if (reader.nextNameIs("id")) condition = reader.nextInt();
+                            else reader.skipValue();
+                        }
+                        reader.endObject();
+                    }
+                    while (reader.hasNext()) {
+                        reader.skipValue();
+                    }
+                    reader.endArray();
+                    break;
+                case "main":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextNameIs("temp")) temp = reader.nextDouble();
+                        else reader.skipValue();
+                    }
+                    reader.endObject();
+                    break;
+                case "dt":
+                    timestamp = reader.nextLong();
+                    break;
+                case "id":
+                    cityId = reader.nextLong();
+                    break;
+                case "name":
+                    cityName = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
+        reader.endObject();
+
+        return new WeatherSnapshot(cityId, cityName, lat, lon, temp, condition, timestamp);
+    }
+
+    /** Number of payloads parsed since process start, so tests can assert nothing parses twice. */
+    static int parseCount() {
+        return parseCount.get();
+    }
+
+    public WeatherSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getTemperature() {
+        return snapshot.getRoundedTemperature();
+    }
+
+    public String getCityName() {
+        return snapshot.getCityName();
+    }
+
+    public int getWeatherIcon() {
+        return snapshot.getWeatherIcon();
     }
 
     public String getMessage() {
-        int temp = getTemperature();
-        if (temp > 25) return "It’s 🍦 time";
-        else if (temp > 20) return "Time for shorts and 👕";
-        else if (temp < 10) return "You’ll need 🧣 and 🧤";
-        else return "Bring a 🧥 just in case";
+        return snapshot.getMessage();
     }
 
     public double getLatitude() {
-        try {
-            return weatherJson.getJSONObject("coord").getDouble("lat");
-        } catch (JSONException e) {
-            return 0;
-        }
+        return snapshot.getLatitude();
     }
 
     public double getLongitude() {
-        try {
-            return weatherJson.getJSONObject("coord").getDouble("lon");
-        } catch (JSONException e) {
-            return 0;
-        }
+        return snapshot.getLongitude();
     }
 }
@@ -0,0 +1,314 @@
+package com.example.climaapp;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Loads current conditions for a grid over the visible map. The viewport is cut into square
+ * cells whose size is a power of two in degrees, so panning at the same zoom keeps hitting the
+ * same cells and their cached readings. Missing cells are fetched nearest-the-centre first, a few
+ * at a time; cells that scroll out of view are dropped from the queue and their requests cancelled.
+ * Every fetch spends a token from a shared {@link RequestBudget}.
+ *
+ * Call everything from the main thread; listener calls arrive there too.
+ */
+final class WeatherGridPrefetcher {
+
+    interface Fetcher {
+        void fetch(double lat, double lon, RequestScope scope, Consumer<WeatherSnapshot> callback);
+    }
+
+    interface Listener {
+        void onCellLoaded(Cell cell, WeatherSnapshot snapshot);
+    }
+
+    // About this many cells across the longer side of the viewport
+    static final int CELLS_ACROSS = 4;
+    static final int MAX_VISIBLE_CELLS = 48;
+    // Smallest cell is 1/16° (~7 km): finer than that, neighbours share a geohash and a reading
+    static final int MIN_LEVEL = -4;
+    // 64° cells put the whole world in 24 of them
+    static final int MAX_LEVEL = 6;
+    static final int DEFAULT_MAX_IN_FLIGHT = 3;
+    static final long CACHE_MAX_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+    static final int CACHE_CAPACITY = 256;
+
+    // Shared by every map on screen: 20 cells straight away, then one every 3 s
+    static final RequestBudget SHARED_BUDGET = new RequestBudget(20, 3_000);
+
+    private static final ScheduledExecutorService RETRY_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "grid-budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** One grid square: rows and columns count cells of 2^level degrees from 0°, 0°. */
+    static final class Cell {
+        final int level;
+        final int row;
+        final int col;
+
+        Cell(int level, int row, int col) {
+            this.level = level;
+            this.row = row;
+            this.col = col;
+        }
+
+        double size() {
+            return Math.scalb(1.0, level);
+        }
+
+        /** The middle of the part of the cell between the poles; 64° cells reach past them. */
+        double centerLatitude() {
+            double south = Math.max(-90, row * size());
+            double north = Math.min(90, (row + 1) * size());
+            return (south + north) / 2;
+        }
+
+        double centerLongitude() {
+            double lon = (col + 0.5) * size();
+            return lon >= 180 ? lon - 360 : lon;
+        }
+
+        /** Positive and distinct for every cell of every level, for use as a {@link MapPoint} ID. */
+        int id() {
+            // Even at MIN_LEVEL rows stay within ±1440 and columns below 5760
+            return 1 + ((level - MIN_LEVEL) * 4096 + row + 2048) * 8192 + col;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cell)) return false;
+            Cell other = (Cell) o;
+            return level == other.level && row == other.row && col == other.col;
+        }
+
+        @Override
+        public int hashCode() {
+            return (level * 31 + row) * 31 + col;
+        }
+
+        @Override
+        public String toString() {
+            return "Cell(" + level + ", " + row + ", " + col + ")";
+        }
+    }
+
+    private static final class Cached {
+        final WeatherSnapshot snapshot;
+        final long fetchedAt;
+
+        Cached(WeatherSnapshot snapshot, long fetchedAt) {
+            this.snapshot = snapshot;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final Fetcher fetcher;
+    private final Listener listener;
+    private final RequestBudget budget;
+    private final int maxInFlight;
+    private final LongSupplier clock;
+
+    private Set<Cell> visible = new HashSet<>();
+    private final PriorityQueue<Cell> queue = new PriorityQueue<>(16, (a, b) -> Double.compare(distance(a), distance(b)));
+    private final Map<Cell, RequestScope> inFlight = new HashMap<>();
+    private final LinkedHashMap<Cell, Cached> cache = new LinkedHashMap<Cell, Cached>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Cell, Cached> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private double centerLat;
+    private double centerLon;
+    private boolean retryScheduled;
+    private boolean closed;
+
+    private int started;
+    private int cancelled;
+    private int cacheHits;
+
+    WeatherGridPrefetcher(Listener listener) {
+        this(WeatherNetworkClient::fetchSnapshotByCoordinates, listener, SHARED_BUDGET,
+                DEFAULT_MAX_IN_FLIGHT, System::currentTimeMillis);
+    }
+
+    WeatherGridPrefetcher(Fetcher fetcher, Listener listener, RequestBudget budget, int maxInFlight,
+                          LongSupplier clock) {
+        this.fetcher = fetcher;
+        this.listener = listener;
+        this.budget = budget;
+        this.maxInFlight = maxInFlight;
+        this.clock = clock;
+    }
+
+    /** The finest level whose cells cover the viewport in about {@link #CELLS_ACROSS} steps. */
+    static int levelFor(double latSpan, double lonSpan) {
+        double span = Math.max(latSpan, lonSpan) / CELLS_ACROSS;
+        int level = span > 0 ? (int) Math.ceil(Math.log(span) / Math.log(2)) : MIN_LEVEL;
+        return Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, level));
+    }
+
+    /** The cells overlapping the viewport, coarsened until there are few enough. */
+    static List<Cell> cellsFor(double south, double west, double north, double east) {
+        if (east < west) east += 360;  // Viewport across the antimeridian
+        int level = levelFor(north - south, east - west);
+        while (true) {
+            double size = Math.scalb(1.0, level);
+            // No rows wholly beyond a pole: there is nothing there to ask about
+            int firstRow = (int) Math.max(Math.floor(south / size), Math.floor(-90 / size));
+            int lastRow = (int) Math.min(Math.floor(north / size), Math.ceil(90 / size) - 1);
+            int firstCol = (int) Math.floor(west / size);
+            int lastCol = (int) Math.floor(east / size);
+            long count = (long) (lastRow - firstRow + 1) * (lastCol - firstCol + 1);
+            if (count > MAX_VISIBLE_CELLS && level < MAX_LEVEL) {
+                level++;
+                continue;
+            }
+            int colsAround = (int) Math.round(360 / size);
+            List<Cell> cells = new ArrayList<>((int) count);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    cells.add(new Cell(level, row, Math.floorMod(col, colsAround)));
+                }
+            }
+            return cells;
+        }
+    }
+
+    /**
+     * Shows newly visible cached cells at once, then fetches the rest of the new viewport. Cells
+     * that were already visible are not delivered again.
+     */
+    synchronized void setViewport(double south, double west, double north, double east) {
+        if (closed) return;
+        centerLat = (south + north) / 2;
+        centerLon = east >= west ? (west + east) / 2 : (west + east + 360) / 2;
+        Set<Cell> nowVisible = new HashSet<>(cellsFor(south, west, north, east));
+
+        // Whatever scrolled away is no longer worth a request
+        Iterator<Map.Entry<Cell, RequestScope>> running = inFlight.entrySet().iterator();
+        while (running.hasNext()) {
+            Map.Entry<Cell, RequestScope> entry = running.next();
+            if (!nowVisible.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                running.remove();
+                cancelled++;
+            }
+        }
+        Set<Cell> wasVisible = visible;
+        visible = nowVisible;
+        queue.clear();
+
+        long now = clock.getAsLong();
+        for (Cell cell : nowVisible) {
+            Cached cached = cache.get(cell);
+            if (cached != null && now - cached.fetchedAt < CACHE_MAX_AGE_MS) {
+                if (!wasVisible.contains(cell)) {
+                    cacheHits++;
+                    listener.onCellLoaded(cell, cached.snapshot);
+                }
+            } else if (!inFlight.containsKey(cell)) {
+                queue.add(cell);
+            }
+        }
+        pump();
+    }
+
+    synchronized boolean isVisible(Cell cell) {
+        return visible.contains(cell);
+    }
+
+    /** Cancels everything in flight; nothing is delivered afterwards. */
+    synchronized void close() {
+        closed = true;
+        for (RequestScope scope : inFlight.values()) {
+            scope.cancel();
+        }
+        cancelled += inFlight.size();
+        inFlight.clear();
+        queue.clear();
+    }
+
+    private synchronized void pump() {
+        while (!closed && inFlight.size() < maxInFlight && !queue.isEmpty()) {
+            if (!budget.tryAcquire()) {
+                scheduleRetry();
+                return;
+            }
+            Cell cell = queue.poll();
+            RequestScope scope = new RequestScope();
+            inFlight.put(cell, scope);
+            started++;
+            fetcher.fetch(cell.centerLatitude(), cell.centerLongitude(), scope, snapshot -> onLoaded(cell, scope, snapshot));
+        }
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled) return;
+        retryScheduled = true;
+        RETRY_TIMER.schedule(() -> {
+            synchronized (this) {
+                retryScheduled = false;
+                pump();
+            }
+        }, budget.millisUntilNext(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onLoaded(Cell cell, RequestScope scope, WeatherSnapshot snapshot) {
+        // A request for this cell that was cancelled and restarted since is not ours to finish
+        if (inFlight.get(cell) != scope) return;
+        inFlight.remove(cell);
+        if (snapshot != null) {
+            cache.put(cell, new Cached(snapshot, clock.getAsLong()));
+            if (visible.contains(cell)) {
+                listener.onCellLoaded(cell, snapshot);
+            }
+        }
+        pump();
+    }
+
+    private double distance(Cell cell) {
+        double dLat = cell.centerLatitude() - centerLat;
+        double dLon = cell.centerLongitude() - centerLon;
+        if (dLon > 180) dLon -= 360;
+        if (dLon < -180) dLon += 360;
+        // Longitude degrees shrink towards the poles
+        dLon *= Math.cos(Math.toRadians(centerLat));
+        return dLat * dLat + dLon * dLon;
+    }
+
+    @VisibleForTesting
+    synchronized int startedCount() {
+        return started;
+    }
+
+    @VisibleForTesting
+    synchronized int cancelledCount() {
+        return cancelled;
+    }
+
+    @VisibleForTesting
+    synchronized int cacheHitCount() {
+        return cacheHits;
+    }
+
+    @VisibleForTesting
+    synchronized int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.climaapp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only ring buffer of observations for one location, kept in a memory-mapped file.
+ *
+ * <pre>
+ * header (32 bytes): magic, version, capacity, record size
+ * record (32 bytes): seq (long), time (long, Unix seconds), temperature (double),
+ *                    condition id (int), CRC32 of the first 28 bytes
+ * </pre>
+ *
+ * Record {@code seq} lives in slot {@code seq % capacity}, so once the file is full each append
+ * overwrites the oldest record. Nothing in the header changes on append: on open the newest valid
+ * record is found by scanning for the highest sequence number with a matching CRC, so a write cut
+ * short by a crash is simply ignored.
+ *
+ * Times only ever increase, which lets {@link #range} binary search them. Reads go straight to
+ * the mapped file and only touch the fields asked for.
+ */
+public final class WeatherHistory implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    static final int MAGIC = 0x434C4948;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+
+    private static final int SEQ = 0;
+    private static final int TIME = 8;
+    private static final int TEMPERATURE = 16;
+    private static final int CONDITION = 24;
+    private static final int CRC = 28;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final ByteBuffer writeView;
+    private final CRC32 crc = new CRC32();
+
+    // Sequence numbers start at 1, so an all-zero slot is never mistaken for a record
+    private long oldestSeq = 1;
+    private long nextSeq = 1;
+
+    private WeatherHistory(RandomAccessFile file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.writeView = buffer.duplicate();
+    }
+
+    public static WeatherHistory open(File path, int capacity) throws IOException {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            boolean fresh = file.length() != length || !hasHeader(file, capacity);
+            if (fresh) {
+                // Missing, truncated or written with another layout: start over
+                file.setLength(0);
+                file.setLength(length);
+            }
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            WeatherHistory history = new WeatherHistory(file, buffer, capacity);
+            if (fresh) {
+                history.writeHeader();
+            } else {
+                history.recover();
+            }
+            return history;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private static boolean hasHeader(RandomAccessFile file, int capacity) throws IOException {
+        file.seek(0);
+        return file.readInt() == MAGIC && file.readInt() == VERSION
+                && file.readInt() == capacity && file.readInt() == RECORD_SIZE;
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, RECORD_SIZE);
+        buffer.force();
+    }
+
+    private void recover() {
+        long newest = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long seq = buffer.getLong(HEADER_SIZE + slot * RECORD_SIZE + SEQ);
+            if (seq > newest && seq % capacity == slot && isValid(slot)) {
+                newest = seq;
+            }
+        }
+        nextSeq = newest + 1;
+        oldestSeq = Math.max(1, nextSeq - capacity);
+        // A torn write may have clobbered the oldest records; drop them rather than read garbage
+        while (oldestSeq < nextSeq && !isValid(slotOf(oldestSeq), oldestSeq)) {
+            oldestSeq++;
+        }
+    }
+
+    private boolean isValid(int slot) {
+        int base = HEADER_SIZE + slot * RECORD_SIZE;
+        crc.reset();
+        for (int i = 0; i < CRC; i++) {
+            crc.update(buffer.get(base + i));
+        }
+        return (int) crc.getValue() == buffer.getInt(base + CRC);
+    }
+
+    private boolean isValid(int slot, long seq) {
+        return buffer.getLong(HEADER_SIZE + slot * RECORD_SIZE + SEQ) == seq && isValid(slot);
+    }
+
+    /**
+     * Appends an observation. Returns false, writing nothing, if it is not newer than the latest
+     * record — the same reading often comes back from the cache several times.
+     */
+    public synchronized boolean append(long timeSeconds, double temperature, int conditionId) {
+        if (size() > 0 && timeSeconds <= latestTime()) return false;
+
+        long seq = nextSeq;
+        scratchBuffer.putLong(SEQ, seq);
+        scratchBuffer.putLong(TIME, timeSeconds);
+        scratchBuffer.putDouble(TEMPERATURE, temperature);
+        scratchBuffer.putInt(CONDITION, conditionId);
+        crc.reset();
+        crc.update(scratch, 0, CRC);
+        scratchBuffer.putInt(CRC, (int) crc.getValue());
+
+        writeView.position(offset(seq));
+        writeView.put(scratch);
+
+        nextSeq = seq + 1;
+        if (nextSeq - oldestSeq > capacity) {
+            oldestSeq = nextSeq - capacity;
+        }
+        return true;
+    }
+
+    public boolean append(WeatherSnapshot snapshot) {
+        return append(snapshot.getTimestamp(), snapshot.getTemperature(), snapshot.getConditionId());
+    }
+
+    /** Flushes appended records to storage. The page cache already survives a process crash. */
+    public synchronized void sync() {
+        buffer.force();
+    }
+
+    public synchronized int size() {
+        return (int) (nextSeq - oldestSeq);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Time of the newest record, or -1 if there are none. */
+    public synchronized long latestTime() {
+        return size() == 0 ? -1 : timeAt(nextSeq - 1);
+    }
+
+    /** Records with {@code fromSeconds <= time < toSeconds}, oldest first. */
+    public synchronized Range range(long fromSeconds, long toSeconds) {
+        long first = firstSeqAtOrAfter(fromSeconds);
+        long end = firstSeqAtOrAfter(toSeconds);
+        return new Range(first, (int) Math.max(0, end - first));
+    }
+
+    private long firstSeqAtOrAfter(long timeSeconds) {
+        long low = oldestSeq;
+        long high = nextSeq;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timeAt(mid) < timeSeconds) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int slotOf(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    private int offset(long seq) {
+        return HEADER_SIZE + slotOf(seq) * RECORD_SIZE;
+    }
+
+    private long timeAt(long seq) {
+        return buffer.getLong(offset(seq) + TIME);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * A window of records read lazily from the mapped file. Take it, read it, drop it: records
+     * appended afterwards may overwrite the oldest entries of a range over a full buffer.
+     */
+    public final class Range {
+
+        private final long firstSeq;
+        private final int size;
+
+        Range(long firstSeq, int size) {
+            this.firstSeq = firstSeq;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getTime(int index) {
+            return buffer.getLong(offsetOf(index) + TIME);
+        }
+
+        public double getTemperature(int index) {
+            return buffer.getDouble(offsetOf(index) + TEMPERATURE);
+        }
+
+        public int getConditionId(int index) {
+            return buffer.getInt(offsetOf(index) + CONDITION);
+        }
+
+        public long[] times() {
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer.getLong(offset(firstSeq + i) + TIME);
+            }
+            return values;
+        }
+
+        public double[] temperatures() {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = buffer.getDouble(offset(firstSeq + i) + TEMPERATURE);
+            }
+            return values;
+        }
+
+        private int offsetOf(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+            return offset(firstSeq + index);
+        }
+    }
+}
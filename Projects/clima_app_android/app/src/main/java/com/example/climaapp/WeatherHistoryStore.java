@@ -0,0 +1,54 @@
+package com.example.climaapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One {@link WeatherHistory} file per location, named by its precision-5 geohash: fetches within
+ * the same cell of about 4.9 x 4.9 km (narrower away from the equator) land in the same history,
+ * which is about the resolution the weather is reported at. Files stay mapped once opened.
+ */
+public class WeatherHistoryStore {
+
+    private static final String EXTENSION = ".hist";
+
+    private final File dir;
+    private final int capacity;
+    private final Map<String, WeatherHistory> open = new HashMap<>();
+
+    public WeatherHistoryStore(File dir) {
+        this(dir, WeatherHistory.DEFAULT_CAPACITY);
+    }
+
+    WeatherHistoryStore(File dir, int capacity) {
+        this.dir = dir;
+        this.capacity = capacity;
+    }
+
+    public synchronized WeatherHistory historyFor(double lat, double lon) throws IOException {
+        String key = GeoHash.encode(lat, lon);
+        WeatherHistory history = open.get(key);
+        if (history == null) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            history = WeatherHistory.open(new File(dir, key + EXTENSION), capacity);
+            open.put(key, history);
+        }
+        return history;
+    }
+
+    /** Appends the observation to its location's history. Failures are logged, never thrown. */
+    public void record(WeatherSnapshot snapshot) {
+        try {
+            WeatherHistory history = historyFor(snapshot.getLatitude(), snapshot.getLongitude());
+            if (history.append(snapshot)) {
+                history.sync();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -2,50 +2,873 @@ package com.example.climaapp;
 
 import android.os.Handler;
 import android.os.Looper;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 public class WeatherNetworkClient {
 
     private static final String API_KEY = "797e4d8ebe0f188d30df398159ffb418";
-    private static final String BASE_URL = "https://api.openweathermap.org/data/2.5/weather";
+    private static final String API_ROOT = "https://api.openweathermap.org/data/2.5";
+    private static final String WEATHER_PATH = "/weather";
+    private static final String GROUP_PATH = "/group";
+    private static final String FORECAST_PATH = "/forecast";
+    private static final String AIR_POLLUTION_PATH = "/air_pollution";
+
+    // The group endpoint accepts at most this many city IDs per call
+    public static final int MAX_GROUP_SIZE = 20;
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 15_000;
+
+    // How long a composed fetch waits for air quality before showing the weather without it
+    public static final long AIR_QUALITY_DEADLINE_MS = 1_500;
+
+    // Small, bounded pool: a handful of keep-alive connections is all one screen ever needs
+    static final int MAX_REQUEST_THREADS = 4;
+    private static final int MAX_QUEUED_REQUESTS = 32;
+
+    private static final ThreadPoolExecutor REQUEST_EXECUTOR = createRequestExecutor();
+    // Runs both copies of a hedged request while the request thread waits for the first answer
+    private static final ThreadPoolExecutor HEDGE_EXECUTOR = createHedgeExecutor();
+    private static final AtomicInteger HEDGES = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor DEADLINE_TIMER = createDeadlineTimer();
+
+    private static final Function<String, String> RAW_BODY = body -> body;
+    private static final Function<String, WeatherSnapshot> SNAPSHOT = WeatherNetworkClient::parseSnapshot;
+    private static final Function<String, List<WeatherSnapshot>> SNAPSHOT_LIST = WeatherNetworkClient::parseSnapshotList;
+    private static final Function<String, Forecast> FORECAST = WeatherNetworkClient::parseForecast;
+    private static final Function<String, Integer> AIR_QUALITY = WeatherNetworkClient::parseAirQuality;
+
+    // Requests currently on the wire, by cache key, so identical callers share one response
+    private static final ConcurrentHashMap<String, Call> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static volatile String apiRoot = API_ROOT;
+    private static volatile Executor callbackExecutor;
+    private static volatile WeatherCache cache;
+    private static volatile WeatherHistoryStore history;
+    private static volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private static volatile CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private static volatile HedgePolicy hedgePolicy;
+
+    public static void setCache(WeatherCache weatherCache) {
+        cache = weatherCache;
+    }
+
+    /** Every snapshot parsed from here on is also appended to its location's history. */
+    public static void setHistory(WeatherHistoryStore historyStore) {
+        history = historyStore;
+    }
+
+    public static void setRetryPolicy(RetryPolicy policy) {
+        retryPolicy = policy;
+    }
+
+    public static void setCircuitBreaker(CircuitBreaker breaker) {
+        circuitBreaker = breaker;
+    }
+
+    /** Hedge slow requests with a second copy; null (the default) turns hedging off. */
+    public static void setHedgePolicy(HedgePolicy policy) {
+        hedgePolicy = policy;
+    }
 
     public static void fetchWeatherByCoordinates(double lat, double lon, Consumer<String> callback) {
-        String url = BASE_URL + "?lat=" + lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
-        fetchData(url, callback);
+        String url = coordinatesUrl(lat, lon);
+        fetchData(WeatherCache.keyForCoordinates(lat, lon), url, callback);
     }
 
     public static void fetchWeatherByCity(String cityName, Consumer<String> callback) {
-        String url = BASE_URL + "?q=" + cityName + "&appid=" + API_KEY + "&units=metric";
-        fetchData(url, callback);
+        String url = cityUrl(cityName);
+        fetchData(WeatherCache.keyForCity(cityName), url, callback);
     }
 
-    private static void fetchData(String urlString, Consumer<String> callback) {
-        new Thread(() -> {
+    /** Like {@link #fetchWeatherByCoordinates} but parses on the worker thread. */
+    public static void fetchSnapshotByCoordinates(double lat, double lon, Consumer<WeatherSnapshot> callback) {
+        fetchSnapshotByCoordinates(lat, lon, null, callback);
+    }
+
+    /** As above, but the callback is dropped and the request aborted when {@code scope} is cancelled. */
+    public static void fetchSnapshotByCoordinates(double lat, double lon, RequestScope scope,
+                                                  Consumer<WeatherSnapshot> callback) {
+        String url = coordinatesUrl(lat, lon);
+        fetch(WeatherCache.keyForCoordinates(lat, lon), url, SNAPSHOT, scope, callback);
+    }
+
+    public static void fetchSnapshotByCity(String cityName, Consumer<WeatherSnapshot> callback) {
+        fetchSnapshotByCity(cityName, null, callback);
+    }
+
+    public static void fetchSnapshotByCity(String cityName, RequestScope scope, Consumer<WeatherSnapshot> callback) {
+        String url = cityUrl(cityName);
+        fetch(WeatherCache.keyForCity(cityName), url, SNAPSHOT, scope, callback);
+    }
+
+    /**
+     * Fetches current weather and air quality side by side and delivers one snapshot carrying
+     * both, so the screen waits for the slower of the two rather than their sum. Air quality is
+     * optional: once the weather is in, it waits at most until {@code deadlineMs} after this call
+     * for it, then goes out without (see {@link WeatherSnapshot#hasAirQuality()}). The weather
+     * itself is never dropped for being late; null still means it failed.
+     */
+    public static void fetchSnapshotWithAirQuality(double lat, double lon, long deadlineMs, RequestScope scope,
+                                                   Consumer<WeatherSnapshot> callback) {
+        if (scope != null && scope.isCancelled()) return;
+        SnapshotJoin join = new SnapshotJoin(callback, scope);
+        fetchSnapshotByCoordinates(lat, lon, scope, join::onWeather);
+        fetchAirQuality(lat, lon, scope, join::onAirQuality);
+        join.startDeadline(deadlineMs);
+        if (scope != null) {
+            // Cancelling drops the pending deadline, and with it the callback
+            scope.add(join);
+        }
+    }
+
+    /** Delivers the Air Quality Index (1 good to 5 very poor), or null if the fetch failed. */
+    public static void fetchAirQuality(double lat, double lon, RequestScope scope, Consumer<Integer> callback) {
+        String url = apiRoot + AIR_POLLUTION_PATH + "?lat=" + lat + "&lon=" + lon + "&appid=" + API_KEY;
+        fetch("air:" + WeatherCache.keyForCoordinates(lat, lon), url, AIR_QUALITY, scope, callback);
+    }
+
+    /** Fetches current weather for up to {@link #MAX_GROUP_SIZE} cities in one call. */
+    public static void fetchGroup(long[] cityIds, Consumer<List<WeatherSnapshot>> callback) {
+        fetchGroup(cityIds, null, callback);
+    }
+
+    public static void fetchGroup(long[] cityIds, RequestScope scope, Consumer<List<WeatherSnapshot>> callback) {
+        StringBuilder ids = new StringBuilder();
+        for (long id : cityIds) {
+            if (ids.length() > 0) ids.append(',');
+            ids.append(id);
+        }
+        String url = apiRoot + GROUP_PATH + "?id=" + ids + "&appid=" + API_KEY + "&units=metric";
+        fetch("group:" + ids, url, SNAPSHOT_LIST, scope, callback);
+    }
+
+    /** Fetches the 5-day / 3-hour forecast, parsed into columns on the worker thread. */
+    public static void fetchForecastByCoordinates(double lat, double lon, Consumer<Forecast> callback) {
+        fetchForecastByCoordinates(lat, lon, null, callback);
+    }
+
+    public static void fetchForecastByCoordinates(double lat, double lon, RequestScope scope,
+                                                  Consumer<Forecast> callback) {
+        String url = apiRoot + FORECAST_PATH + "?lat=" + lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
+        fetch("forecast:" + WeatherCache.keyForCoordinates(lat, lon), url, FORECAST, scope, callback);
+    }
+
+    public static void fetchForecastByCity(String cityName, Consumer<Forecast> callback) {
+        String url = apiRoot + FORECAST_PATH + "?q=" + encode(cityName) + "&appid=" + API_KEY + "&units=metric";
+        fetch("forecast:" + WeatherCache.keyForCity(cityName), url, FORECAST, null, callback);
+    }
+
+    static void postToCallbackThread(Runnable task) {
+        callbackExecutor().execute(task);
+    }
+
+    private static String coordinatesUrl(double lat, double lon) {
+        return apiRoot + WEATHER_PATH + "?lat=" + lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
+    }
+
+    private static String cityUrl(String cityName) {
+        return apiRoot + WEATHER_PATH + "?q=" + encode(cityName) + "&appid=" + API_KEY + "&units=metric";
+    }
+
+    private static String encode(String queryValue) {
+        try {
+            return URLEncoder.encode(queryValue, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // Every JVM supports UTF-8
+            throw new AssertionError(e);
+        }
+    }
+
+    static void fetchData(String cacheKey, String urlString, Consumer<String> callback) {
+        fetch(cacheKey, urlString, RAW_BODY, null, callback);
+    }
+
+    private static <T> void fetch(String cacheKey, String urlString, Function<String, T> transform,
+                                  RequestScope scope, Consumer<T> callback) {
+        Waiter<T> waiter = new Waiter<>(transform, callback, scope);
+        // In the scope before the call can deliver, so delivery always finds it there to remove
+        if (scope != null && !scope.add(waiter)) return;
+        Call joined;
+        while (true) {
+            Call call = new Call(cacheKey);
+            call.join(waiter);
+            Call existing = IN_FLIGHT.putIfAbsent(cacheKey, call);
+            if (existing == null) {
+                start(call, urlString);
+                joined = call;
+                break;
+            }
+            if (existing.join(waiter)) {
+                joined = existing;
+                break;
+            }
+            // The call we found completed in the meantime; go around and start a new one
+        }
+        if (!waiter.isPending()) {
+            // Cancelled before it had a call to leave; leaving twice is harmless
+            leave(joined, waiter);
+        }
+    }
+
+    private static void start(Call call, String urlString) {
+        try {
+            REQUEST_EXECUTOR.execute(() -> finish(call, load(call, urlString)));
+        } catch (RejectedExecutionException e) {
+            // Queue is full: fail this request instead of growing without bound
+            finish(call, null);
+        }
+    }
+
+    /** Drops one caller; if it was the last, the call is forgotten and its connection closed. */
+    private static void leave(Call call, Waiter<?> waiter) {
+        if (call.leave(waiter)) {
+            IN_FLIGHT.remove(call.key, call);
+            call.abort();
+        }
+    }
+
+    private static void finish(Call call, String body) {
+        IN_FLIGHT.remove(call.key, call);
+        for (Waiter<?> waiter : call.complete()) {
+            waiter.deliver(call, body);
+        }
+    }
+
+    private static String load(Call call, String urlString) {
+        // Everyone left while this was still queued: don't even connect
+        if (call.isAborted()) return null;
+
+        String cacheKey = call.key;
+        WeatherCache weatherCache = cache;
+        WeatherCache.Entry cached = weatherCache != null ? weatherCache.get(cacheKey) : null;
+        if (cached != null && weatherCache.isFresh(cached)) {
+            return cached.body;
+        }
+
+        CircuitBreaker breaker = circuitBreaker;
+        if (!breaker.allowRequest()) {
+            // The upstream is down: don't make the caller wait for it to time out again
+            return cached != null ? cached.body : null;
+        }
+
+        RetryPolicy policy = retryPolicy;
+        for (int attempt = 1; ; attempt++) {
+            long delay;
+            long traceStart = ClimaTrace.begin(ClimaTrace.HTTP);
             try {
-                URL url = new URL(urlString);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
+                HttpResult result = send(call, urlString, cached);
+                breaker.recordSuccess();
+                if (result.code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    weatherCache.revalidated(cacheKey, cached);
+                    return cached.body;
+                }
+                if (weatherCache != null) {
+                    weatherCache.put(cacheKey, result.body, result.etag, result.lastModified);
+                }
+                return result.body;
+            } catch (Exception e) {
+                // Cancelled callers, not a failing upstream: nothing to retry or count
+                if (call.isAborted()) {
+                    breaker.recordCancelled();
+                    return null;
+                }
+                boolean retryable = RetryPolicy.isRetryable(e);
+                delay = retryable && attempt < policy.getMaxAttempts()
+                        ? policy.delayMs(attempt, ThreadLocalRandom.current().nextDouble(), e) : -1;
+                if (delay < 0) {
+                    // A 404 for an unknown city means the upstream is fine; only transient errors count
+                    if (retryable) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                    e.printStackTrace();
+                    // A stale answer beats no answer when the network is down
+                    return cached != null ? cached.body : null;
+                }
+            } finally {
+                ClimaTrace.end(ClimaTrace.HTTP, traceStart);
+            }
+            if (!sleep(delay) || call.isAborted()) {
+                // Left during the backoff: the upstream didn't fail us again, we stopped asking
+                breaker.recordCancelled();
+                return cached != null ? cached.body : null;
+            }
+        }
+    }
 
-                BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static HttpResult send(Call call, String urlString, WeatherCache.Entry validator) throws IOException {
+        HedgePolicy policy = hedgePolicy;
+        if (policy == null) {
+            return httpGet(urlString, validator, call);
+        }
+        long start = System.nanoTime();
+        HttpResult result = hedgedGet(call, urlString, validator, policy.hedgeDelayMs());
+        policy.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
 
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
+    /**
+     * Sends the request and, if no answer came within {@code hedgeDelayMs}, a second copy; returns
+     * the first success. Only safe because every request here is an idempotent GET.
+     */
+    private static HttpResult hedgedGet(Call call, String urlString, WeatherCache.Entry validator, long hedgeDelayMs)
+            throws IOException {
+        if (hedgeDelayMs < 0) {
+            return httpGet(urlString, validator, call);
+        }
+        ExecutorCompletionService<HttpResult> race = new ExecutorCompletionService<>(HEDGE_EXECUTOR);
+        List<HedgeCopy> copies = new ArrayList<>(2);
+        List<Future<HttpResult>> futures = new ArrayList<>(2);
+        try {
+            HedgeCopy copy = new HedgeCopy(call, urlString, validator);
+            futures.add(race.submit(copy));
+            copies.add(copy);
+        } catch (RejectedExecutionException e) {
+            return httpGet(urlString, validator, call);
+        }
+        Future<HttpResult> winner = null;
+        try {
+            Future<HttpResult> first = race.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                try {
+                    HedgeCopy copy = new HedgeCopy(call, urlString, validator);
+                    futures.add(race.submit(copy));
+                    copies.add(copy);
+                    HEDGES.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // No spare thread for a hedge: keep waiting on the original
+                }
+                first = race.take();
+            }
+            try {
+                HttpResult result = outcome(first);
+                winner = first;
+                return result;
+            } catch (IOException e) {
+                if (copies.size() == 1) throw e;
+                // One copy failed; the other may still come through
+                Future<HttpResult> second = race.take();
+                HttpResult result = outcome(second);
+                winner = second;
+                return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + urlString);
+        } finally {
+            // Interrupting doesn't unblock a socket read; closing the loser's socket does, and
+            // frees its thread instead of leaving it to wait out a slow response
+            for (int i = 0; i < futures.size(); i++) {
+                if (futures.get(i) != winner) {
+                    copies.get(i).abort();
                 }
+            }
+        }
+    }
 
-                reader.close();
+    private static HttpResult outcome(Future<HttpResult> copy) throws IOException, InterruptedException {
+        try {
+            return copy.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
 
-                new Handler(Looper.getMainLooper()).post(() -> callback.accept(response.toString()));
+    private static WeatherSnapshot parseSnapshot(String body) {
+        try {
+            WeatherSnapshot snapshot = WeatherDataParser.parse(body);
+            record(snapshot);
+            return snapshot;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            } catch (Exception e) {
-                e.printStackTrace();
-                new Handler(Looper.getMainLooper()).post(() -> callback.accept(null));
+    private static List<WeatherSnapshot> parseSnapshotList(String body) {
+        try {
+            List<WeatherSnapshot> snapshots = WeatherDataParser.parseList(new StringReader(body));
+            for (WeatherSnapshot snapshot : snapshots) {
+                record(snapshot);
             }
-        }).start();
+            return snapshots;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void record(WeatherSnapshot snapshot) {
+        WeatherHistoryStore store = history;
+        if (store != null) {
+            store.record(snapshot);
+        }
+    }
+
+    private static Forecast parseForecast(String body) {
+        try {
+            return WeatherDataParser.parseForecast(new StringReader(body));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Integer parseAirQuality(String body) {
+        try {
+            int index = WeatherDataParser.parseAirQuality(new StringReader(body));
+            return index == WeatherSnapshot.UNKNOWN_AIR_QUALITY ? null : index;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    static HttpResult httpGet(String urlString, WeatherCache.Entry validator) throws IOException {
+        return httpGet(urlString, validator, null);
+    }
+
+    private static HttpResult httpGet(String urlString, WeatherCache.Entry validator, Abortable owner)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(urlString).openConnection();
+        if (owner != null && !owner.attach(connection)) {
+            throw new InterruptedIOException("Aborted before it was sent");
+        }
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        // Setting this ourselves means we also have to unzip ourselves (see readBody)
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (validator != null) {
+            if (validator.etag != null) {
+                connection.setRequestProperty("If-None-Match", validator.etag);
+            }
+            if (validator.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", validator.lastModified);
+            }
+        }
+
+        int code = connection.getResponseCode();
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && validator != null) {
+            return new HttpResult(code, null, null, null);
+        }
+        if (code != HttpURLConnection.HTTP_OK) {
+            // Drain the error body so the socket can still go back to the keep-alive pool
+            InputStream error = connection.getErrorStream();
+            if (error != null) {
+                readBody(error, null);
+            }
+            throw new HttpStatusException(code, connection.getURL().getPath(),
+                    retryAfterMs(connection.getHeaderField("Retry-After")));
+        }
+
+        // No disconnect() on success: reading to EOF and closing returns the connection to the pool
+        String body = readBody(connection.getInputStream(), connection.getContentEncoding());
+        return new HttpResult(code, body, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+    }
+
+    /** Retry-After in its delay-seconds form; the HTTP-date form is rare enough to ignore. */
+    private static long retryAfterMs(String header) {
+        if (header == null) return 0;
+        try {
+            return Math.max(0, Long.parseLong(header.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String readBody(InputStream stream, String contentEncoding) throws IOException {
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(stream) : stream;
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static Executor callbackExecutor() {
+        Executor executor = callbackExecutor;
+        if (executor == null) {
+            synchronized (WeatherNetworkClient.class) {
+                if (callbackExecutor == null) {
+                    callbackExecutor = new MainThreadExecutor();
+                }
+                executor = callbackExecutor;
+            }
+        }
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createRequestExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "weather-request-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_REQUEST_THREADS, MAX_REQUEST_THREADS,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_REQUESTS),
+                factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createHedgeExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "weather-hedge-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Two copies per request thread at most; beyond that a request simply isn't hedged
+        return new ThreadPoolExecutor(0, 2 * MAX_REQUEST_THREADS, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), factory);
+    }
+
+    private static ScheduledThreadPoolExecutor createDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "weather-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most deadlines are cancelled because both answers came in; don't keep them queued
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /** Points requests at {@code root}; null goes back to the real API. */
+    @VisibleForTesting
+    static void setApiRoot(String root) {
+        apiRoot = root != null ? root : API_ROOT;
+    }
+
+    @VisibleForTesting
+    static void setCallbackExecutor(Executor executor) {
+        callbackExecutor = executor;
+    }
+
+    @VisibleForTesting
+    static int hedgeCount() {
+        return HEDGES.get();
+    }
+
+    @VisibleForTesting
+    static int activeRequestCount() {
+        return REQUEST_EXECUTOR.getActiveCount();
+    }
+
+    @VisibleForTesting
+    static int inFlightCount() {
+        return IN_FLIGHT.size();
+    }
+
+    /**
+     * Owns the connections opened on its behalf so another thread can cut them off: closing the
+     * socket is the only way to unblock a thread stuck reading a slow response.
+     */
+    private static class Abortable {
+        private final Abortable parent;
+        private final List<HttpURLConnection> connections = new ArrayList<>(1);
+        private boolean aborted;
+
+        Abortable(Abortable parent) {
+            this.parent = parent;
+        }
+
+        /** Returns false if this was aborted already; the caller must not use the connection. */
+        boolean attach(HttpURLConnection connection) {
+            synchronized (this) {
+                if (aborted) return false;
+                connections.add(connection);
+            }
+            return parent == null || parent.attach(connection);
+        }
+
+        synchronized boolean isAborted() {
+            return aborted;
+        }
+
+        void abort() {
+            List<HttpURLConnection> open;
+            synchronized (this) {
+                aborted = true;
+                open = new ArrayList<>(connections);
+                connections.clear();
+            }
+            for (HttpURLConnection connection : open) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static class Call extends Abortable {
+        final String key;
+        private final List<Waiter<?>> waiters = new ArrayList<>();
+        // Each transform runs once per call, however many callers asked for it
+        private final Map<Function<String, ?>, Object> results = new HashMap<>();
+        private boolean completed;
+
+        Call(String key) {
+            super(null);
+            this.key = key;
+        }
+
+        synchronized boolean join(Waiter<?> waiter) {
+            if (completed) return false;
+            waiters.add(waiter);
+            waiter.call = this;
+            return true;
+        }
+
+        /** Removes the waiter; true if it was the last one, which also closes the call to joiners. */
+        synchronized boolean leave(Waiter<?> waiter) {
+            if (completed || !waiters.remove(waiter)) return false;
+            if (!waiters.isEmpty()) return false;
+            completed = true;
+            return true;
+        }
+
+        synchronized List<Waiter<?>> complete() {
+            completed = true;
+            return new ArrayList<>(waiters);
+        }
+
+        synchronized Object result(Function<String, ?> transform, String body) {
+            if (!results.containsKey(transform)) {
+                results.put(transform, body != null ? transform.apply(body) : null);
+            }
+            return results.get(transform);
+        }
+    }
+
+    private static class Waiter<T> implements RequestScope.Request {
+        final Function<String, T> transform;
+        final RequestScope scope;
+        final ClimaTrace.AsyncSpan traceSpan = ClimaTrace.beginAsync(ClimaTrace.FETCH);
+        // Set by Call.join; cleared callback means cancelled or delivered
+        volatile Call call;
+        private Consumer<T> callback;
+
+        Waiter(Function<String, T> transform, Consumer<T> callback, RequestScope scope) {
+            this.transform = transform;
+            this.callback = callback;
+            this.scope = scope;
+        }
+
+        private synchronized Consumer<T> takeCallback() {
+            Consumer<T> taken = callback;
+            callback = null;
+            return taken;
+        }
+
+        private synchronized boolean isPending() {
+            return callback != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void deliver(Call call, String body) {
+            if (!isPending()) return;
+            T result = (T) call.result(transform, body);
+            callbackExecutor().execute(() -> {
+                // The scope may have been cancelled while this was queued on the main thread
+                Consumer<T> target = takeCallback();
+                if (scope != null) scope.remove(this);
+                if (target == null) return;
+                ClimaTrace.endAsync(traceSpan);
+                target.accept(result);
+            });
+        }
+
+        @Override
+        public void cancel() {
+            if (takeCallback() == null) return;
+            ClimaTrace.endAsync(traceSpan);
+            Call joined = call;
+            if (joined != null) {
+                leave(joined, this);
+            }
+        }
+    }
+
+    /** Waits for the weather and, until the deadline, the air quality; delivers once. */
+    private static class SnapshotJoin implements RequestScope.Request {
+        private final RequestScope scope;
+        private Consumer<WeatherSnapshot> callback;
+        private WeatherSnapshot weather;
+        private boolean weatherDone;
+        private Integer airQuality;
+        private boolean airQualityDone;
+        private boolean deadlinePassed;
+        private boolean delivered;
+        private ScheduledFuture<?> deadline;
+
+        SnapshotJoin(Consumer<WeatherSnapshot> callback, RequestScope scope) {
+            this.callback = callback;
+            this.scope = scope;
+        }
+
+        void startDeadline(long deadlineMs) {
+            synchronized (this) {
+                if (delivered) return;
+                deadline = DEADLINE_TIMER.schedule(this::onDeadline, deadlineMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void onWeather(WeatherSnapshot snapshot) {
+            synchronized (this) {
+                weather = snapshot;
+                weatherDone = true;
+            }
+            deliverIfReady(false);
+        }
+
+        void onAirQuality(Integer index) {
+            synchronized (this) {
+                airQuality = index;
+                airQualityDone = true;
+            }
+            deliverIfReady(false);
+        }
+
+        private void onDeadline() {
+            synchronized (this) {
+                deadlinePassed = true;
+            }
+            deliverIfReady(true);
+        }
+
+        @Override
+        public void cancel() {
+            takeCallback();
+        }
+
+        private synchronized Consumer<WeatherSnapshot> takeCallback() {
+            Consumer<WeatherSnapshot> taken = callback;
+            callback = null;
+            delivered = true;
+            if (deadline != null) deadline.cancel(false);
+            return taken;
+        }
+
+        private void deliverIfReady(boolean fromTimer) {
+            WeatherSnapshot result;
+            synchronized (this) {
+                // A failed weather fetch has nothing to wait for
+                boolean ready = weatherDone && (weather == null || airQualityDone || deadlinePassed);
+                if (delivered || !ready) return;
+                result = weather != null && airQuality != null ? weather.withAirQuality(airQuality) : weather;
+            }
+            if (fromTimer) {
+                // The other two paths already run on the callback thread
+                postToCallbackThread(() -> deliver(result));
+            } else {
+                deliver(result);
+            }
+        }
+
+        private void deliver(WeatherSnapshot result) {
+            // The scope may have been cancelled while this was queued on the main thread
+            Consumer<WeatherSnapshot> target = takeCallback();
+            if (scope != null) scope.remove(this);
+            if (target != null) target.accept(result);
+        }
+    }
+
+    /** One copy of a hedged request; the winner cuts the other off by aborting it. */
+    private static class HedgeCopy extends Abortable implements Callable<HttpResult> {
+        private final String urlString;
+        private final WeatherCache.Entry validator;
+
+        HedgeCopy(Call call, String urlString, WeatherCache.Entry validator) {
+            super(call);
+            this.urlString = urlString;
+            this.validator = validator;
+        }
+
+        @Override
+        public HttpResult call() throws IOException {
+            return httpGet(urlString, validator, this);
+        }
+    }
+
+    static class HttpResult {
+        final int code;
+        final String body;
+        final String etag;
+        final String lastModified;
+
+        HttpResult(int code, String body, String etag, String lastModified) {
+            this.code = code;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
     }
 }
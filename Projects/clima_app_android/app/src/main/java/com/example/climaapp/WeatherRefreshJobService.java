@@ -0,0 +1,90 @@
+package com.example.climaapp;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically refreshes the stored snapshot so the next launch opens on recent data, and checks
+ * the user's alert rules against it and against any favorite cities they watch.
+ */
+public class WeatherRefreshJobService extends JobService {
+
+    private static final int JOB_ID = 1001;
+    private static final long REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(30);
+
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null || scheduler.getPendingJob(JOB_ID) != null) return;
+
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, WeatherRefreshJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setPeriodic(REFRESH_INTERVAL_MS)
+                .build();
+        scheduler.schedule(job);
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        new WeatherRefresher(new WeatherSnapshotStore(this)).refresh(snapshot ->
+                checkAlerts(snapshot, () -> jobFinished(params, false)));
+        return true;
+    }
+
+    private void checkAlerts(WeatherSnapshot current, Runnable done) {
+        AlertRuleStore ruleStore = new AlertRuleStore(this);
+        AlertEngine engine = ruleStore.engine();
+        if (engine.ruleCount() == 0) {
+            done.run();
+            return;
+        }
+
+        List<AlertEngine.Alert> alerts = new ArrayList<>();
+        if (current != null) {
+            alerts.addAll(engine.evaluate(current, System.currentTimeMillis()));
+        }
+        // Favorites with rules of their own get a reading too, batched through the group endpoint
+        List<FavoriteCity> watched = new ArrayList<>();
+        for (FavoriteCity city : new FavoritesStore(this).load()) {
+            boolean isCurrent = current != null && city.getCityId() == current.getCityId();
+            if (city.hasCityId() && engine.watches(city.getCityId()) && !isCurrent) {
+                watched.add(city);
+            }
+        }
+        Runnable notify = () -> {
+            ruleStore.saveState(engine);
+            new AlertNotifier(this).show(alerts);
+            done.run();
+        };
+        if (watched.isEmpty()) {
+            notify.run();
+            return;
+        }
+        new FavoritesFetcher().refresh(watched, new FavoritesFetcher.Listener() {
+            @Override
+            public void onCityResult(FavoriteCity city, WeatherSnapshot snapshot) {
+                if (snapshot != null) {
+                    alerts.addAll(engine.evaluate(snapshot, System.currentTimeMillis()));
+                }
+            }
+
+            @Override
+            public void onComplete(int succeeded, int failed) {
+                notify.run();
+            }
+        });
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // The request pool finishes on its own; just ask to run again next period
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.climaapp;
+
+import java.util.function.Consumer;
+
+/**
+ * Re-fetches weather for the last known location and stores the result. Used by the background
+ * job and by {@link WeatherActivity} when it was opened from a cached snapshot.
+ */
+public class WeatherRefresher {
+
+    public interface SnapshotFetcher {
+        void fetch(double lat, double lon, Consumer<WeatherSnapshot> callback);
+    }
+
+    private final WeatherSnapshotStore store;
+    private final SnapshotFetcher fetcher;
+
+    public WeatherRefresher(WeatherSnapshotStore store) {
+        this(store, (RequestScope) null);
+    }
+
+    /** Fetches in {@code scope}, so a screen going away drops the callbacks (and skips the save). */
+    public WeatherRefresher(WeatherSnapshotStore store, RequestScope scope) {
+        this(store, (lat, lon, callback) -> WeatherNetworkClient.fetchSnapshotWithAirQuality(
+                lat, lon, WeatherNetworkClient.AIR_QUALITY_DEADLINE_MS, scope, callback));
+    }
+
+    WeatherRefresher(WeatherSnapshotStore store, SnapshotFetcher fetcher) {
+        this.store = store;
+        this.fetcher = fetcher;
+    }
+
+    /** Refreshes the stored location; delivers null if there is nothing stored or the fetch failed. */
+    public void refresh(Consumer<WeatherSnapshot> callback) {
+        WeatherSnapshot latest = store.load();
+        if (latest == null) {
+            callback.accept(null);
+            return;
+        }
+        refresh(latest.getLatitude(), latest.getLongitude(), callback);
+    }
+
+    public void refresh(double lat, double lon, Consumer<WeatherSnapshot> callback) {
+        fetcher.fetch(lat, lon, snapshot -> {
+            if (snapshot != null) {
+                store.save(snapshot);
+            }
+            callback.accept(snapshot);
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.climaapp;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+public final class WeatherSnapshot implements Parcelable {
+
+    public static final int UNKNOWN_CONDITION = -1;
+    // The air pollution API rates air from 1 (good) to 5 (very poor); 0 means we don't know
+    public static final int UNKNOWN_AIR_QUALITY = 0;
+
+    private static final String[] AIR_QUALITY_DESCRIPTIONS = {"Good", "Fair", "Moderate", "Poor", "Very poor"};
+
+    private static final byte NIGHT_UNKNOWN = 0;
+    private static final byte NIGHT_NO = 1;
+    private static final byte NIGHT_YES = 2;
+
+    private final long cityId;
+    private final String cityName;
+    private final double latitude;
+    private final double longitude;
+    private final double temperature;
+    private final int conditionId;
+    private final long timestamp;
+    private final int airQualityIndex;
+    // Worked out on first use; a race only means computing the same answer twice
+    private byte night = NIGHT_UNKNOWN;
+
+    public WeatherSnapshot(long cityId, String cityName, double latitude, double longitude,
+                           double temperature, int conditionId, long timestamp) {
+        this(cityId, cityName, latitude, longitude, temperature, conditionId, timestamp, UNKNOWN_AIR_QUALITY);
+    }
+
+    public WeatherSnapshot(long cityId, String cityName, double latitude, double longitude,
+                           double temperature, int conditionId, long timestamp, int airQualityIndex) {
+        this.cityId = cityId;
+        this.cityName = cityName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.temperature = temperature;
+        this.conditionId = conditionId;
+        this.timestamp = timestamp;
+        this.airQualityIndex = airQualityIndex;
+    }
+
+    /** The same reading under another name, e.g. when the API returns none for remote spots. */
+    public WeatherSnapshot withCityName(String name) {
+        return new WeatherSnapshot(cityId, name, latitude, longitude, temperature, conditionId, timestamp,
+                airQualityIndex);
+    }
+
+    /** The same reading with the air quality measured at the same spot. */
+    public WeatherSnapshot withAirQuality(int index) {
+        return new WeatherSnapshot(cityId, cityName, latitude, longitude, temperature, conditionId, timestamp, index);
+    }
+
+    private WeatherSnapshot(Parcel in) {
+        cityId = in.readLong();
+        cityName = in.readString();
+        latitude = in.readDouble();
+        longitude = in.readDouble();
+        temperature = in.readDouble();
+        conditionId = in.readInt();
+        timestamp = in.readLong();
+        airQualityIndex = in.readInt();
+    }
+
+    public static final Creator<WeatherSnapshot> CREATOR = new Creator<WeatherSnapshot>() {
+        @Override
+        public WeatherSnapshot createFromParcel(Parcel in) {
+            return new WeatherSnapshot(in);
+        }
+
+        @Override
+        public WeatherSnapshot[] newArray(int size) {
+            return new WeatherSnapshot[size];
+        }
+    };
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeLong(cityId);
+        dest.writeString(cityName);
+        dest.writeDouble(latitude);
+        dest.writeDouble(longitude);
+        dest.writeDouble(temperature);
+        dest.writeInt(conditionId);
+        dest.writeLong(timestamp);
+        dest.writeInt(airQualityIndex);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public long getCityId() {
+        return cityId;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public int getRoundedTemperature() {
+        return (int) Math.round(temperature);
+    }
+
+    public int getConditionId() {
+        return conditionId;
+    }
+
+    /** Observation time in seconds since the epoch, as reported by the API ({@code dt}). */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /** Air Quality Index from 1 (good) to 5 (very poor), or {@link #UNKNOWN_AIR_QUALITY}. */
+    public int getAirQualityIndex() {
+        return airQualityIndex;
+    }
+
+    public boolean hasAirQuality() {
+        return airQualityIndex >= 1 && airQualityIndex <= AIR_QUALITY_DESCRIPTIONS.length;
+    }
+
+    public String getAirQualityDescription() {
+        return describeAirQuality(airQualityIndex);
+    }
+
+    public static String describeAirQuality(int index) {
+        if (index < 1 || index > AIR_QUALITY_DESCRIPTIONS.length) return "Unknown";
+        return AIR_QUALITY_DESCRIPTIONS[index - 1];
+    }
+
+    public int getWeatherIcon() {
+        if (conditionId == UNKNOWN_CONDITION) {
+            return R.drawable.default_weather;
+        }
+        return WeatherIconMapper.getIconResource(conditionId, isNight());
+    }
+
+    /**
+     * Whether the sun was down here when the reading was taken, worked out on the device once per
+     * snapshot: the icon asks on every redraw.
+     */
+    public boolean isNight() {
+        if (night == NIGHT_UNKNOWN) {
+            boolean isNight = timestamp != 0 && !SolarCalculator.isDaytime(latitude, longitude, timestamp);
+            night = isNight ? NIGHT_YES : NIGHT_NO;
+        }
+        return night == NIGHT_YES;
+    }
+
+    public String getMessage() {
+        int temp = getRoundedTemperature();
+        if (temp > 25) return "It’s 🍦 time";
+        else if (temp > 20) return "Time for shorts and 👕";
+        else if (temp < 10) return "You’ll need 🧣 and 🧤";
+        else return "Bring a 🧥 just in case";
+    }
+}
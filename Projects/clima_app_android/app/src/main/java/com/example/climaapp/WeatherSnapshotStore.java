@@ -0,0 +1,103 @@
+package com.example.climaapp;
+
+import android.content.Context;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the most recent snapshot for the device's location on disk, so the next launch can show
+ * it straight away while a fresh one is fetched.
+ */
+public class WeatherSnapshotStore {
+
+    private static final String FILE_NAME = "latest_snapshot";
+    private static final int FORMAT_VERSION = 2;
+
+    /** Older than this, a stored snapshot would pass for current weather when it isn't. */
+    public static final long MAX_SHOWN_AGE_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final ExecutorService IO_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+
+    public WeatherSnapshotStore(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    WeatherSnapshotStore(File file) {
+        this.file = file;
+    }
+
+    public WeatherSnapshot load() {
+        if (!file.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            return new WeatherSnapshot(in.readLong(), in.readUTF(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readInt(), in.readLong(), in.readInt());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The stored snapshot if it is at most {@link #MAX_SHOWN_AGE_MS} old at {@code nowMillis},
+     * going by when the reading was taken (or saved, for readings without a time), else null.
+     */
+    public WeatherSnapshot loadRecent(long nowMillis) {
+        WeatherSnapshot snapshot = load();
+        if (snapshot == null) return null;
+        long takenAt = snapshot.getTimestamp() > 0
+                ? TimeUnit.SECONDS.toMillis(snapshot.getTimestamp())
+                : file.lastModified();
+        return nowMillis - takenAt <= MAX_SHOWN_AGE_MS ? snapshot : null;
+    }
+
+    /**
+     * {@link #loadRecent(long)} on a background thread, delivered on the main thread. Nothing is
+     * delivered once {@code scope} is cancelled.
+     */
+    public void loadRecent(long nowMillis, RequestScope scope, Consumer<WeatherSnapshot> callback) {
+        if (scope.isCancelled()) return;
+        Consumer<WeatherSnapshot> bound = scope.bind(callback);
+        IO_EXECUTOR.execute(() -> {
+            WeatherSnapshot snapshot = loadRecent(nowMillis);
+            WeatherNetworkClient.postToCallbackThread(() -> bound.accept(snapshot));
+        });
+    }
+
+    public boolean save(WeatherSnapshot snapshot) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.getCityId());
+            out.writeUTF(snapshot.getCityName());
+            out.writeDouble(snapshot.getLatitude());
+            out.writeDouble(snapshot.getLongitude());
+            out.writeDouble(snapshot.getTemperature());
+            out.writeInt(snapshot.getConditionId());
+            out.writeLong(snapshot.getTimestamp());
+            out.writeInt(snapshot.getAirQualityIndex());
+        } catch (IOException e) {
+            temp.delete();
+            return false;
+        }
+        // Rename is atomic, so a crash mid-write never leaves a half-written snapshot behind
+        return temp.renameTo(file);
+    }
+}
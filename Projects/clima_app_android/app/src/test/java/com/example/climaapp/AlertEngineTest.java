@@ -0,0 +1,218 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AlertEngineTest {
+
+    private static final long MONTREAL = 6077243;
+    private static final long TORONTO = 6167865;
+    private static final long HOUR = 3_600_000;
+
+    private static WeatherSnapshot reading(long cityId, double temperature, int conditionId) {
+        return new WeatherSnapshot(cityId, "Montreal", 45.5, -73.6, temperature, conditionId, 0);
+    }
+
+    private static List<Long> firedIds(List<AlertEngine.Alert> alerts) {
+        List<Long> ids = new ArrayList<>();
+        for (AlertEngine.Alert alert : alerts) {
+            ids.add(alert.getRule().getId());
+        }
+        return ids;
+    }
+
+    private static AlertEngine engine(AlertRule... rules) {
+        return new AlertEngine(Arrays.asList(rules), 3 * HOUR);
+    }
+
+    @Test
+    public void testFirstReading_firesRulesThatAlreadyHold() {
+        AlertEngine engine = engine(
+                AlertRule.temperatureAbove(1, MONTREAL, 20),
+                AlertRule.temperatureAbove(2, MONTREAL, 30),
+                AlertRule.temperatureBelow(3, MONTREAL, 25),
+                AlertRule.temperatureBelow(4, MONTREAL, 0));
+
+        assertEquals(Arrays.asList(1L, 3L), firedIds(engine.evaluate(reading(MONTREAL, 22, 800), 0)));
+    }
+
+    @Test
+    public void testCrossings_fireOnlyWhenStateFlips() {
+        AlertEngine engine = engine(
+                AlertRule.temperatureAbove(1, MONTREAL, 30),
+                AlertRule.temperatureAbove(2, MONTREAL, 35),
+                AlertRule.temperatureBelow(3, MONTREAL, 0));
+        engine.evaluate(reading(MONTREAL, 20, 800), 0);
+
+        assertEquals(Arrays.asList(1L), firedIds(engine.evaluate(reading(MONTREAL, 31, 800), HOUR)));
+        // Still above 30: nothing new
+        assertTrue(engine.evaluate(reading(MONTREAL, 33, 800), 2 * HOUR).isEmpty());
+        assertEquals(Arrays.asList(2L), firedIds(engine.evaluate(reading(MONTREAL, 36, 800), 3 * HOUR)));
+        // Exactly at a threshold is not above it
+        assertTrue(engine.evaluate(reading(MONTREAL, 30, 800), 4 * HOUR).isEmpty());
+        assertEquals(Arrays.asList(3L), firedIds(engine.evaluate(reading(MONTREAL, -1, 800), 5 * HOUR)));
+    }
+
+    @Test
+    public void testThunderstorm_firesWhenStormStarts() {
+        AlertEngine engine = engine(AlertRule.thunderstorm(7, MONTREAL));
+        engine.evaluate(reading(MONTREAL, 20, 800), 0);
+
+        List<AlertEngine.Alert> alerts = engine.evaluate(reading(MONTREAL, 20, 211), HOUR);
+        assertEquals(Arrays.asList(7L), firedIds(alerts));
+        assertTrue(alerts.get(0).getMessage().contains("thunderstorm"));
+        assertTrue(engine.evaluate(reading(MONTREAL, 20, 202), 2 * HOUR).isEmpty());
+        // Heavy rain is not a thunderstorm
+        assertTrue(engine.evaluate(reading(MONTREAL, 20, 502), 3 * HOUR).isEmpty());
+        assertEquals(Arrays.asList(7L), firedIds(engine.evaluate(reading(MONTREAL, 20, 200), 6 * HOUR)));
+    }
+
+    @Test
+    public void testDebounce_quietsFlappingRule() {
+        AlertEngine engine = engine(AlertRule.temperatureAbove(1, MONTREAL, 30));
+        engine.evaluate(reading(MONTREAL, 29.9, 800), 0);
+
+        int fired = 0;
+        for (int i = 1; i <= 10; i++) {
+            double temperature = i % 2 == 1 ? 30.1 : 29.9;
+            fired += engine.evaluate(reading(MONTREAL, temperature, 800), i * HOUR / 10).size();
+        }
+        assertEquals(1, fired);
+
+        engine.evaluate(reading(MONTREAL, 29.9, 800), 3 * HOUR);
+        assertEquals(1, engine.evaluate(reading(MONTREAL, 30.1, 800), 4 * HOUR).size());
+    }
+
+    @Test
+    public void testOtherCities_areIgnored() {
+        AlertEngine engine = engine(AlertRule.temperatureAbove(1, MONTREAL, 30));
+
+        assertTrue(engine.evaluate(reading(TORONTO, 40, 211), 0).isEmpty());
+        assertTrue(engine.watches(MONTREAL));
+        assertFalse(engine.watches(TORONTO));
+    }
+
+    @Test
+    public void testUnchangedReading_checksNoRules() {
+        AlertEngine engine = engine(
+                AlertRule.temperatureAbove(1, MONTREAL, 30),
+                AlertRule.temperatureBelow(2, MONTREAL, 0),
+                AlertRule.thunderstorm(3, MONTREAL));
+        engine.evaluate(reading(MONTREAL, 20, 800), 0);
+        long checked = engine.checkedCount();
+
+        engine.evaluate(reading(MONTREAL, 20, 800), HOUR);
+        engine.evaluate(reading(MONTREAL, 25, 801), 2 * HOUR);
+
+        assertEquals(checked, engine.checkedCount());
+    }
+
+    @Test
+    public void testState_survivesRestart() {
+        List<AlertRule> rules = Arrays.asList(
+                AlertRule.temperatureAbove(1, MONTREAL, 30),
+                AlertRule.thunderstorm(2, MONTREAL));
+        AlertEngine before = new AlertEngine(rules, 3 * HOUR);
+        before.evaluate(reading(MONTREAL, 31, 211), 0);
+
+        AlertEngine after = new AlertEngine(rules, 3 * HOUR);
+        after.restoreState(before.saveState() + "garbage|line\n");
+
+        // Same reading in a new process: nothing crossed, nothing fires
+        assertTrue(after.evaluate(reading(MONTREAL, 31, 211), HOUR).isEmpty());
+        // A real crossing within the debounce period stays quiet as well
+        after.evaluate(reading(MONTREAL, 29, 800), HOUR);
+        assertTrue(after.evaluate(reading(MONTREAL, 31, 800), 2 * HOUR).isEmpty());
+    }
+
+    @Test
+    public void testEvaluate_thousandsOfRulesPerRefresh() {
+        int citiesCount = 100;
+        int rulesPerCity = 100;
+        Random random = new Random(7);
+        List<AlertRule> rules = new ArrayList<>();
+        for (int city = 0; city < citiesCount; city++) {
+            for (int r = 0; r < rulesPerCity; r++) {
+                long id = (long) city * rulesPerCity + r;
+                if (r % 10 == 0) {
+                    rules.add(AlertRule.thunderstorm(id, city));
+                } else if (r % 2 == 0) {
+                    rules.add(AlertRule.temperatureAbove(id, city, -20 + random.nextInt(60)));
+                } else {
+                    rules.add(AlertRule.temperatureBelow(id, city, -20 + random.nextInt(60)));
+                }
+            }
+        }
+
+        // Each city drifts a few tenths of a degree per refresh, with the odd storm
+        int readingsCount = 200_000;
+        WeatherSnapshot[] readings = new WeatherSnapshot[readingsCount];
+        double[] temperatures = new double[citiesCount];
+        for (int i = 0; i < readingsCount; i++) {
+            int city = i % citiesCount;
+            temperatures[city] += random.nextGaussian() * 0.3;
+            int condition = random.nextInt(50) == 0 ? 211 : 800;
+            readings[i] = reading(city, 10 + temperatures[city], condition);
+        }
+
+        AlertEngine engine = new AlertEngine(rules, 0);
+        NaiveRules naive = new NaiveRules(rules);
+        int warmUp = readingsCount / 4;
+        for (int i = 0; i < warmUp; i++) {
+            engine.evaluate(readings[i], i);
+            naive.evaluate(readings[i]);
+        }
+
+        long checkedBefore = engine.checkedCount();
+        int fired = 0;
+        long start = System.nanoTime();
+        for (int i = warmUp; i < readingsCount; i++) {
+            fired += engine.evaluate(readings[i], i).size();
+        }
+        long engineNanos = (System.nanoTime() - start) / (readingsCount - warmUp);
+        long checked = engine.checkedCount() - checkedBefore;
+
+        int naiveFired = 0;
+        start = System.nanoTime();
+        for (int i = warmUp; i < readingsCount; i++) {
+            naiveFired += naive.evaluate(readings[i]);
+        }
+        long naiveNanos = (System.nanoTime() - start) / (readingsCount - warmUp);
+
+        BenchmarkReport.print("alert rules, " + rules.size() + " rules: incremental " + engineNanos + " ns/reading ("
+                + String.format("%.2f", (double) checked / (readingsCount - warmUp)) + " rules touched), check-every-rule " + naiveNanos
+                + " ns/reading, " + fired + " alerts");
+        // Without debouncing both fire on exactly the same flips
+        assertEquals(naiveFired, fired);
+        assertTrue(engineNanos < naiveNanos);
+    }
+
+    /** Re-checks every rule of the reading's city and compares against its last state. */
+    private static class NaiveRules {
+        private final List<AlertRule> rules;
+        private final boolean[] held;
+
+        NaiveRules(List<AlertRule> rules) {
+            this.rules = rules;
+            this.held = new boolean[rules.size()];
+        }
+
+        int evaluate(WeatherSnapshot snapshot) {
+            int fired = 0;
+            for (int i = 0; i < rules.size(); i++) {
+                AlertRule rule = rules.get(i);
+                if (rule.getCityId() != snapshot.getCityId()) continue;
+                boolean holds = rule.matches(snapshot);
+                if (holds && !held[i]) fired++;
+                held[i] = holds;
+            }
+            return fired;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.climaapp;
+
+import org.junit.Assume;
+
+import java.io.PrintStream;
+
+/**
+ * Where the benchmark tests put their numbers. Normal test runs stay quiet; pass
+ * {@code -Pclima.benchmark.report=true} to Gradle to print them. The same flag lets the runs too
+ * heavy for every build go ahead; without it they are skipped.
+ */
+final class BenchmarkReport {
+
+    static final boolean ENABLED = Boolean.getBoolean("clima.benchmark.report");
+
+    private BenchmarkReport() {
+    }
+
+    /** Skips the calling test unless benchmarks were asked for. */
+    static void assumeEnabled() {
+        Assume.assumeTrue("Benchmark runs need -Pclima.benchmark.report=true", ENABLED);
+    }
+
+    static void print(String line) {
+        print(line, ENABLED, System.out);
+    }
+
+    static void print(String line, boolean enabled, PrintStream out) {
+        if (enabled) {
+            out.println(line);
+        }
+    }
+}
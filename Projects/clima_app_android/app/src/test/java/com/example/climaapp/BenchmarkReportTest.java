@@ -0,0 +1,30 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class BenchmarkReportTest {
+
+    private static String printed(boolean enabled) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            BenchmarkReport.print("parse: 12 us", enabled, out);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPrint_withFlagOnWritesTheLine() throws Exception {
+        assertEquals("parse: 12 us" + System.lineSeparator(), printed(true));
+    }
+
+    @Test
+    public void testPrint_withFlagOffStaysQuiet() throws Exception {
+        assertEquals("", printed(false));
+    }
+}
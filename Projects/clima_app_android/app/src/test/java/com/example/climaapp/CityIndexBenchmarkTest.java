@@ -0,0 +1,110 @@
+package com.example.climaapp;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefix lookups over 200k synthetic city names: latency percentiles, and the heap the mapped
+ * index needs compared with the same list held as a TreeMap of objects.
+ */
+public class CityIndexBenchmarkTest {
+
+    private static final int CITIES = 200_000;
+    private static final int QUERIES = 20_000;
+    private static final String[] SYLLABLES = {
+            "ba", "ber", "ca", "del", "do", "fa", "gan", "hal", "ka", "lin", "ma", "mont", "na", "o",
+            "par", "ri", "san", "sha", "to", "val", "vil", "wes", "yo", "zu"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<CityIndex.City> syntheticCities(Random random) {
+        List<CityIndex.City> cities = new ArrayList<>(CITIES);
+        for (int i = 0; i < CITIES; i++) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            cities.add(new CityIndex.City(name.toString(), "XX", random.nextDouble() * 180 - 90,
+                    random.nextDouble() * 360 - 180, random.nextInt(5_000_000)));
+        }
+        return cities;
+    }
+
+    @Test
+    public void testLookupLatencyAndFootprint_200kCities() throws IOException {
+        Random random = new Random(11);
+        List<CityIndex.City> cities = syntheticCities(random);
+        File file = folder.newFile("cities.idx");
+
+        long start = System.nanoTime();
+        CityIndex.write(cities, file);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long allocatedBefore = WeatherDataParserBenchmarkTest.allocatedBytes();
+        CityIndex index = CityIndex.open(file);
+        long indexHeapBytes = WeatherDataParserBenchmarkTest.allocatedBytes() - allocatedBefore;
+
+        String[] keys = new String[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            keys[i] = WeatherCache.normalizeCityName(cities.get(i).getName());
+        }
+        allocatedBefore = WeatherDataParserBenchmarkTest.allocatedBytes();
+        Map<String, List<CityIndex.City>> naive = new TreeMap<>();
+        for (int i = 0; i < CITIES; i++) {
+            CityIndex.City city = cities.get(i);
+            String key = new String(keys[i]);
+            List<CityIndex.City> sameName = naive.get(key);
+            if (sameName == null) naive.put(key, sameName = new ArrayList<>(1));
+            sameName.add(new CityIndex.City(city.getName(), city.getCountry(), city.getLatitude(),
+                    city.getLongitude(), city.getPopulation()));
+        }
+        long naiveHeapBytes = WeatherDataParserBenchmarkTest.allocatedBytes() - allocatedBefore;
+
+        String[] prefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = cities.get(random.nextInt(CITIES)).getName();
+            prefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(6, name.length())));
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            index.search(prefixes[i], CitySuggester.DEFAULT_LIMIT);
+        }
+
+        long[] latencies = new long[QUERIES];
+        int results = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long queryStart = System.nanoTime();
+            results += index.search(prefixes[i], CitySuggester.DEFAULT_LIMIT).size();
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+
+        BenchmarkReport.print("city index, " + CITIES + " cities: file " + file.length() / 1024 + " KB, built in "
+                + buildMillis + " ms; heap to open " + indexHeapBytes + " B vs TreeMap " + naiveHeapBytes / 1024
+                + " KB; lookup p50 " + latencies[QUERIES / 2] / 1000 + " us, p99 "
+                + latencies[QUERIES * 99 / 100] / 1000 + " us");
+        assertEquals(CITIES, index.size());
+        // Every prefix was cut from a real name, so each query finds at least that city
+        assertTrue(results >= QUERIES);
+        assertFalse(naive.isEmpty());
+        // Lookup times are only reported: on a shared CI machine any bound is either loose or flaky
+        Assume.assumeTrue("Thread allocation counter unavailable", indexHeapBytes > 0);
+        assertTrue(indexHeapBytes * 100 < naiveHeapBytes);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.climaapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CityIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CityIndex bundledIndex() throws IOException {
+        // Unit tests run from the module directory under Gradle, from the project root elsewhere
+        File csv = new File("src/main/assets/cities.csv");
+        if (!csv.exists()) csv = new File("app/src/main/assets/cities.csv");
+        try (Reader reader = new InputStreamReader(new FileInputStream(csv), StandardCharsets.UTF_8)) {
+            File file = folder.newFile("cities.idx");
+            CityIndex.write(CityIndex.readCsv(reader), file);
+            return CityIndex.open(file);
+        }
+    }
+
+    private CityIndex index(CityIndex.City... cities) throws IOException {
+        File file = folder.newFile();
+        CityIndex.write(Arrays.asList(cities), file);
+        return CityIndex.open(file);
+    }
+
+    private static List<String> names(List<CityIndex.City> cities) {
+        List<String> names = new ArrayList<>();
+        for (CityIndex.City city : cities) {
+            names.add(city.toString());
+        }
+        return names;
+    }
+
+    @Test
+    public void testSearch_bundledListIgnoresAccentsAndCase() throws IOException {
+        CityIndex index = bundledIndex();
+
+        assertEquals("Montréal, CA", index.search("mont", 5).get(0).toString());
+        assertEquals("São Paulo, BR", index.search("SAO P", 5).get(0).toString());
+        assertEquals(Arrays.asList("London, GB", "London, CA"), names(index.search("london", 5)));
+        assertEquals(46.8139, index.findExact("quebec").getLatitude(), 1e-4);
+    }
+
+    @Test
+    public void testSearch_returnsMostPopulousMatchesFirst() throws IOException {
+        CityIndex index = index(
+                new CityIndex.City("Springfield", "US", 39.8, -89.6, 114_394),
+                new CityIndex.City("Spring", "US", 30.1, -95.4, 62_559),
+                new CityIndex.City("Springfield", "US", 37.2, -93.3, 169_176),
+                new CityIndex.City("Split", "HR", 43.5, 16.4, 178_102),
+                new CityIndex.City("Sparta", "GR", 37.1, 22.4, 35_259));
+
+        assertEquals(Arrays.asList("Split, HR", "Springfield, US", "Springfield, US", "Spring, US"),
+                names(index.search("sp", 4)));
+        assertEquals(169_176, index.search("springf", 1).get(0).getPopulation());
+        assertEquals(169_176, index.findExact("Springfield").getPopulation());
+        assertNull(index.findExact("Spr"));
+    }
+
+    @Test
+    public void testSearch_emptyOrUnknownPrefixFindsNothing() throws IOException {
+        CityIndex index = bundledIndex();
+
+        assertTrue(index.search("", 5).isEmpty());
+        assertTrue(index.search("   ", 5).isEmpty());
+        assertTrue(index.search("zzzz", 5).isEmpty());
+        assertTrue(index.search("mont", 0).isEmpty());
+    }
+
+    @Test
+    public void testSuggester_debouncesToLatestQuery() throws Exception {
+        CityIndex index = bundledIndex();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger loads = new AtomicInteger();
+        try {
+            CitySuggester suggester = new CitySuggester(() -> {
+                loads.incrementAndGet();
+                return index;
+            }, scheduler, Runnable::run, 100, 3);
+            List<List<CityIndex.City>> delivered = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(1);
+
+            for (String typed : new String[]{"t", "to", "tor", "toro"}) {
+                suggester.query(typed, cities -> {
+                    delivered.add(cities);
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(1, delivered.size());
+            assertEquals("Toronto", delivered.get(0).get(0).getName());
+            assertEquals(1, loads.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSuggester_cancelDropsPendingQuery() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CitySuggester suggester = new CitySuggester(() -> null, scheduler, Runnable::run, 50, 3);
+            AtomicInteger delivered = new AtomicInteger();
+
+            suggester.query("par", cities -> delivered.incrementAndGet());
+            suggester.cancel();
+
+            Thread.sleep(200);
+            assertEquals(0, delivered.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
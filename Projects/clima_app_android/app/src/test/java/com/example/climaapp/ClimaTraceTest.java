@@ -0,0 +1,131 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ClimaTraceTest {
+
+    private StubWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+        ClimaTrace.recorder().clear();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testLocationMetrics_recordFirstAndBestFix() {
+        ClimaTrace.recordLocationMetrics(1_000_000_000L, new LocationStrategy.Metrics(120, 2_400, false, 3));
+        ClimaTrace.recordLocationMetrics(2_000_000_000L, new LocationStrategy.Metrics(0, 0, true, 1));
+        ClimaTrace.recordLocationMetrics(3_000_000_000L, new LocationStrategy.Metrics(-1, -1, false, 0));
+
+        TraceRecorder recorder = ClimaTrace.recorder();
+        assertArrayEquals(new double[]{120}, recorder.durationsMillis(ClimaTrace.LOCATION_FIRST_FIX), 0);
+        assertArrayEquals(new double[]{0}, recorder.durationsMillis(ClimaTrace.LOCATION_FIRST_FIX_CACHED), 0);
+        assertArrayEquals(new double[]{0, 2_400}, recorder.durationsMillis(ClimaTrace.LOCATION_BEST_FIX), 0);
+    }
+
+    @Test
+    public void testRecorder_wrapsAroundKeepingNewestSpans() {
+        TraceRecorder recorder = new TraceRecorder(4);
+        for (int i = 1; i <= 6; i++) {
+            recorder.record("span", i * 1_000_000L, i * 1_000_000L);
+        }
+
+        assertEquals(4, recorder.size());
+        assertEquals(4, recorder.count("span"));
+        assertArrayEquals(new double[]{3, 4, 5, 6}, recorder.durationsMillis("span"), 0);
+        assertEquals(3_000_000L, recorder.firstStartNanos("span"));
+    }
+
+    @Test
+    public void testRecorder_percentilesUseNearestRank() {
+        TraceRecorder recorder = new TraceRecorder(128);
+        for (int i = 100; i >= 1; i--) {
+            recorder.record("parse", 0, i * 1_000_000L);
+        }
+
+        assertEquals(50, recorder.percentileMillis("parse", 50), 0);
+        assertEquals(99, recorder.percentileMillis("parse", 99), 0);
+        assertEquals(100, recorder.percentileMillis("parse", 100), 0);
+        assertEquals(-1, recorder.percentileMillis("missing", 50), 0);
+    }
+
+    @Test
+    public void testTimeToWeather_measuresAppStartToFirstRender() {
+        assertEquals(-1, ClimaTrace.timeToWeatherMillis(), 0);
+
+        TraceRecorder recorder = ClimaTrace.recorder();
+        recorder.record(ClimaTrace.APP_START, 10_000_000L, 0);
+        recorder.record(ClimaTrace.UPDATE_UI, 400_000_000L, 5_000_000L);
+        recorder.record(ClimaTrace.UPDATE_UI, 900_000_000L, 5_000_000L);
+
+        assertEquals(395, ClimaTrace.timeToWeatherMillis(), 0.001);
+    }
+
+    @Test
+    public void testFetchSnapshot_recordsFetchHttpAndParseSpans() throws Exception {
+        server.setLatencyMs(20);
+        WeatherSnapshot[] result = new WeatherSnapshot[1];
+        CountDownLatch done = new CountDownLatch(1);
+
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", snapshot -> {
+            result[0] = snapshot;
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotNull(result[0]);
+        TraceRecorder recorder = ClimaTrace.recorder();
+        assertEquals(1, recorder.count(ClimaTrace.FETCH));
+        assertEquals(1, recorder.count(ClimaTrace.HTTP));
+        assertEquals(1, recorder.count(ClimaTrace.PARSE));
+        assertTrue(recorder.percentileMillis(ClimaTrace.HTTP, 50) >= 20);
+        // The fetch span covers the request and the parse, so it can't be shorter than either
+        assertTrue(recorder.percentileMillis(ClimaTrace.FETCH, 50) >= recorder.percentileMillis(ClimaTrace.HTTP, 50));
+    }
+
+    @Test
+    public void testRecord_isCheapAndAllocationFree() {
+        TraceRecorder recorder = new TraceRecorder(1024);
+        recorder.record(ClimaTrace.PARSE, 0, 0);
+        int rounds = 1_000_000;
+
+        long allocatedBefore = WeatherDataParserBenchmarkTest.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            long spanStart = System.nanoTime();
+            recorder.record(ClimaTrace.PARSE, spanStart, System.nanoTime() - spanStart);
+        }
+        long nanosPerSpan = (System.nanoTime() - start) / rounds;
+        long allocated = WeatherDataParserBenchmarkTest.allocatedBytes() - allocatedBefore;
+
+        BenchmarkReport.print("trace span: " + nanosPerSpan + " ns, " + allocated + " B over " + rounds + " spans");
+        assertEquals(1024, recorder.count(ClimaTrace.PARSE));
+        assertTrue("recording allocated " + allocated + " bytes", allocated < 16 * 1024);
+    }
+
+    @Test
+    public void testAsyncSpans_startedTogetherStayApart() {
+        ClimaTrace.AsyncSpan first = ClimaTrace.beginAsync(ClimaTrace.FETCH);
+        ClimaTrace.AsyncSpan second = ClimaTrace.beginAsync(ClimaTrace.FETCH);
+
+        assertNotEquals(first.cookie, second.cookie);
+        ClimaTrace.endAsync(second);
+        ClimaTrace.endAsync(first);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.climaapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeferredMapLoaderTest {
+
+    private final List<Boolean> attached = new ArrayList<>();
+    private DeferredMapLoader loader;
+
+    @Before
+    public void setUp() {
+        ClimaTrace.recorder().clear();
+        loader = new DeferredMapLoader(attached::add);
+    }
+
+    @Test
+    public void testNothingAttached_beforeWeatherIsDrawn() {
+        assertEquals(DeferredMapLoader.Stage.WAITING, loader.getStage());
+        assertTrue(attached.isEmpty());
+        assertFalse(loader.onMapLoaded(true));
+        assertEquals(-1, ClimaTrace.mapStartAfterWeatherMillis(), 0);
+    }
+
+    @Test
+    public void testWeatherDrawn_attachesLiteMapOnce() {
+        loader.onWeatherDrawn();
+        loader.onWeatherDrawn();
+
+        assertEquals(DeferredMapLoader.Stage.LITE, loader.getStage());
+        assertEquals(List.of(true), attached);
+        // Spans are recorded when they end, i.e. once the lite map has rendered
+        assertTrue(loader.onMapLoaded(true));
+        assertTrue(ClimaTrace.mapStartAfterWeatherMillis() >= 0);
+    }
+
+    @Test
+    public void testUpgrade_swapsToInteractiveMap() {
+        loader.onWeatherDrawn();
+        assertTrue(loader.onMapLoaded(true));
+
+        loader.upgrade();
+        loader.upgrade();
+
+        assertEquals(DeferredMapLoader.Stage.INTERACTIVE, loader.getStage());
+        assertEquals(List.of(true, false), attached);
+        assertTrue(loader.onMapLoaded(false));
+        assertFalse(loader.onMapLoaded(false));
+        assertEquals(1, ClimaTrace.recorder().count(ClimaTrace.MAP_LITE));
+        assertEquals(1, ClimaTrace.recorder().count(ClimaTrace.MAP_INTERACTIVE));
+    }
+
+    @Test
+    public void testStaleLiteMap_isIgnoredAfterUpgrade() {
+        loader.onWeatherDrawn();
+        loader.upgrade();
+
+        // The lite map finishing late must not close the interactive span
+        assertFalse(loader.onMapLoaded(true));
+        assertEquals(1, ClimaTrace.recorder().count(ClimaTrace.MAP_LITE));
+        assertEquals(0, ClimaTrace.recorder().count(ClimaTrace.MAP_INTERACTIVE));
+        assertTrue(loader.onMapLoaded(false));
+    }
+}
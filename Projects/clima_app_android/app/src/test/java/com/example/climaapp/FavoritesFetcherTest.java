@@ -0,0 +1,156 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FavoritesFetcherTest {
+
+    private static final String GROUP_BODY = "{\"cnt\":2,\"list\":["
+            + "{\"coord\":{\"lon\":-73.59,\"lat\":45.51},\"weather\":[{\"id\":800}],\"main\":{\"temp\":12.0},\"dt\":1,\"id\":6077243,\"name\":\"Montreal\"},"
+            + "{\"coord\":{\"lon\":-79.42,\"lat\":43.70},\"weather\":[{\"id\":500}],\"main\":{\"temp\":15.0},\"dt\":1,\"id\":6167865,\"name\":\"Toronto\"}]}";
+
+    private StubWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        server.route("/group", GROUP_BODY);
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private static class RecordingListener implements FavoritesFetcher.Listener {
+        final List<String> results = new ArrayList<>();
+        final CountDownLatch complete = new CountDownLatch(1);
+        int succeeded = -1;
+        int failed = -1;
+
+        @Override
+        public synchronized void onCityResult(FavoriteCity city, WeatherSnapshot snapshot) {
+            results.add(city.getName() + "=" + (snapshot != null ? snapshot.getRoundedTemperature() : "failed"));
+        }
+
+        @Override
+        public synchronized void onComplete(int succeeded, int failed) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            complete.countDown();
+        }
+    }
+
+    @Test
+    public void testRefresh_knownIdsUseOneGroupRequest() throws Exception {
+        RecordingListener listener = new RecordingListener();
+
+        new FavoritesFetcher(2, 5_000).refresh(Arrays.asList(
+                new FavoriteCity("Montreal", 6077243),
+                new FavoriteCity("Toronto", 6167865)), listener);
+
+        assertTrue(listener.complete.await(5, TimeUnit.SECONDS));
+        assertEquals(1, server.requestCount());
+        assertTrue(server.queries().get(0).contains("id=6077243,6167865"));
+        assertTrue(listener.results.contains("Montreal=12"));
+        assertTrue(listener.results.contains("Toronto=15"));
+        assertEquals(2, listener.succeeded);
+    }
+
+    @Test
+    public void testRefresh_respectsConcurrencyCap() throws Exception {
+        server.setLatencyMs(100);
+        List<FavoriteCity> cities = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            cities.add(new FavoriteCity("City" + i, FavoriteCity.UNKNOWN_ID));
+        }
+        RecordingListener listener = new RecordingListener();
+
+        new FavoritesFetcher(3, 5_000).refresh(cities, listener);
+
+        assertTrue(listener.complete.await(5, TimeUnit.SECONDS));
+        assertEquals(9, server.requestCount());
+        assertTrue(server.maxConcurrentRequests() <= 3);
+        assertEquals(9, listener.succeeded);
+    }
+
+    @Test
+    public void testRefresh_slowCityMissesDeadlineWithoutBlockingOthers() throws Exception {
+        server.delayWhenQueryContains("q=Slowtown", 2_000);
+        RecordingListener listener = new RecordingListener();
+
+        new FavoritesFetcher(3, 300).refresh(Arrays.asList(
+                new FavoriteCity("Slowtown", FavoriteCity.UNKNOWN_ID),
+                new FavoriteCity("Quickville", FavoriteCity.UNKNOWN_ID)), listener);
+
+        assertTrue(listener.complete.await(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("Quickville=21", "Slowtown=failed"), listener.results);
+        assertEquals(1, listener.succeeded);
+        assertEquals(1, listener.failed);
+    }
+
+    @Test
+    public void testRefresh_timedOutCityFreesItsSlot() throws Exception {
+        server.delayWhenQueryContains("q=Slowtown", 5_000);
+        RecordingListener listener = new RecordingListener();
+
+        new FavoritesFetcher(1, 300).refresh(Arrays.asList(
+                new FavoriteCity("Slowtown", FavoriteCity.UNKNOWN_ID),
+                new FavoriteCity("Quickville", FavoriteCity.UNKNOWN_ID)), listener);
+
+        // With one slot, Quickville only goes out once Slowtown's deadline gives the slot back
+        assertTrue(listener.complete.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("Slowtown=failed", "Quickville=21"), listener.results);
+        for (int i = 0; i < 100 && WeatherNetworkClient.activeRequestCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        // And the stalled request was aborted rather than left holding a worker
+        assertEquals(0, WeatherNetworkClient.activeRequestCount());
+    }
+
+    @Test
+    public void testRefresh_groupFailureFallsBackToSingleRequests() throws Exception {
+        server.route("/group", "not json");
+        RecordingListener listener = new RecordingListener();
+
+        new FavoritesFetcher(2, 5_000).refresh(Arrays.asList(
+                new FavoriteCity("Montreal", 6077243),
+                new FavoriteCity("Toronto", 6167865)), listener);
+
+        assertTrue(listener.complete.await(5, TimeUnit.SECONDS));
+        assertEquals(3, server.requestCount());
+        assertEquals(2, listener.succeeded);
+    }
+
+    @Test
+    public void testRefresh_cancelledScopeStopsFetchingAndDelivering() throws Exception {
+        server.setLatencyMs(300);
+        List<FavoriteCity> cities = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            cities.add(new FavoriteCity("City" + i, FavoriteCity.UNKNOWN_ID));
+        }
+        RecordingListener listener = new RecordingListener();
+        RequestScope scope = new RequestScope();
+
+        new FavoritesFetcher(2, 5_000).refresh(cities, scope, listener);
+        Thread.sleep(100);
+        scope.cancel();
+
+        assertFalse(listener.complete.await(800, TimeUnit.MILLISECONDS));
+        assertTrue(listener.results.isEmpty());
+        assertEquals(2, server.requestCount());
+        assertEquals(0, scope.pendingCount());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.climaapp;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares {@link Forecast}'s columns with the object-per-entry model a JSONObject parser would
+ * produce. Footprint is measured as the bytes allocated to build structures that are then kept
+ * alive, which is what they retain.
+ */
+public class ForecastBenchmarkTest {
+
+    private static final int COPIES = 2_000;
+    private static final int PARSE_ROUNDS = 2_000;
+
+    /** What a straightforward port of the /weather parser would hold per forecast entry. */
+    static class NaiveForecastEntry {
+        final long time;
+        final double temperature;
+        final int conditionId;
+        final double windSpeed;
+
+        NaiveForecastEntry(long time, double temperature, int conditionId, double windSpeed) {
+            this.time = time;
+            this.temperature = temperature;
+            this.conditionId = conditionId;
+            this.windSpeed = windSpeed;
+        }
+    }
+
+    static List<NaiveForecastEntry> parseNaive(String json) {
+        JSONArray list = new JSONObject(json).getJSONArray("list");
+        List<NaiveForecastEntry> entries = new ArrayList<>();
+        for (int i = 0; i < list.length(); i++) {
+            JSONObject item = list.getJSONObject(i);
+            entries.add(new NaiveForecastEntry(
+                    item.getLong("dt"),
+                    item.getJSONObject("main").getDouble("temp"),
+                    item.getJSONArray("weather").getJSONObject(0).getInt("id"),
+                    item.getJSONObject("wind").getDouble("speed")));
+        }
+        return entries;
+    }
+
+    @Test
+    public void testColumns_retainLessThanObjectPerEntry() throws IOException {
+        Forecast source = WeatherDataParser.parseForecast(new StringReader(WeatherFixtures.load(WeatherFixtures.FORECAST)));
+        int size = source.size();
+        long[] times = source.copyTimes();
+        double[] temps = source.copyTemperatures();
+        int[] conditions = new int[size];
+        double[] winds = new double[size];
+        for (int i = 0; i < size; i++) {
+            conditions[i] = source.getConditionId(i);
+            winds[i] = source.getWindSpeed(i);
+        }
+
+        Object[] kept = new Object[COPIES];
+        long before = WeatherDataParserBenchmarkTest.allocatedBytes();
+        for (int c = 0; c < COPIES; c++) {
+            kept[c] = new Forecast(1, "Montreal", size, times.clone(), temps.clone(), conditions.clone(), winds.clone());
+        }
+        long columnBytes = (WeatherDataParserBenchmarkTest.allocatedBytes() - before) / COPIES;
+
+        before = WeatherDataParserBenchmarkTest.allocatedBytes();
+        for (int c = 0; c < COPIES; c++) {
+            List<NaiveForecastEntry> entries = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                entries.add(new NaiveForecastEntry(times[i], temps[i], conditions[i], winds[i]));
+            }
+            kept[c] = entries;
+        }
+        long objectBytes = (WeatherDataParserBenchmarkTest.allocatedBytes() - before) / COPIES;
+
+        BenchmarkReport.print("forecast footprint: columns " + columnBytes + " B, objects " + objectBytes + " B ("
+                + size + " entries)");
+        assertNotNull(kept[COPIES - 1]);
+        if (columnBytes > 0) {
+            assertTrue(columnBytes < objectBytes);
+        }
+    }
+
+    @Test
+    public void testStreamingForecastParse_allocatesLessThanJsonObjectGraph() throws IOException {
+        String json = WeatherFixtures.load(WeatherFixtures.FORECAST);
+        double sink = 0;
+        for (int i = 0; i < PARSE_ROUNDS / 4; i++) {
+            sink += WeatherDataParser.parseForecast(new StringReader(json)).getTemperature(0);
+            sink += parseNaive(json).get(0).temperature;
+        }
+
+        long before = WeatherDataParserBenchmarkTest.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < PARSE_ROUNDS; i++) {
+            sink += WeatherDataParser.parseForecast(new StringReader(json)).getTemperature(39);
+        }
+        long columnNanos = (System.nanoTime() - start) / PARSE_ROUNDS;
+        long columnBytes = (WeatherDataParserBenchmarkTest.allocatedBytes() - before) / PARSE_ROUNDS;
+
+        before = WeatherDataParserBenchmarkTest.allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < PARSE_ROUNDS; i++) {
+            sink += parseNaive(json).get(39).temperature;
+        }
+        long objectNanos = (System.nanoTime() - start) / PARSE_ROUNDS;
+        long objectBytes = (WeatherDataParserBenchmarkTest.allocatedBytes() - before) / PARSE_ROUNDS;
+
+        BenchmarkReport.print("forecast parse: columns " + columnNanos + " ns, " + columnBytes + " B; "
+                + "JSONObject " + objectNanos + " ns, " + objectBytes + " B");
+        assertNotEquals(0, sink, 0);
+        if (columnBytes > 0) {
+            assertTrue(columnBytes < objectBytes);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ForecastTest {
+
+    private static final long FIRST_TIME = 1760824800L;
+    private static final long STEP = 3 * 60 * 60;
+
+    private static Forecast montreal() throws IOException {
+        return WeatherDataParser.parseForecast(new StringReader(WeatherFixtures.load(WeatherFixtures.FORECAST)));
+    }
+
+    @Test
+    public void testParse_fillsEveryColumn() throws IOException {
+        Forecast forecast = montreal();
+
+        assertEquals(40, forecast.size());
+        assertEquals(6077243, forecast.getCityId());
+        assertEquals("Montreal", forecast.getCityName());
+        assertEquals(FIRST_TIME, forecast.getTime(0));
+        assertEquals(FIRST_TIME + 39 * STEP, forecast.getTime(39));
+        assertEquals(2.0, forecast.getTemperature(0), 0);
+        assertEquals(7.66, forecast.getTemperature(39), 0);
+        assertEquals(800, forecast.getConditionId(0));
+        assertEquals(500, forecast.getConditionId(9));
+        assertEquals(2.0, forecast.getWindSpeed(0), 0);
+    }
+
+    @Test
+    public void testParse_growsColumnsWhenCountIsMissing() throws IOException {
+        StringBuilder json = new StringBuilder("{\"list\":[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"dt\":").append(i).append(",\"main\":{\"temp\":").append(i / 2.0)
+                    .append("},\"weather\":[{\"id\":801}],\"wind\":{\"speed\":1.5}}");
+        }
+        json.append("],\"city\":{\"id\":1,\"name\":\"Test\"}}");
+
+        Forecast forecast = WeatherDataParser.parseForecast(new StringReader(json.toString()));
+
+        assertEquals(100, forecast.size());
+        assertEquals(99, forecast.getTime(99));
+        assertEquals(49.5, forecast.getTemperature(99), 0);
+        assertEquals(801, forecast.getConditionId(50));
+    }
+
+    @Test
+    public void testParse_missingWeatherIsUnknownCondition() throws IOException {
+        Forecast forecast = WeatherDataParser.parseForecast(new StringReader(
+                "{\"cnt\":1,\"list\":[{\"dt\":5,\"main\":{\"temp\":3.5},\"weather\":[]}]}"));
+
+        assertEquals(1, forecast.size());
+        assertEquals(WeatherSnapshot.UNKNOWN_CONDITION, forecast.getConditionId(0));
+        assertEquals(0, forecast.getWindSpeed(0), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGet_indexPastSizeThrows() throws IOException {
+        montreal().getTemperature(40);
+    }
+
+    @Test
+    public void testIndexAt_findsEntryInEffect() throws IOException {
+        Forecast forecast = montreal();
+
+        assertEquals(-1, forecast.indexAt(FIRST_TIME - 1));
+        assertEquals(0, forecast.indexAt(FIRST_TIME));
+        assertEquals(0, forecast.indexAt(FIRST_TIME + STEP - 1));
+        assertEquals(1, forecast.indexAt(FIRST_TIME + STEP));
+        assertEquals(39, forecast.indexAt(FIRST_TIME + 100 * STEP));
+    }
+
+    @Test
+    public void testNearestIndex_roundsToClosestEntry() throws IOException {
+        Forecast forecast = montreal();
+
+        assertEquals(0, forecast.nearestIndex(0));
+        assertEquals(0, forecast.nearestIndex(FIRST_TIME + STEP / 2));
+        assertEquals(1, forecast.nearestIndex(FIRST_TIME + STEP / 2 + 1));
+        assertEquals(39, forecast.nearestIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testFetchForecast_parsesOnWorkerThread() throws Exception {
+        StubWeatherServer server = new StubWeatherServer();
+        try {
+            WeatherNetworkClient.setApiRoot(server.root());
+            WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+            WeatherNetworkClient.setCache(null);
+            server.route("/forecast", WeatherFixtures.load(WeatherFixtures.FORECAST));
+            Forecast[] result = new Forecast[1];
+            CountDownLatch done = new CountDownLatch(1);
+
+            WeatherNetworkClient.fetchForecastByCoordinates(45.5088, -73.5878, forecast -> {
+                result[0] = forecast;
+                done.countDown();
+            });
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(40, result[0].size());
+            assertEquals("Montreal", result[0].getCityName());
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.climaapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeoKdTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int bruteForceNearest(double[] lats, double[] lons, double lat, double lon) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < lats.length; i++) {
+            double distance = GeoKdTree.distanceKm(lat, lon, lats[i], lons[i]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static double[] randomLatitudes(Random random, int count) {
+        double[] lats = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Uniform over the sphere's surface, not over latitude
+            lats[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+        }
+        return lats;
+    }
+
+    private static double[] randomLongitudes(Random random, int count) {
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            lons[i] = random.nextDouble() * 360 - 180;
+        }
+        return lons;
+    }
+
+    @Test
+    public void testDistance_montrealToToronto() {
+        assertEquals(504, GeoKdTree.distanceKm(45.5088, -73.5878, 43.6532, -79.3832), 5);
+        assertEquals(0, GeoKdTree.distanceKm(10, 20, 10, 20), 0);
+    }
+
+    @Test
+    public void testNearest_matchesBruteForce() {
+        Random random = new Random(5);
+        double[] lats = randomLatitudes(random, 10_000);
+        double[] lons = randomLongitudes(random, 10_000);
+        GeoKdTree tree = new GeoKdTree(lats, lons);
+
+        for (int q = 0; q < 500; q++) {
+            double lat = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double lon = random.nextDouble() * 360 - 180;
+            int expected = bruteForceNearest(lats, lons, lat, lon);
+            int actual = tree.nearest(lat, lon);
+            assertEquals(GeoKdTree.distanceKm(lat, lon, lats[expected], lons[expected]),
+                    GeoKdTree.distanceKm(lat, lon, lats[actual], lons[actual]), 1e-9);
+        }
+    }
+
+    @Test
+    public void testNearest_acrossAntimeridianAndPole() {
+        double[] lats = {0, 0, 89.9, -45};
+        double[] lons = {179.9, 170, 0, 0};
+        GeoKdTree tree = new GeoKdTree(lats, lons);
+
+        assertEquals(0, tree.nearest(0, -179.9));
+        assertEquals(2, tree.nearest(89.5, 180));
+        assertEquals(3, tree.nearest(-60, 10));
+    }
+
+    @Test
+    public void testNearest_duplicatesAndTinyTrees() {
+        assertEquals(-1, new GeoKdTree(new double[0], new double[0]).nearest(0, 0));
+        assertEquals(0, new GeoKdTree(new double[]{12}, new double[]{34}).nearest(-80, -170));
+
+        double[] lats = new double[50];
+        double[] lons = new double[50];
+        Arrays.fill(lats, 45);
+        Arrays.fill(lons, -73);
+        lats[17] = 46;
+        assertEquals(17, new GeoKdTree(lats, lons).nearest(46.1, -73));
+    }
+
+    @Test
+    public void testLocator_resolvesBundledCities() throws IOException {
+        File csv = new File("src/main/assets/cities.csv");
+        if (!csv.exists()) csv = new File("app/src/main/assets/cities.csv");
+        File file = folder.newFile("cities.idx");
+        try (Reader reader = new InputStreamReader(new FileInputStream(csv), StandardCharsets.UTF_8)) {
+            CityIndex.write(CityIndex.readCsv(reader), file);
+        }
+        NearestCityLocator locator = new NearestCityLocator(CityIndex.open(file));
+
+        // Verdun, a few km from downtown Montreal
+        assertEquals("Montréal", locator.nearestWithin(45.4597, -73.5696, 75).getName());
+        assertEquals("Tokyo", locator.nearest(35.6, 139.8).getName());
+        // Mid-Atlantic: something is nearest, but nothing is close
+        assertNotNull(locator.nearest(40, -40));
+        assertNull(locator.nearestWithin(40, -40, NearestCityLocator.DEFAULT_MAX_DISTANCE_KM));
+    }
+
+    @Test
+    public void testBenchmark_nearestVsBruteForce() {
+        int points = 200_000;
+        int queries = 20_000;
+        Random random = new Random(9);
+        double[] lats = randomLatitudes(random, points);
+        double[] lons = randomLongitudes(random, points);
+        double[] queryLats = randomLatitudes(random, queries);
+        double[] queryLons = randomLongitudes(random, queries);
+
+        long start = System.nanoTime();
+        GeoKdTree tree = new GeoKdTree(lats, lons);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long sink = 0;
+        for (int q = 0; q < queries; q++) {
+            sink += tree.nearest(queryLats[q], queryLons[q]);
+        }
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            sink += tree.nearest(queryLats[q], queryLons[q]);
+        }
+        long treeNanos = (System.nanoTime() - start) / queries;
+
+        int bruteQueries = 20;
+        start = System.nanoTime();
+        for (int q = 0; q < bruteQueries; q++) {
+            sink += bruteForceNearest(lats, lons, queryLats[q], queryLons[q]);
+        }
+        long bruteNanos = (System.nanoTime() - start) / bruteQueries;
+
+        BenchmarkReport.print("nearest city, " + points + " points: k-d tree " + treeNanos / 1000 + " us/query (built in "
+                + buildMillis + " ms), brute force " + bruteNanos / 1000 + " us/query");
+        assertTrue(sink > 0);
+        assertTrue(treeNanos * 20 < bruteNanos);
+    }
+}
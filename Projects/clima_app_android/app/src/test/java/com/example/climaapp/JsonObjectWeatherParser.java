@@ -0,0 +1,68 @@
+package com.example.climaapp;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The original tree-based parser, kept as the baseline for equivalence checks and benchmarks.
+ */
+class JsonObjectWeatherParser {
+
+    private final JSONObject weatherJson;
+
+    JsonObjectWeatherParser(String jsonString) {
+        try {
+            this.weatherJson = new JSONObject(jsonString);
+        } catch (JSONException e) {
+            throw new RuntimeException("Invalid JSON", e);
+        }
+    }
+
+    int getTemperature() {
+        try {
+            return (int) Math.round(weatherJson.getJSONObject("main").getDouble("temp"));
+        } catch (JSONException e) {
+            return 0;
+        }
+    }
+
+    String getCityName() {
+        try {
+            return weatherJson.getString("name");
+        } catch (JSONException e) {
+            return "";
+        }
+    }
+
+    int getConditionId() {
+        try {
+            return weatherJson.getJSONArray("weather").getJSONObject(0).getInt("id");
+        } catch (JSONException e) {
+            return WeatherSnapshot.UNKNOWN_CONDITION;
+        }
+    }
+
+    String getMessage() {
+        int temp = getTemperature();
+        if (temp > 25) return "It’s 🍦 time";
+        else if (temp > 20) return "Time for shorts and 👕";
+        else if (temp < 10) return "You’ll need 🧣 and 🧤";
+        else return "Bring a 🧥 just in case";
+    }
+
+    double getLatitude() {
+        try {
+            return weatherJson.getJSONObject("coord").getDouble("lat");
+        } catch (JSONException e) {
+            return 0;
+        }
+    }
+
+    double getLongitude() {
+        try {
+            return weatherJson.getJSONObject("coord").getDouble("lon");
+        } catch (JSONException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.climaapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class LocationStrategyTest {
+
+    private static final long NOW = 1_000_000;
+
+    /** Single-threaded fake with a manual clock, like the main looper in slow motion. */
+    private static class FakeLocationSource implements LocationSource {
+        final Map<String, LocationFix> lastKnown = new HashMap<>();
+        final List<String> enabled = new ArrayList<>();
+        final Map<String, Consumer<LocationFix>> registered = new LinkedHashMap<>();
+        final Map<Runnable, Long> scheduled = new HashMap<>();
+        long now = NOW;
+
+        @Override public List<String> getEnabledProviders() { return enabled; }
+        @Override public LocationFix getLastKnownFix(String provider) { return lastKnown.get(provider); }
+        @Override public void requestUpdates(String provider, Consumer<LocationFix> listener) { registered.put(provider, listener); }
+        @Override public void removeUpdates(Consumer<LocationFix> listener) { registered.values().removeIf(l -> l == listener); }
+        @Override public void postDelayed(Runnable task, long delayMillis) { scheduled.put(task, now + delayMillis); }
+        @Override public void removeCallbacks(Runnable task) { scheduled.remove(task); }
+        @Override public long currentTimeMillis() { return now; }
+
+        void advance(long millis) {
+            now += millis;
+            for (Map.Entry<Runnable, Long> task : new ArrayList<>(scheduled.entrySet())) {
+                if (task.getValue() <= now && scheduled.remove(task.getKey()) != null) {
+                    task.getKey().run();
+                }
+            }
+        }
+
+        void emit(String provider, LocationFix fix) {
+            Consumer<LocationFix> listener = registered.get(provider);
+            if (listener != null) listener.accept(fix);
+        }
+    }
+
+    private static class RecordingListener implements LocationStrategy.Listener {
+        final List<LocationFix> fixes = new ArrayList<>();
+        LocationStrategy.Metrics metrics;
+
+        @Override public void onLocation(LocationFix fix) { fixes.add(fix); }
+        @Override public void onFinished(LocationStrategy.Metrics metrics) { this.metrics = metrics; }
+    }
+
+    private FakeLocationSource source;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        source = new FakeLocationSource();
+        source.enabled.addAll(Arrays.asList("gps", "network"));
+        listener = new RecordingListener();
+    }
+
+    private static LocationFix fix(float accuracy, long time, String provider) {
+        return new LocationFix(45.5, -73.5, accuracy, time, provider);
+    }
+
+    @Test
+    public void testFreshAccurateCachedFix_isDeliveredImmediatelyWithoutListening() {
+        source.lastKnown.put("network", fix(50, NOW - 30_000, "network"));
+
+        new LocationStrategy(source).start(listener);
+
+        assertEquals(1, listener.fixes.size());
+        assertTrue(source.registered.isEmpty());
+        assertTrue(listener.metrics.firstFixFromCache);
+        assertEquals(0, listener.metrics.timeToFirstFixMs);
+    }
+
+    @Test
+    public void testFreshCoarseCachedFix_isRefinedByMoreAccurateUpdate() {
+        source.lastKnown.put("network", fix(800, NOW - 30_000, "network"));
+        LocationStrategy strategy = new LocationStrategy(source);
+
+        strategy.start(listener);
+        assertEquals(1, listener.fixes.size());
+        assertEquals(2, source.registered.size());
+
+        source.advance(400);
+        source.emit("network", fix(900, source.now, "network"));  // worse: ignored
+        source.advance(800);
+        source.emit("gps", fix(12, source.now, "gps"));
+
+        assertEquals(2, listener.fixes.size());
+        assertEquals(12, listener.fixes.get(1).getAccuracyMeters(), 0);
+        assertFalse(strategy.isRunning());
+        assertTrue(source.registered.isEmpty());
+        assertTrue(source.scheduled.isEmpty());
+        assertEquals(1200, listener.metrics.timeToBestFixMs);
+    }
+
+    @Test
+    public void testStaleCache_racesProvidersAndFirstFixWins() {
+        source.lastKnown.put("gps", fix(10, NOW - 60 * 60_000, "gps"));
+
+        new LocationStrategy(source).start(listener);
+        assertTrue(listener.fixes.isEmpty());
+
+        source.advance(700);
+        source.emit("network", fix(30, source.now, "network"));
+
+        assertEquals("network", listener.fixes.get(0).getProvider());
+        assertFalse(listener.metrics.firstFixFromCache);
+        assertEquals(700, listener.metrics.timeToFirstFixMs);
+        assertTrue(source.registered.isEmpty());
+    }
+
+    @Test
+    public void testDeadline_fallsBackToStaleFixAndUnregisters() {
+        source.lastKnown.put("gps", fix(10, NOW - 60 * 60_000, "gps"));
+
+        new LocationStrategy(source, 60_000, 100, 5_000).start(listener);
+        source.advance(5_000);
+
+        assertEquals(1, listener.fixes.size());
+        assertNotNull(listener.fixes.get(0));
+        assertEquals(5_000, listener.metrics.timeToFirstFixMs);
+        assertTrue(source.registered.isEmpty());
+    }
+
+    @Test
+    public void testDeadline_withNothingAtAllDeliversNull() {
+        new LocationStrategy(source, 60_000, 100, 5_000).start(listener);
+        source.advance(5_000);
+
+        assertEquals(1, listener.fixes.size());
+        assertNull(listener.fixes.get(0));
+        assertEquals(-1, listener.metrics.timeToFirstFixMs);
+        assertTrue(source.registered.isEmpty());
+    }
+
+    @Test
+    public void testCancel_unregistersAndDropsLateUpdates() {
+        LocationStrategy strategy = new LocationStrategy(source);
+        strategy.start(listener);
+        Consumer<LocationFix> leaked = source.registered.get("gps");
+
+        strategy.cancel();
+        leaked.accept(fix(5, source.now, "gps"));
+
+        assertTrue(listener.fixes.isEmpty());
+        assertTrue(source.registered.isEmpty());
+        assertTrue(source.scheduled.isEmpty());
+    }
+
+    @Test
+    public void testCancelFromFirstCallback_finishesOnce() {
+        source.lastKnown.put("network", fix(50, NOW, "network"));
+        LocationStrategy strategy = new LocationStrategy(source);
+        int[] finished = {0};
+
+        strategy.start(new LocationStrategy.Listener() {
+            @Override public void onLocation(LocationFix fix) { strategy.cancel(); }
+            @Override public void onFinished(LocationStrategy.Metrics metrics) { finished[0]++; }
+        });
+
+        assertEquals(1, finished[0]);
+    }
+}
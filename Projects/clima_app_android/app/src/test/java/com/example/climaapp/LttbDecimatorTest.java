@@ -0,0 +1,114 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LttbDecimatorTest {
+
+    /** A year of readings every 30 s, roughly: daily swing, slow drift and sensor noise. */
+    private static double[][] series(int length) {
+        Random random = new Random(42);
+        double[] x = new double[length];
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = 1_700_000_000L + 30L * i;
+            y[i] = 10 + 8 * Math.sin(i * 2 * Math.PI / 2880) + 5 * Math.sin(i * 2 * Math.PI / length)
+                    + random.nextGaussian() * 0.3;
+        }
+        return new double[][]{x, y};
+    }
+
+    @Test
+    public void testDecimate_keepsEndpointsAndRequestedCount() {
+        double[][] s = series(10_000);
+        int[] out = new int[100];
+
+        int count = LttbDecimator.decimate(s[0], s[1], 10_000, 100, out);
+
+        assertEquals(100, count);
+        assertEquals(0, out[0]);
+        assertEquals(9_999, out[99]);
+        for (int i = 1; i < count; i++) {
+            assertTrue("indices must ascend at " + i, out[i] > out[i - 1]);
+        }
+    }
+
+    @Test
+    public void testShortSeries_isReturnedWhole() {
+        double[] x = {0, 1, 2, 3};
+        double[] y = {5, 6, 5, 6};
+        int[] out = new int[4];
+
+        assertEquals(4, LttbDecimator.decimate(x, y, 4, 10, out));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, out);
+        assertEquals(0, LttbDecimator.decimate(x, y, 0, 10, out));
+    }
+
+    @Test
+    public void testTinyThreshold_writesNoMoreThanAsked() {
+        double[][] s = series(1_000);
+
+        int[] two = new int[2];
+        assertEquals(2, LttbDecimator.decimate(s[0], s[1], 1_000, 2, two));
+        assertArrayEquals(new int[]{0, 999}, two);
+
+        int[] one = new int[1];
+        assertEquals(1, LttbDecimator.decimate(s[0], s[1], 1_000, 1, one));
+        assertEquals(0, one[0]);
+
+        assertEquals(0, LttbDecimator.decimate(s[0], s[1], 1_000, 0, new int[0]));
+    }
+
+    @Test
+    public void testSpike_survivesDecimation() {
+        int length = 100_000;
+        double[] x = new double[length];
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) {
+            x[i] = i;
+        }
+        y[31_337] = 40;
+        y[77_777] = -25;
+        int[] out = new int[50];
+
+        int count = LttbDecimator.decimate(x, y, length, 50, out);
+
+        boolean peak = false;
+        boolean dip = false;
+        for (int i = 0; i < count; i++) {
+            peak |= out[i] == 31_337;
+            dip |= out[i] == 77_777;
+        }
+        assertTrue(peak);
+        assertTrue(dip);
+    }
+
+    @Test
+    public void testDecimate_millionPointsToScreenWidth() {
+        int length = 1_000_000;
+        double[][] s = series(length);
+        int[] out = new int[1080];
+        int sink = 0;
+        for (int i = 0; i < 5; i++) {
+            sink += LttbDecimator.decimate(s[0], s[1], length, 1080, out);
+        }
+
+        int rounds = 20;
+        long allocatedBefore = WeatherDataParserBenchmarkTest.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += LttbDecimator.decimate(s[0], s[1], length, 1080, out);
+        }
+        long micros = (System.nanoTime() - start) / rounds / 1000;
+        long allocated = WeatherDataParserBenchmarkTest.allocatedBytes() - allocatedBefore;
+
+        BenchmarkReport.print("LTTB 1M -> 1080 points: " + micros + " us, " + allocated + " B over " + rounds
+                + " runs; path segments " + (length - 1) + " -> 1079");
+        assertEquals(25 * 1080, sink);
+        assertTrue("decimation allocated " + allocated + " bytes", allocated < 16 * 1024);
+        assertTrue("decimation took " + micros + " us", micros < 200_000);
+    }
+}
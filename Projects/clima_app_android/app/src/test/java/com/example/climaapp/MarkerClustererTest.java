@@ -0,0 +1,179 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MarkerClustererTest {
+
+    private static List<MapPoint> randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        List<MapPoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Spread over southern Quebec and Ontario, roughly where Clima users save cities
+            points.add(new MapPoint(i, 42 + random.nextDouble() * 6, -80 + random.nextDouble() * 10, "p" + i));
+        }
+        return points;
+    }
+
+    private static int total(List<MarkerClusterer.Cluster> clusters) {
+        int total = 0;
+        for (MarkerClusterer.Cluster cluster : clusters) {
+            total += cluster.size();
+        }
+        return total;
+    }
+
+    /** Straight grid bucketing of every point, to check the merged levels against. */
+    private static int bruteForceClusterCount(List<MapPoint> points, int zoom, int cellSizePx) {
+        double scale = 256.0 * (1L << zoom) / cellSizePx;
+        Set<String> cells = new HashSet<>();
+        for (MapPoint point : points) {
+            long x = (long) Math.floor(MarkerClusterer.mercatorX(point.getLongitude()) * scale);
+            long y = (long) Math.floor(MarkerClusterer.mercatorY(point.getLatitude()) * scale);
+            cells.add(x + ":" + y);
+        }
+        return cells.size();
+    }
+
+    @Test
+    public void testMercator_roundTrips() {
+        assertEquals(45.5017, MarkerClusterer.latitude(MarkerClusterer.mercatorY(45.5017)), 1e-9);
+        assertEquals(-73.5673, MarkerClusterer.longitude(MarkerClusterer.mercatorX(-73.5673)), 1e-9);
+        assertEquals(0.5, MarkerClusterer.mercatorY(0), 1e-12);
+    }
+
+    @Test
+    public void testClusters_nearbyPointsMergeWhenZoomedOut() {
+        List<MapPoint> points = Arrays.asList(
+                new MapPoint(1, 45.5017, -73.5673, "Montreal"),
+                new MapPoint(2, 45.5088, -73.5878, "Montreal downtown"),
+                new MapPoint(3, 43.6532, -79.3832, "Toronto"));
+        MarkerClusterer clusterer = new MarkerClusterer(points);
+
+        List<MarkerClusterer.Cluster> far = clusterer.clusters(3);
+        List<MarkerClusterer.Cluster> close = clusterer.clusters(16);
+
+        assertEquals(1, far.size());
+        assertEquals(3, far.get(0).size());
+        assertNull(far.get(0).getPoint());
+        assertEquals(3, close.size());
+        assertEquals("Toronto", close.get(2).getPoint().getLabel());
+        assertEquals(43.6532, close.get(2).getLatitude(), 0);
+    }
+
+    @Test
+    public void testClusters_matchBruteForceAtEveryZoom() {
+        List<MapPoint> points = randomPoints(2_000, 7);
+        MarkerClusterer clusterer = new MarkerClusterer(points, 80);
+
+        for (int zoom = 0; zoom <= MarkerClusterer.MAX_ZOOM; zoom++) {
+            List<MarkerClusterer.Cluster> clusters = clusterer.clusters(zoom);
+            assertEquals("zoom " + zoom, bruteForceClusterCount(points, zoom, 80), clusters.size());
+            assertEquals(points.size(), total(clusters));
+        }
+    }
+
+    @Test
+    public void testClusters_fractionalZoomRoundsDown() {
+        MarkerClusterer clusterer = new MarkerClusterer(randomPoints(500, 3));
+
+        assertSame(clusterer.clusters(9).get(0), clusterer.clusters(9.8).get(0));
+        assertEquals(clusterer.clusters(0).size(), clusterer.clusters(-4).size());
+    }
+
+    @Test
+    public void testClusters_boundsFilterVisibleClusters() {
+        List<MapPoint> points = Arrays.asList(
+                new MapPoint(1, 45.5, -73.6, "Montreal"),
+                new MapPoint(2, 51.5, -0.1, "London"),
+                new MapPoint(3, 35.7, 139.7, "Tokyo"),
+                new MapPoint(4, -36.8, 174.7, "Auckland"));
+        MarkerClusterer clusterer = new MarkerClusterer(points);
+
+        assertEquals(2, clusterer.clusters(10, 40, -80, 55, 5).size());
+        // A view across the antimeridian, from Japan to Hawaii
+        List<MarkerClusterer.Cluster> pacific = clusterer.clusters(10, -50, 130, 50, -150);
+        assertEquals(2, pacific.size());
+    }
+
+    @Test
+    public void testKeys_unchangedClustersKeepTheirKeyAcrossZooms() {
+        MarkerClusterer clusterer = new MarkerClusterer(Arrays.asList(
+                new MapPoint(1, 45.5017, -73.5673, "Montreal"),
+                new MapPoint(2, 43.6532, -79.3832, "Toronto")));
+
+        Set<Long> atTen = new HashSet<>();
+        for (MarkerClusterer.Cluster cluster : clusterer.clusters(10)) atTen.add(cluster.getKey());
+
+        assertEquals(0, ClusterDiff.between(atTen, clusterer.clusters(14)).size());
+        ClusterDiff zoomedOut = ClusterDiff.between(atTen, clusterer.clusters(2));
+        assertEquals(1, zoomedOut.getAdded().size());
+        assertEquals(2, zoomedOut.getAdded().get(0).size());
+        assertEquals(2, zoomedOut.getRemoved().size());
+    }
+
+    @Test
+    public void testBenchmark_tenThousandPoints() {
+        List<MapPoint> points = randomPoints(10_000, 42);
+        for (int warmup = 0; warmup < 5; warmup++) {
+            new MarkerClusterer(randomPoints(10_000, warmup)).clusters(0);
+        }
+
+        long start = System.nanoTime();
+        MarkerClusterer clusterer = new MarkerClusterer(points);
+        List<MarkerClusterer.Cluster> street = clusterer.clusters(14);
+        long firstNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<MarkerClusterer.Cluster> region = clusterer.clusters(8);
+        long zoomOutNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int zoom = 0; zoom <= MarkerClusterer.MAX_ZOOM; zoom++) {
+            clusterer.clusters(zoom);
+        }
+        long cachedNanos = (System.nanoTime() - start) / (MarkerClusterer.MAX_ZOOM + 1);
+
+        Set<Long> shown = new HashSet<>();
+        for (MarkerClusterer.Cluster cluster : region) shown.add(cluster.getKey());
+        start = System.nanoTime();
+        ClusterDiff diff = ClusterDiff.between(shown, clusterer.clusters(9));
+        long diffNanos = System.nanoTime() - start;
+
+        BenchmarkReport.print("clustering 10k points: first level " + firstNanos / 1000 + " us, zoom 14 -> 8 "
+                + zoomOutNanos / 1000 + " us, cached level " + cachedNanos / 1000 + " us, diff 8 -> 9 "
+                + diffNanos / 1000 + " us (" + diff.size() + " marker changes, " + region.size()
+                + " clusters at zoom 8)");
+        assertEquals(10_000, total(street));
+        assertEquals(10_000, total(region));
+        assertTrue(region.size() < street.size());
+        assertTrue("first clustering took " + firstNanos / 1_000_000 + " ms", firstNanos < 2_000_000_000L);
+    }
+
+    @Test
+    public void testKeys_followPointIdsAcrossPointLists() {
+        MapPoint montreal = new MapPoint(7, 45.5017, -73.5673, "Montreal");
+        MapPoint toronto = new MapPoint(3, 43.6532, -79.3832, "Toronto");
+        MapPoint ottawa = new MapPoint(12, 45.4215, -75.6972, "Ottawa");
+
+        Set<Long> before = new HashSet<>();
+        for (MarkerClusterer.Cluster cluster : new MarkerClusterer(Arrays.asList(montreal, toronto)).clusters(10)) {
+            before.add(cluster.getKey());
+        }
+        // Same points in another order, plus a new one: only the new one needs a marker
+        ClusterDiff diff = ClusterDiff.between(before,
+                new MarkerClusterer(Arrays.asList(ottawa, toronto, montreal)).clusters(10));
+
+        assertEquals(1, diff.size());
+        assertEquals("Ottawa", diff.getAdded().get(0).getPoint().getLabel());
+        assertEquals(2, diff.getKept().size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.climaapp;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@link WeatherNetworkClient#fetchSnapshotByCoordinates} (HTTP, gzip, parse) against a
+ * server at a fixed number of outstanding requests and reports throughput, latency percentiles and
+ * how much the client's request threads allocated.
+ */
+class PipelineLoadHarness {
+
+    static final class Report {
+        final int requests;
+        final int failures;
+        final long elapsedMs;
+        final long p50Micros;
+        final long p99Micros;
+        final long allocatedBytes;
+
+        Report(int requests, int failures, long elapsedMs, long p50Micros, long p99Micros, long allocatedBytes) {
+            this.requests = requests;
+            this.failures = failures;
+            this.elapsedMs = elapsedMs;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        double throughput() {
+            return requests * 1000.0 / Math.max(1, elapsedMs);
+        }
+
+        /** Allocation rate of the request threads, in MB per second of wall time. */
+        double allocationMbPerSecond() {
+            return allocatedBytes / 1e6 * 1000.0 / Math.max(1, elapsedMs);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d req in %d ms: %.0f req/s, p50 %.2f ms, p99 %.2f ms, %d failed, "
+                            + "%.1f MB/s allocated (%d KB/req)",
+                    requests, elapsedMs, throughput(), p50Micros / 1000.0, p99Micros / 1000.0, failures,
+                    allocationMbPerSecond(), allocatedBytes / Math.max(1, requests) / 1024);
+        }
+    }
+
+    private final int concurrency;
+
+    PipelineLoadHarness(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    Report run(int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        Semaphore outstanding = new Semaphore(concurrency);
+
+        long allocatedBefore = requestThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            outstanding.acquire();
+            int index = i;
+            long issued = System.nanoTime();
+            // Distinct coordinates so neither the cache nor single-flight can collapse requests
+            double lat = -80 + (i % 320) * 0.5;
+            double lon = -180 + (i / 320 % 720) * 0.5;
+            WeatherNetworkClient.fetchSnapshotByCoordinates(lat, lon, snapshot -> {
+                latencies[index] = System.nanoTime() - issued;
+                if (snapshot == null) failures.incrementAndGet();
+                outstanding.release();
+                done.countDown();
+            });
+        }
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            throw new AssertionError("Load run did not finish");
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long allocated = requestThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(latencies);
+        return new Report(requests, failures.get(), elapsedMs, latencies[requests / 2] / 1000,
+                latencies[Math.min(requests - 1, requests * 99 / 100)] / 1000, Math.max(0, allocated));
+    }
+
+    /** Bytes allocated so far by the client's request and hedge threads. */
+    static long requestThreadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return 0;
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("weather-")) {
+                total += Math.max(0, ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(thread.getId()));
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.climaapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves recorded OpenWeatherMap responses (src/test/resources/owm) under a {@link Profile} of
+ * latency, payload size and errors, so the fetch-and-parse path can be load tested offline.
+ * {@link #record} captures a new response from the live API for the fixture directory.
+ */
+class ReplayWeatherServer implements AutoCloseable {
+
+    /** How the server misbehaves. Latency is {@code latencyMs} plus up to {@code jitterMs}. */
+    static final class Profile {
+        final String name;
+        final long latencyMs;
+        final long jitterMs;
+        final double errorRate;
+        final int paddingBytes;
+
+        Profile(String name, long latencyMs, long jitterMs, double errorRate, int paddingBytes) {
+            this.name = name;
+            this.latencyMs = latencyMs;
+            this.jitterMs = jitterMs;
+            this.errorRate = errorRate;
+            this.paddingBytes = paddingBytes;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final Map<String, List<String>> recordings = new ConcurrentHashMap<>();
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    // One seeded stream so a profile misbehaves the same way on every run
+    private final Random random = new Random(17);
+    private volatile Profile profile = new Profile("default", 0, 0, 0, 0);
+
+    static {
+        // See StubWeatherServer: keep the JDK server from adding ~40 ms per response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    ReplayWeatherServer() throws IOException {
+        recordings.put("/data/2.5/weather", WeatherFixtures.currentWeather());
+        recordings.put("/data/2.5/forecast", Arrays.asList(WeatherFixtures.load(WeatherFixtures.FORECAST)));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    String root() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/data/2.5";
+    }
+
+    void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    int servedCount() {
+        return served.get();
+    }
+
+    int errorCount() {
+        return errors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Profile current = profile;
+        long delay;
+        boolean fail;
+        int pick;
+        synchronized (random) {
+            delay = current.latencyMs + (current.jitterMs > 0 ? (long) (random.nextDouble() * current.jitterMs) : 0);
+            fail = random.nextDouble() < current.errorRate;
+            pick = random.nextInt(Integer.MAX_VALUE);
+        }
+        try {
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<String> bodies = recordings.get(exchange.getRequestURI().getPath());
+        if (bodies == null) {
+            StubWeatherServer.send(exchange, 404, "{\"cod\":\"404\"}");
+            return;
+        }
+        if (fail) {
+            errors.incrementAndGet();
+            StubWeatherServer.send(exchange, 503, "{\"cod\":503}");
+            return;
+        }
+        served.incrementAndGet();
+        StubWeatherServer.send(exchange, 200, pad(bodies.get(pick % bodies.size()), current.paddingBytes));
+    }
+
+    /** Grows a recorded object by an unknown field the parser has to skip, like a newer API would. */
+    static String pad(String body, int bytes) {
+        if (bytes <= 0) return body;
+        int end = body.lastIndexOf('}');
+        char[] filler = new char[bytes];
+        Arrays.fill(filler, 'x');
+        return body.substring(0, end) + ",\"padding\":\"" + new String(filler) + "\"" + body.substring(end);
+    }
+
+    /** Fetches {@code url} (live, with its API key) and saves the body as a fixture. */
+    static void record(String url, File fixture) throws IOException {
+        WeatherNetworkClient.HttpResult result = WeatherNetworkClient.httpGet(url, null);
+        try (OutputStream out = new FileOutputStream(fixture)) {
+            out.write(result.body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
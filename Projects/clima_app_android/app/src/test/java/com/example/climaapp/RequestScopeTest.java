@@ -0,0 +1,170 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class RequestScopeTest {
+
+    private StubWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    /** Stands in for an Activity: something heavy the callback captures. */
+    private static class FakeScreen {
+        final byte[] views = new byte[1 << 20];
+        final AtomicInteger shown = new AtomicInteger();
+
+        void show(WeatherSnapshot snapshot) {
+            shown.incrementAndGet();
+        }
+    }
+
+    private static boolean collected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return reference.get() == null;
+    }
+
+    private static void awaitIdleWorkers() throws InterruptedException {
+        for (int i = 0; i < 100 && WeatherNetworkClient.activeRequestCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testCancel_releasesScreenAbortsConnectionAndFreesWorker() throws Exception {
+        server.setLatencyMs(10_000);
+        RequestScope scope = new RequestScope();
+        FakeScreen screen = new FakeScreen();
+        AtomicInteger shown = screen.shown;
+        WeakReference<FakeScreen> screenRef = new WeakReference<>(screen);
+
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", scope, screen::show);
+        screen = null;
+        for (int i = 0; i < 100 && server.requestCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, scope.pendingCount());
+
+        long cancelledAt = System.nanoTime();
+        scope.cancel();
+        awaitIdleWorkers();
+        long freedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cancelledAt);
+
+        assertTrue(collected(screenRef));
+        assertEquals(0, WeatherNetworkClient.activeRequestCount());
+        assertTrue("worker freed after " + freedMs + " ms", freedMs < 2_000);
+        assertEquals(0, WeatherNetworkClient.inFlightCount());
+        assertEquals(0, scope.pendingCount());
+        assertEquals(0, shown.get());
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void testCancel_sharedCallKeepsServingOtherCallers() throws Exception {
+        server.setLatencyMs(300);
+        RequestScope scope = new RequestScope();
+        AtomicInteger cancelledDeliveries = new AtomicInteger();
+        CountDownLatch other = new CountDownLatch(1);
+
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", scope, snapshot -> cancelledDeliveries.incrementAndGet());
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", snapshot -> {
+            if (snapshot != null) other.countDown();
+        });
+        scope.cancel();
+
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        assertEquals(0, cancelledDeliveries.get());
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void testCancelledScope_startsNothing() throws Exception {
+        RequestScope scope = new RequestScope();
+        scope.cancel();
+        AtomicInteger deliveries = new AtomicInteger();
+
+        WeatherNetworkClient.fetchSnapshotByCoordinates(45.5, -73.5, scope, snapshot -> deliveries.incrementAndGet());
+        Thread.sleep(100);
+
+        assertEquals(0, server.requestCount());
+        assertEquals(0, deliveries.get());
+        assertTrue(scope.isCancelled());
+    }
+
+    @Test
+    public void testDelivery_removesRequestFromScope() throws Exception {
+        RequestScope scope = new RequestScope();
+        CountDownLatch done = new CountDownLatch(1);
+        Consumer<WeatherSnapshot> callback = snapshot -> done.countDown();
+
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", scope, callback);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, scope.pendingCount());
+    }
+
+    @Test
+    public void testDelivery_fastResponsesNeverLingerInScope() throws Exception {
+        RequestScope scope = new RequestScope();
+        for (int i = 0; i < 50; i++) {
+            CountDownLatch done = new CountDownLatch(1);
+            WeatherNetworkClient.fetchSnapshotByCity("City " + i, scope, snapshot -> done.countDown());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("after request " + i, 0, scope.pendingCount());
+        }
+    }
+
+    @Test
+    public void testBind_dropsCallbackOnCancel() throws Exception {
+        RequestScope scope = new RequestScope();
+        FakeScreen screen = new FakeScreen();
+        AtomicInteger shown = screen.shown;
+        WeakReference<FakeScreen> screenRef = new WeakReference<>(screen);
+
+        Consumer<WeatherSnapshot> bound = scope.bind(screen::show);
+        screen = null;
+        assertEquals(1, scope.pendingCount());
+        scope.cancel();
+        bound.accept(null);
+
+        assertTrue(collected(screenRef));
+        assertEquals(0, shown.get());
+        assertEquals(0, scope.pendingCount());
+    }
+
+    @Test
+    public void testBind_deliversOnceAndLeavesScope() {
+        RequestScope scope = new RequestScope();
+        AtomicInteger deliveries = new AtomicInteger();
+
+        Consumer<Integer> bound = scope.bind(value -> deliveries.addAndGet(value));
+        bound.accept(3);
+        bound.accept(4);
+
+        assertEquals(3, deliveries.get());
+        assertEquals(0, scope.pendingCount());
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SolarCalculatorTest {
+
+    private static final double LONDON_LAT = 51.5074;
+    private static final double LONDON_LON = -0.1278;
+    // Two minutes either way, about what published almanac times are rounded to
+    private static final long TOLERANCE_SECONDS = 120;
+
+    private static long at(String instant) {
+        return Instant.parse(instant).getEpochSecond();
+    }
+
+    private static void assertNear(String expected, long actual) {
+        long diff = actual - at(expected);
+        assertTrue("off by " + diff + " s from " + expected, Math.abs(diff) <= TOLERANCE_SECONDS);
+    }
+
+    @Test
+    public void testSunTimes_matchReferenceAlmanac() {
+        long june21 = at("2026-06-21T12:00:00Z");
+        assertNear("2026-06-21T03:43:00Z", SolarCalculator.sunrise(LONDON_LAT, LONDON_LON, june21));
+        assertNear("2026-06-21T20:21:00Z", SolarCalculator.sunset(LONDON_LAT, LONDON_LON, june21));
+
+        // New York in winter
+        long december21 = at("2026-12-21T17:00:00Z");
+        assertNear("2026-12-21T12:16:00Z", SolarCalculator.sunrise(40.7128, -74.0060, december21));
+        assertNear("2026-12-21T21:32:00Z", SolarCalculator.sunset(40.7128, -74.0060, december21));
+
+        // Sydney's local day starts ten hours ahead of UTC, so its sunrise falls on the 20th
+        long sydneyNoon = at("2026-06-21T02:00:00Z");
+        assertNear("2026-06-20T21:00:00Z", SolarCalculator.sunrise(-33.8688, 151.2093, sydneyNoon));
+        assertNear("2026-06-21T06:54:00Z", SolarCalculator.sunset(-33.8688, 151.2093, sydneyNoon));
+    }
+
+    @Test
+    public void testPolarDayAndNight_haveNoEvents() {
+        long june21 = at("2026-06-21T12:00:00Z");
+        long december21 = at("2026-12-21T12:00:00Z");
+
+        assertEquals(SolarCalculator.NO_EVENT, SolarCalculator.sunrise(69.6492, 18.9553, june21));
+        assertTrue(SolarCalculator.isDaytime(69.6492, 18.9553, at("2026-06-21T23:00:00Z")));
+        assertEquals(SolarCalculator.NO_EVENT, SolarCalculator.sunset(69.6492, 18.9553, december21));
+        assertFalse(SolarCalculator.isDaytime(69.6492, 18.9553, december21));
+    }
+
+    @Test
+    public void testPosition_atSolarNoonAndSunrise() {
+        long noon = at("2026-06-21T12:02:00Z");
+        // 90° - latitude + the sun's 23.44° declination at the solstice
+        assertEquals(61.93, SolarCalculator.elevation(LONDON_LAT, LONDON_LON, noon), 0.1);
+        assertEquals(180, SolarCalculator.azimuth(LONDON_LAT, LONDON_LON, noon), 1.5);
+
+        long sunrise = SolarCalculator.sunrise(LONDON_LAT, LONDON_LON, noon);
+        assertEquals(SolarCalculator.HORIZON_ELEVATION, SolarCalculator.elevation(LONDON_LAT, LONDON_LON, sunrise), 0.02);
+        // Midsummer sun rises well north of east
+        assertEquals(49, SolarCalculator.azimuth(LONDON_LAT, LONDON_LON, sunrise), 1.5);
+        assertFalse(SolarCalculator.isDaytime(LONDON_LAT, LONDON_LON, sunrise - 300));
+        assertTrue(SolarCalculator.isDaytime(LONDON_LAT, LONDON_LON, sunrise + 300));
+    }
+
+    @Test
+    public void testBatch_matchesOneAtATime() {
+        Random random = new Random(3);
+        int count = 2_000;
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = -65 + random.nextDouble() * 130;
+            lons[i] = -180 + random.nextDouble() * 360;
+            times[i] = at("2026-01-01T00:00:00Z") + (long) (random.nextDouble() * 365 * 86_400);
+        }
+
+        double[] elevations = new double[count];
+        SolarCalculator.elevations(lats, lons, times, count, elevations);
+        for (int i = 0; i < count; i++) {
+            assertEquals(SolarCalculator.elevation(lats[i], lons[i], times[i]), elevations[i], 0.01);
+        }
+
+        long[] sunrises = new long[count];
+        long[] sunsets = new long[count];
+        SolarCalculator.sunTimes(lats, lons, times[0], count, sunrises, sunsets);
+        for (int i = 0; i < count; i++) {
+            assertTrue(Math.abs(SolarCalculator.sunrise(lats[i], lons[i], times[0]) - sunrises[i]) <= 5);
+            assertTrue(Math.abs(SolarCalculator.sunset(lats[i], lons[i], times[0]) - sunsets[i]) <= 5);
+        }
+
+        // Forecast steps, three hours apart for five days
+        long[] steps = new long[40];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = at("2026-06-20T00:00:00Z") + i * 3 * 3_600L;
+        }
+        boolean[] daytime = new boolean[steps.length];
+        SolarCalculator.isDaytime(LONDON_LAT, LONDON_LON, steps, steps.length, daytime);
+        for (int i = 0; i < steps.length; i++) {
+            assertEquals(SolarCalculator.isDaytime(LONDON_LAT, LONDON_LON, steps[i]), daytime[i]);
+        }
+    }
+
+    @Test
+    public void testBatch_throughput() {
+        BenchmarkReport.assumeEnabled();
+        // 1,000 favorites-sized groups of places over a few days of forecast steps
+        int count = 1_000_000;
+        Random random = new Random(5);
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        long[] times = new long[count];
+        long start = at("2026-03-01T00:00:00Z");
+        for (int i = 0; i < count; i++) {
+            lats[i] = -60 + random.nextDouble() * 120;
+            lons[i] = -180 + random.nextDouble() * 360;
+            times[i] = start + (i / 1_000) * 600L;
+        }
+        double[] out = new double[count];
+
+        double checksum = 0;
+        for (int round = 0; round < 3; round++) {
+            SolarCalculator.elevations(lats, lons, times, count, out);
+            for (int i = 0; i < count; i += 1_000) {
+                checksum += SolarCalculator.elevation(lats[i], lons[i], times[i]);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        SolarCalculator.elevations(lats, lons, times, count, out);
+        long batchNanos = System.nanoTime() - t0;
+        long allocated = WeatherDataParserBenchmarkTest.allocatedBytes();
+        SolarCalculator.elevations(lats, lons, times, count, out);
+        allocated = WeatherDataParserBenchmarkTest.allocatedBytes() - allocated;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            checksum += SolarCalculator.elevation(lats[i], lons[i], times[i]);
+        }
+        long singleNanos = System.nanoTime() - t0;
+
+        BenchmarkReport.print("solar elevation, " + count + " points: batch " + batchNanos / count + " ns/point ("
+                + allocated + " B), one at a time " + singleNanos / count + " ns/point");
+        assertFalse(Double.isNaN(checksum));
+        assertTrue(batchNanos < singleNanos);
+        // Only the per-call Ephemeris, never per point
+        assertTrue(allocated < 1_000);
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.climaapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the OpenWeatherMap API so network tests never leave the machine.
+ */
+class StubWeatherServer implements AutoCloseable {
+
+    static final String SAMPLE_WEATHER = "{\"coord\":{\"lon\":-73.5673,\"lat\":45.5017},"
+            + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\",\"icon\":\"04d\"}],"
+            + "\"main\":{\"temp\":21.4,\"feels_like\":21.2,\"humidity\":60},"
+            + "\"wind\":{\"speed\":4.1,\"deg\":250},\"dt\":1760745600,\"id\":6077243,\"name\":\"Montreal\",\"cod\":200}";
+
+    static final String SAMPLE_AIR_POLLUTION = "{\"coord\":{\"lon\":-73.5673,\"lat\":45.5017},"
+            + "\"list\":[{\"main\":{\"aqi\":2},\"components\":{\"co\":201.94,\"no2\":0.77,\"o3\":68.66,"
+            + "\"pm2_5\":0.5,\"pm10\":0.54},\"dt\":1760745600}]}";
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final Map<String, String> routes = new ConcurrentHashMap<>();
+    private final Map<String, Long> slowQueries = new ConcurrentHashMap<>();
+    private final Map<String, Long> slowPaths = new ConcurrentHashMap<>();
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    // Fault injection: the next N requests fail with a status, or lose their connection
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger dropsLeft = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile long retryAfterSeconds = -1;
+    private volatile int slowEvery;
+    private volatile long slowEveryDelayMs;
+
+    private volatile String body = SAMPLE_WEATHER;
+    private volatile String etag;
+    private volatile long latencyMs;
+
+    static {
+        // Without this the JDK server writes headers and body as separate small packets, and
+        // Nagle plus delayed ACKs add ~40 ms to every loopback response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    StubWeatherServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String root() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/data/2.5";
+    }
+
+    void setBody(String body) {
+        this.body = body;
+    }
+
+    /** Serves {@code body} for requests to {@code path} under the API root, e.g. "/group". */
+    void route(String path, String body) {
+        routes.put("/data/2.5" + path, body);
+    }
+
+    void delayWhenQueryContains(String fragment, long delayMs) {
+        slowQueries.put(fragment, delayMs);
+    }
+
+    /** Delays requests to {@code path} under the API root, e.g. "/air_pollution". */
+    void delayPath(String path, long delayMs) {
+        slowPaths.put("/data/2.5" + path, delayMs);
+    }
+
+    /** The next {@code count} requests get {@code status}, with Retry-After if it is not negative. */
+    void failNext(int count, int status, long retryAfterSeconds) {
+        this.failureStatus = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+        failuresLeft.set(count);
+    }
+
+    /** The next {@code count} requests have their connection closed without a response. */
+    void dropNext(int count) {
+        dropsLeft.set(count);
+    }
+
+    /** Every {@code n}-th request is delayed by {@code delayMs}; 0 turns this off. */
+    void slowEvery(int n, long delayMs) {
+        this.slowEveryDelayMs = delayMs;
+        this.slowEvery = n;
+    }
+
+    List<String> queries() {
+        return queries;
+    }
+
+    void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    int notModifiedCount() {
+        return notModified.get();
+    }
+
+    int maxConcurrentRequests() {
+        return maxActive.get();
+    }
+
+    int connectionCount() {
+        return clientPorts.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int number = requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String query = exchange.getRequestURI().getRawQuery();
+        queries.add(exchange.getRequestURI().getPath() + "?" + query);
+        int now = active.incrementAndGet();
+        maxActive.accumulateAndGet(now, Math::max);
+        try {
+            long delay = latencyMs;
+            int every = slowEvery;
+            if (every > 0 && number % every == 0) delay = Math.max(delay, slowEveryDelayMs);
+            for (Map.Entry<String, Long> slow : slowQueries.entrySet()) {
+                if (query != null && query.contains(slow.getKey())) delay = Math.max(delay, slow.getValue());
+            }
+            delay = Math.max(delay, slowPaths.getOrDefault(exchange.getRequestURI().getPath(), 0L));
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Stop counting before responding: once the client has the response it may send its
+            // next request before this handler returns
+            active.decrementAndGet();
+        }
+
+        if (dropsLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            exchange.close();
+            return;
+        }
+        if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            if (retryAfterSeconds >= 0) {
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+            }
+            send(exchange, failureStatus, "{\"cod\":" + failureStatus + "}");
+            return;
+        }
+        String routed = routes.get(exchange.getRequestURI().getPath());
+        if (routed != null) {
+            send(exchange, 200, routed);
+            return;
+        }
+        String currentEtag = etag;
+        if (currentEtag != null) {
+            if (currentEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", currentEtag);
+        }
+        send(exchange, 200, body);
+    }
+
+    static void send(HttpExchange exchange, int code, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(zipped)) {
+                gzip.write(bytes);
+            }
+            bytes = zipped.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
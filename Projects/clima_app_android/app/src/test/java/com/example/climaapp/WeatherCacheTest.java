@@ -0,0 +1,87 @@
+package com.example.climaapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class WeatherCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long now = 0;
+
+    private WeatherCache newCache(File dir, int memoryEntries) {
+        return new WeatherCache(dir, memoryEntries, 16, 1000, () -> now);
+    }
+
+    @Test
+    public void testKeyForCoordinates_nearbyFixesShareBucket() {
+        assertEquals(WeatherCache.keyForCoordinates(45.5017, -73.5673),
+                WeatherCache.keyForCoordinates(45.5030, -73.5660));
+        assertNotEquals(WeatherCache.keyForCoordinates(45.5017, -73.5673),
+                WeatherCache.keyForCoordinates(43.6532, -79.3832));
+    }
+
+    @Test
+    public void testKeyForCity_isNormalized() {
+        assertEquals(WeatherCache.keyForCity("montreal"), WeatherCache.keyForCity("  Montréal "));
+        assertEquals(WeatherCache.keyForCity("new york"), WeatherCache.keyForCity("New   York"));
+    }
+
+    @Test
+    public void testGet_countsHitsAndMisses() {
+        WeatherCache cache = newCache(null, 4);
+
+        assertNull(cache.get("city:montreal"));
+        cache.put("city:montreal", "{}", null, null);
+        assertNotNull(cache.get("city:montreal"));
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void testPut_evictsLeastRecentlyUsed() {
+        WeatherCache cache = newCache(null, 2);
+
+        cache.put("a", "1", null, null);
+        cache.put("b", "2", null, null);
+        cache.get("a");
+        cache.put("c", "3", null, null);
+
+        assertEquals(1, cache.evictionCount());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testIsFresh_expiresAfterTtl() {
+        WeatherCache cache = newCache(null, 4);
+        WeatherCache.Entry entry = cache.put("a", "1", "\"v1\"", null);
+
+        now = 999;
+        assertTrue(cache.isFresh(entry));
+        now = 1000;
+        assertFalse(cache.isFresh(entry));
+        assertTrue(cache.isFresh(cache.revalidated("a", entry)));
+    }
+
+    @Test
+    public void testGet_survivesRestartThroughDisk() throws Exception {
+        File dir = folder.newFolder("weather");
+        newCache(dir, 4).put("city:montreal", "{\"name\":\"Montreal\"}", "\"v1\"", "Sat, 18 Oct 2025 10:00:00 GMT");
+
+        WeatherCache restarted = newCache(dir, 4);
+        WeatherCache.Entry entry = restarted.get("city:montreal");
+
+        assertNotNull(entry);
+        assertEquals("{\"name\":\"Montreal\"}", entry.body);
+        assertEquals("\"v1\"", entry.etag);
+        assertEquals(1, restarted.diskHitCount());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeatherConditionsTest {
+
+    // The if/else cascade WeatherIconMapper used before the lookup table
+    private static int legacyIcon(int condition) {
+        if (condition < 300) {
+            return R.drawable.thunderstorm;
+        } else if (condition < 400) {
+            return R.drawable.drizzle;
+        } else if (condition < 600) {
+            return R.drawable.rain;
+        } else if (condition < 700) {
+            return R.drawable.snow;
+        } else if (condition < 800) {
+            return R.drawable.atmosphere;
+        } else if (condition == 800) {
+            return R.drawable.clear;
+        } else if (condition <= 804) {
+            return R.drawable.clouds;
+        } else {
+            return R.drawable.default_weather;
+        }
+    }
+
+    @Test
+    public void testGetIcon_matchesLegacyMappingExhaustively() {
+        for (int code = -1_000; code <= 2_000; code++) {
+            assertEquals("code " + code, legacyIcon(code), WeatherConditions.getIcon(code));
+            assertEquals("code " + code, legacyIcon(code), WeatherIconMapper.getIconResource(code));
+        }
+        assertEquals(legacyIcon(Integer.MIN_VALUE), WeatherConditions.getIcon(Integer.MIN_VALUE));
+        assertEquals(legacyIcon(Integer.MAX_VALUE), WeatherConditions.getIcon(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetIcon_nightColumnCoversEveryCode() {
+        for (int code = WeatherConditions.MIN_CODE; code <= WeatherConditions.MAX_CODE; code++) {
+            assertNotEquals(0, WeatherConditions.getIcon(code, true));
+        }
+    }
+
+    @Test
+    public void testGetSeverity() {
+        assertEquals(WeatherConditions.SEVERITY_SEVERE, WeatherConditions.getSeverity(781));
+        assertEquals(WeatherConditions.SEVERITY_HIGH, WeatherConditions.getSeverity(211));
+        assertEquals(WeatherConditions.SEVERITY_LOW, WeatherConditions.getSeverity(500));
+        assertEquals(WeatherConditions.SEVERITY_NONE, WeatherConditions.getSeverity(800));
+        assertEquals(WeatherConditions.SEVERITY_NONE, WeatherConditions.getSeverity(999));
+    }
+
+    @Test
+    public void testGetDescription() {
+        assertEquals("broken clouds", WeatherConditions.getDescription(803));
+        assertEquals("freezing rain", WeatherConditions.getDescription(511));
+        assertEquals("thunderstorm", WeatherConditions.getDescription(299));
+        assertEquals("unknown", WeatherConditions.getDescription(42));
+    }
+
+    @Test
+    public void testLookup_benchmarkAgainstLegacy() {
+        int rounds = 2_000;
+        int sink = 0;
+        for (int warmup = 0; warmup < 200; warmup++) {
+            for (int code = 0; code < 1_000; code++) {
+                sink += legacyIcon(code) + WeatherConditions.getIcon(code);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int code = 0; code < 1_000; code++) {
+                sink += legacyIcon(code);
+            }
+        }
+        long legacyNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int code = 0; code < 1_000; code++) {
+                sink += WeatherConditions.getIcon(code) + WeatherConditions.getSeverity(code);
+            }
+        }
+        long tableNs = System.nanoTime() - start;
+
+        long allocatedBefore = WeatherDataParserBenchmarkTest.allocatedBytes();
+        for (int round = 0; round < rounds; round++) {
+            for (int code = 0; code < 1_000; code++) {
+                sink += WeatherConditions.getIcon(code, true) + WeatherConditions.getDescription(code).length();
+            }
+        }
+        long allocated = WeatherDataParserBenchmarkTest.allocatedBytes() - allocatedBefore;
+
+        BenchmarkReport.print("if-chain: " + legacyNs / (rounds * 1_000.0) + " ns/lookup, table (icon+severity): "
+                + tableNs / (rounds * 1_000.0) + " ns/lookup, allocated " + allocated + " B");
+        assertNotEquals(0, sink);
+        // Two million lookups; anything left over is the measurement itself, not per-lookup garbage
+        assertTrue(allocated < 16 * 1024);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the streaming parser with the original JSONObject parser over the recorded corpus.
+ * Timings go to {@link BenchmarkReport} for reference; only the allocation difference is asserted.
+ */
+public class WeatherDataParserBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private interface ParseTask {
+        int run(String json) throws IOException;
+    }
+
+    @Test
+    public void testStreamingParser_allocatesLessThanTreeParser() throws IOException {
+        List<String> corpus = WeatherFixtures.currentWeather();
+
+        ParseTask tree = json -> {
+            JsonObjectWeatherParser parser = new JsonObjectWeatherParser(json);
+            return parser.getTemperature() + parser.getCityName().length() + parser.getConditionId()
+                    + parser.getMessage().length() + (int) parser.getLatitude() + (int) parser.getLongitude();
+        };
+        ParseTask streaming = json -> {
+            WeatherSnapshot snapshot = WeatherDataParser.parse(json);
+            return snapshot.getRoundedTemperature() + snapshot.getCityName().length() + snapshot.getConditionId()
+                    + snapshot.getMessage().length() + (int) snapshot.getLatitude() + (int) snapshot.getLongitude();
+        };
+
+        long[] treeResult = measure(corpus, tree);
+        long[] streamingResult = measure(corpus, streaming);
+
+        BenchmarkReport.print("tree parser:      " + treeResult[0] + " ns/parse, " + treeResult[1] + " B/parse");
+        BenchmarkReport.print("streaming parser: " + streamingResult[0] + " ns/parse, " + streamingResult[1] + " B/parse");
+
+        if (streamingResult[1] > 0) {
+            assertTrue(streamingResult[1] < treeResult[1]);
+        }
+    }
+
+    private static long[] measure(List<String> corpus, ParseTask task) throws IOException {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += task.run(corpus.get(i % corpus.size()));
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += task.run(corpus.get(i % corpus.size()));
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        assertNotEquals(Integer.MIN_VALUE, sink);
+        return new long[]{elapsed / MEASURED_ROUNDS, Math.max(0, allocated) / MEASURED_ROUNDS};
+    }
+
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class WeatherDataParserTest {
+
+    @Test
+    public void testParse_matchesTreeParserOnCorpus() throws IOException {
+        for (String name : WeatherFixtures.CURRENT_WEATHER) {
+            String json = WeatherFixtures.load(name);
+            JsonObjectWeatherParser expected = new JsonObjectWeatherParser(json);
+            WeatherSnapshot actual = WeatherDataParser.parse(json);
+
+            assertEquals(name, expected.getTemperature(), actual.getRoundedTemperature());
+            assertEquals(name, expected.getCityName(), actual.getCityName());
+            assertEquals(name, expected.getConditionId(), actual.getConditionId());
+            assertEquals(name, expected.getMessage(), actual.getMessage());
+            assertEquals(name, expected.getLatitude(), actual.getLatitude(), 1e-9);
+            assertEquals(name, expected.getLongitude(), actual.getLongitude(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testParse_readsStreamInOnePass() throws IOException {
+        byte[] body = WeatherFixtures.load("sao_paulo_storm.json").getBytes(StandardCharsets.UTF_8);
+
+        WeatherSnapshot snapshot = WeatherDataParser.parse(new ByteArrayInputStream(body));
+
+        assertEquals("São Paulo", snapshot.getCityName());
+        assertEquals(3448439, snapshot.getCityId());
+        assertEquals(211, snapshot.getConditionId());
+        assertEquals(1760799600L, snapshot.getTimestamp());
+        assertEquals(22.1, snapshot.getTemperature(), 1e-9);
+    }
+
+    @Test
+    public void testParse_missingFieldsFallBackToDefaults() throws IOException {
+        WeatherSnapshot snapshot = WeatherDataParser.parse("{\"cod\":\"404\",\"message\":\"city not found\"}");
+
+        assertEquals("", snapshot.getCityName());
+        assertEquals(0, snapshot.getRoundedTemperature());
+        assertEquals(WeatherSnapshot.UNKNOWN_CONDITION, snapshot.getConditionId());
+        assertEquals(R.drawable.default_weather, snapshot.getWeatherIcon());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testConstructor_invalidJsonThrows() {
+        new WeatherDataParser("{\"main\":");
+    }
+
+    @Test(expected = IOException.class)
+    public void testParse_nullBodyThrows() throws IOException {
+        WeatherDataParser.parse((String) null);
+    }
+}
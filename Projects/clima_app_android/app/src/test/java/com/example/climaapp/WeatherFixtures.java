@@ -0,0 +1,47 @@
+package com.example.climaapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded OpenWeatherMap payloads from src/test/resources/owm.
+ */
+class WeatherFixtures {
+
+    static final String[] CURRENT_WEATHER = {
+            "montreal_clouds.json",
+            "london_rain.json",
+            "tokyo_clear.json",
+            "sao_paulo_storm.json",
+            "reykjavik_snow.json"
+    };
+
+    static final String FORECAST = "montreal_forecast.json";
+
+    static String load(String name) {
+        try (InputStream in = WeatherFixtures.class.getClassLoader().getResourceAsStream("owm/" + name)) {
+            if (in == null) throw new IllegalArgumentException("Missing fixture " + name);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static List<String> currentWeather() {
+        List<String> corpus = new ArrayList<>();
+        for (String name : CURRENT_WEATHER) {
+            corpus.add(load(name));
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.climaapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class WeatherGridPrefetcherTest {
+
+    /** Holds every request until the test answers it. */
+    private static class FakeFetcher implements WeatherGridPrefetcher.Fetcher {
+        final List<double[]> coordinates = new ArrayList<>();
+        final List<RequestScope> scopes = new ArrayList<>();
+        final List<Consumer<WeatherSnapshot>> callbacks = new ArrayList<>();
+
+        @Override
+        public void fetch(double lat, double lon, RequestScope scope, Consumer<WeatherSnapshot> callback) {
+            coordinates.add(new double[]{lat, lon});
+            scopes.add(scope);
+            callbacks.add(callback);
+        }
+
+        void answer(int index) {
+            double[] at = coordinates.get(index);
+            callbacks.get(index).accept(new WeatherSnapshot(1, "Cell", at[0], at[1], 10, 800, 0));
+        }
+
+        void answerAll() {
+            for (int i = 0; i < callbacks.size(); i++) {
+                answer(i);
+            }
+        }
+    }
+
+    private final FakeFetcher fetcher = new FakeFetcher();
+    private final List<WeatherGridPrefetcher.Cell> loaded = new ArrayList<>();
+    private long now = 1_000_000;
+
+    private WeatherGridPrefetcher prefetcher(RequestBudget budget, int maxInFlight) {
+        return new WeatherGridPrefetcher(fetcher, (cell, snapshot) -> loaded.add(cell), budget, maxInFlight, () -> now);
+    }
+
+    private static RequestBudget unlimited() {
+        return new RequestBudget(1_000, 1);
+    }
+
+    @Test
+    public void testCellsFor_coverViewportWithPowerOfTwoCells() {
+        List<WeatherGridPrefetcher.Cell> cells = WeatherGridPrefetcher.cellsFor(45, -74, 46, -73);
+
+        assertEquals(25, cells.size());
+        for (WeatherGridPrefetcher.Cell cell : cells) {
+            assertEquals(-2, cell.level);
+            assertTrue(cell.centerLatitude() > 44.75 && cell.centerLatitude() < 46.25);
+            assertTrue(cell.centerLongitude() > -74.25 && cell.centerLongitude() < -72.75);
+        }
+        // Panning a little at the same zoom reuses the same cells
+        assertTrue(WeatherGridPrefetcher.cellsFor(45.1, -73.9, 46.1, -72.9).containsAll(cells.subList(5, 10)));
+    }
+
+    @Test
+    public void testCellsFor_centresStayBetweenThePoles() {
+        double[][] viewports = {{-85, -180, 85, 180}, {-90, 0, 90, 90}, {80, -10, 90, 10}, {-90, 100, -60, 140}};
+        for (double[] viewport : viewports) {
+            List<WeatherGridPrefetcher.Cell> cells = WeatherGridPrefetcher.cellsFor(viewport[0], viewport[1], viewport[2], viewport[3]);
+            assertFalse(cells.isEmpty());
+            for (WeatherGridPrefetcher.Cell cell : cells) {
+                double lat = cell.centerLatitude();
+                assertTrue(cell + " centred at " + lat, lat >= -90 && lat <= 90);
+            }
+        }
+        // The whole world at the coarsest level: polar rows are clipped, not centred at ±96°
+        WeatherGridPrefetcher.Cell southern = new WeatherGridPrefetcher.Cell(WeatherGridPrefetcher.MAX_LEVEL, -2, 0);
+        assertEquals(-77, southern.centerLatitude(), 0);
+    }
+
+    @Test
+    public void testCellsFor_acrossAntimeridian() {
+        Set<Double> longitudes = new HashSet<>();
+        for (WeatherGridPrefetcher.Cell cell : WeatherGridPrefetcher.cellsFor(0, 178, 4, -178)) {
+            longitudes.add(cell.centerLongitude());
+        }
+
+        assertTrue(longitudes.contains(179.5));
+        assertTrue(longitudes.contains(-179.5));
+        for (double lon : longitudes) {
+            assertTrue(lon >= -180 && lon < 180);
+        }
+    }
+
+    @Test
+    public void testCellsFor_wholeWorldStaysUnderCap() {
+        List<WeatherGridPrefetcher.Cell> cells = WeatherGridPrefetcher.cellsFor(-85, -180, 85, 180);
+
+        assertTrue(cells.size() <= WeatherGridPrefetcher.MAX_VISIBLE_CELLS);
+        assertEquals(WeatherGridPrefetcher.MAX_LEVEL, cells.get(0).level);
+    }
+
+    @Test
+    public void testFetches_nearestCentreFirst() {
+        WeatherGridPrefetcher prefetcher = prefetcher(unlimited(), 1);
+        prefetcher.setViewport(45, -74, 46, -73);
+
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i + 1, fetcher.callbacks.size());
+            fetcher.answer(i);
+        }
+
+        double lastDistance = 0;
+        for (double[] at : fetcher.coordinates) {
+            double dLat = at[0] - 45.5;
+            double dLon = (at[1] + 73.5) * Math.cos(Math.toRadians(45.5));
+            double distance = dLat * dLat + dLon * dLon;
+            assertTrue(distance >= lastDistance - 1e-9);
+            lastDistance = distance;
+        }
+        assertEquals(25, loaded.size());
+    }
+
+    @Test
+    public void testPanningAway_cancelsRequestsOutOfView() {
+        WeatherGridPrefetcher prefetcher = prefetcher(unlimited(), 3);
+        prefetcher.setViewport(45, -74, 46, -73);
+        assertEquals(3, prefetcher.inFlightCount());
+
+        prefetcher.setViewport(10, 20, 11, 21);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(fetcher.scopes.get(i).isCancelled());
+        }
+        assertEquals(3, prefetcher.cancelledCount());
+        // A late answer for a cancelled cell is not shown
+        fetcher.answer(0);
+        assertTrue(loaded.isEmpty());
+        assertEquals(3, prefetcher.inFlightCount());
+        assertEquals(6, prefetcher.startedCount());
+    }
+
+    @Test
+    public void testReturning_servesCachedCellsWithoutRequests() {
+        WeatherGridPrefetcher prefetcher = prefetcher(unlimited(), 50);
+        prefetcher.setViewport(45, -74, 46, -73);
+        fetcher.answerAll();
+        prefetcher.setViewport(10, 20, 11, 21);
+        fetcher.answerAll();
+        int requests = fetcher.callbacks.size();
+        loaded.clear();
+
+        prefetcher.setViewport(45, -74, 46, -73);
+
+        assertEquals(25, loaded.size());
+        assertEquals(25, prefetcher.cacheHitCount());
+        assertEquals(requests, fetcher.callbacks.size());
+
+        // Stale readings are fetched again
+        now += WeatherGridPrefetcher.CACHE_MAX_AGE_MS;
+        prefetcher.setViewport(45, -74, 46, -73);
+        assertEquals(requests + 25, fetcher.callbacks.size());
+    }
+
+    @Test
+    public void testSameViewport_doesNotRedeliverVisibleCells() {
+        WeatherGridPrefetcher prefetcher = prefetcher(unlimited(), 50);
+        prefetcher.setViewport(45, -74, 46, -73);
+        fetcher.answerAll();
+        assertEquals(25, loaded.size());
+        loaded.clear();
+
+        // Every camera idle sets the viewport again; only cells that came into view are delivered
+        prefetcher.setViewport(45, -74, 46, -73);
+        assertTrue(loaded.isEmpty());
+        prefetcher.setViewport(45.3, -74, 46.3, -73);
+        assertTrue(loaded.isEmpty());
+        assertEquals(30, fetcher.callbacks.size());
+
+        // Panning back brings the cached bottom row into view again
+        prefetcher.setViewport(45, -74, 46, -73);
+        assertEquals(5, loaded.size());
+    }
+
+    @Test
+    public void testCellIds_distinctAcrossLevels() {
+        Set<Integer> ids = new HashSet<>();
+        int cells = 0;
+        for (int level = WeatherGridPrefetcher.MIN_LEVEL; level <= WeatherGridPrefetcher.MAX_LEVEL; level++) {
+            double size = Math.scalb(1.0, level);
+            for (int row : new int[]{(int) Math.floor(-90 / size), -1, 0, (int) Math.floor(90 / size)}) {
+                for (int col : new int[]{0, 1, (int) Math.round(360 / size) - 1}) {
+                    int id = new WeatherGridPrefetcher.Cell(level, row, col).id();
+                    assertTrue(id > 0);
+                    ids.add(id);
+                    cells++;
+                }
+            }
+        }
+        assertEquals(cells, ids.size());
+    }
+
+    @Test
+    public void testBudget_capsRequests() {
+        WeatherGridPrefetcher prefetcher = prefetcher(new RequestBudget(5, 60_000, () -> now), 3);
+        prefetcher.setViewport(45, -74, 46, -73);
+        fetcher.answerAll();
+        fetcher.answerAll();
+
+        assertEquals(5, prefetcher.startedCount());
+        assertEquals(5, loaded.size());
+
+        // One more token a minute later
+        now += 60_000;
+        prefetcher.setViewport(45, -74, 46, -73);
+        assertEquals(6, prefetcher.startedCount());
+        prefetcher.close();
+    }
+
+    @Test
+    public void testBudget_refillsOverTime() {
+        RequestBudget budget = new RequestBudget(2, 1_000, () -> now);
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        assertEquals(1_000, budget.millisUntilNext());
+
+        now += 2_500;
+        assertEquals(2, budget.available());
+        now += 60_000;
+        assertEquals(2, budget.available());
+    }
+
+    @Test
+    public void testAgainstServer_loadsCellsWithinBudget() throws Exception {
+        StubWeatherServer server = new StubWeatherServer();
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+        try {
+            CountDownLatch done = new CountDownLatch(4);
+            List<WeatherSnapshot> snapshots = new ArrayList<>();
+            WeatherGridPrefetcher prefetcher = new WeatherGridPrefetcher(WeatherNetworkClient::fetchSnapshotByCoordinates,
+                    (cell, snapshot) -> {
+                        synchronized (snapshots) {
+                            snapshots.add(snapshot);
+                        }
+                        done.countDown();
+                    }, new RequestBudget(4, 600_000), 2, System::currentTimeMillis);
+
+            prefetcher.setViewport(-33, 151, -32, 152);
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(4, server.requestCount());
+            assertEquals(4, prefetcher.startedCount());
+            assertEquals("Montreal", snapshots.get(0).getCityName());
+            prefetcher.close();
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WeatherHistoryTest {
+
+    private static final long HOUR = 60 * 60;
+    private static final long START = 1_760_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private final List<WeatherHistory> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "f25dy.hist");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (WeatherHistory history : opened) {
+            history.close();
+        }
+        WeatherNetworkClient.setHistory(null);
+    }
+
+    private WeatherHistory open(int capacity) throws IOException {
+        WeatherHistory history = WeatherHistory.open(file, capacity);
+        opened.add(history);
+        return history;
+    }
+
+    private static void appendHours(WeatherHistory history, int from, int to) {
+        for (int hour = from; hour <= to; hour++) {
+            assertTrue(history.append(START + hour * HOUR, hour / 10.0, 800));
+        }
+    }
+
+    private void corrupt(long seq, int capacity, int offsetInRecord, byte[] bytes) throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(WeatherHistory.HEADER_SIZE + (seq % capacity) * WeatherHistory.RECORD_SIZE + offsetInRecord);
+            raw.write(bytes);
+        }
+    }
+
+    @Test
+    public void testRange_returnsRecordsInTimeWindow() throws IOException {
+        WeatherHistory history = open(64);
+        appendHours(history, 1, 10);
+
+        WeatherHistory.Range range = history.range(START + 3 * HOUR, START + 6 * HOUR);
+
+        assertEquals(3, range.size());
+        assertEquals(START + 3 * HOUR, range.getTime(0));
+        assertEquals(0.5, range.getTemperature(2), 0);
+        assertEquals(800, range.getConditionId(1));
+        assertEquals(0, history.range(START + 20 * HOUR, START + 30 * HOUR).size());
+        assertEquals(10, history.range(Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testAppend_ignoresReadingsThatAreNotNewer() throws IOException {
+        WeatherHistory history = open(16);
+        assertTrue(history.append(START, 10, 800));
+
+        assertFalse(history.append(START, 11, 800));
+        assertFalse(history.append(START - HOUR, 12, 800));
+        assertEquals(1, history.size());
+        assertEquals(START, history.latestTime());
+    }
+
+    @Test
+    public void testAppend_wrapsAroundKeepingNewest() throws IOException {
+        WeatherHistory history = open(8);
+        appendHours(history, 1, 20);
+
+        assertEquals(8, history.size());
+        WeatherHistory.Range all = history.range(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(8, all.size());
+        assertEquals(START + 13 * HOUR, all.getTime(0));
+        assertEquals(START + 20 * HOUR, all.getTime(7));
+        assertArrayEquals(new double[]{1.3, 1.4, 1.5, 1.6, 1.7, 1.8, 1.9, 2.0}, all.temperatures(), 1e-9);
+
+        WeatherHistory reopened = open(8);
+        assertEquals(8, reopened.size());
+        assertEquals(START + 20 * HOUR, reopened.latestTime());
+        assertEquals(START + 13 * HOUR, reopened.range(Long.MIN_VALUE, Long.MAX_VALUE).getTime(0));
+    }
+
+    @Test
+    public void testOpen_seesAppendsFromInstanceThatNeverClosed() throws IOException {
+        WeatherHistory crashed = open(16);
+        appendHours(crashed, 1, 5);
+
+        WeatherHistory recovered = open(16);
+
+        assertEquals(5, recovered.size());
+        assertEquals(START + 5 * HOUR, recovered.latestTime());
+    }
+
+    @Test
+    public void testOpen_dropsTornLastRecord() throws IOException {
+        open(16);
+        appendHours(opened.get(0), 1, 5);
+        // Half of record 5's temperature made it to disk before the crash
+        corrupt(5, 16, 16, new byte[]{1, 2, 3, 4});
+
+        WeatherHistory recovered = open(16);
+
+        assertEquals(4, recovered.size());
+        assertEquals(START + 4 * HOUR, recovered.latestTime());
+        assertTrue(recovered.append(START + 6 * HOUR, 0.6, 500));
+        assertEquals(5, open(16).size());
+    }
+
+    @Test
+    public void testOpen_tornWriteOverOldestRecordIsDropped() throws IOException {
+        open(4);
+        appendHours(opened.get(0), 1, 4);
+        // Record 5 started overwriting record 1's slot: the new seq landed, the rest did not
+        corrupt(5, 4, 0, new byte[]{0, 0, 0, 0, 0, 0, 0, 5});
+
+        WeatherHistory recovered = open(4);
+
+        assertEquals(3, recovered.size());
+        assertEquals(START + 2 * HOUR, recovered.range(Long.MIN_VALUE, Long.MAX_VALUE).getTime(0));
+        assertEquals(START + 4 * HOUR, recovered.latestTime());
+    }
+
+    @Test
+    public void testOpen_differentCapacityStartsOver() throws IOException {
+        appendHours(open(16), 1, 5);
+
+        assertEquals(0, open(32).size());
+    }
+
+    @Test
+    public void testFetchSnapshot_appendsToLocationHistory() throws Exception {
+        StubWeatherServer server = new StubWeatherServer();
+        try {
+            WeatherNetworkClient.setApiRoot(server.root());
+            WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+            WeatherNetworkClient.setCache(null);
+            WeatherHistoryStore store = new WeatherHistoryStore(folder.newFolder("history"), 16);
+            WeatherNetworkClient.setHistory(store);
+            CountDownLatch done = new CountDownLatch(1);
+            WeatherSnapshot[] result = new WeatherSnapshot[1];
+
+            WeatherNetworkClient.fetchSnapshotByCity("Montreal", snapshot -> {
+                result[0] = snapshot;
+                done.countDown();
+            });
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            WeatherHistory history = store.historyFor(result[0].getLatitude(), result[0].getLongitude());
+            opened.add(history);
+            assertEquals(1, history.size());
+            assertEquals(result[0].getTimestamp(), history.latestTime());
+            assertEquals(result[0].getTemperature(), history.range(0, Long.MAX_VALUE).getTemperature(0), 0);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testScan_throughputAt100kRecords() throws IOException {
+        int records = 100_000;
+        WeatherHistory history = open(131_072);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            history.append(START + i * 1800L, (i % 400) / 10.0, 800);
+        }
+        history.sync();
+        long appendNanos = (System.nanoTime() - start) / records;
+
+        double sum = 0;
+        start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            WeatherHistory.Range all = history.range(Long.MIN_VALUE, Long.MAX_VALUE);
+            for (int i = 0; i < all.size(); i++) {
+                sum += all.getTemperature(i);
+            }
+        }
+        long scanNanos = (System.nanoTime() - start) / (10L * records);
+
+        start = System.nanoTime();
+        WeatherHistory.Range month = history.range(START + 1000 * 1800L, START + 2440 * 1800L);
+        long monthLookupNanos = System.nanoTime() - start;
+
+        BenchmarkReport.print("history: append " + appendNanos + " ns/record, scan " + scanNanos
+                + " ns/record, 30-day range lookup " + monthLookupNanos + " ns");
+        assertEquals(records, history.size());
+        assertEquals(1440, month.size());
+        assertEquals(START + 1000 * 1800L, month.getTime(0));
+        assertTrue(sum > 0);
+        assertTrue("scan took " + scanNanos + " ns per record", scanNanos < 1_000);
+    }
+}
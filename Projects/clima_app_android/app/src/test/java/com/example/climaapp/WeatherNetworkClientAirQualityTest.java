@@ -0,0 +1,154 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * The composed weather + air quality fetch against the stub server, with each endpoint delayed
+ * on its own to check the two really run side by side and a late one degrades instead of blocking.
+ */
+public class WeatherNetworkClientAirQualityTest {
+
+    private StubWeatherServer server;
+    // Each test asks about its own spot so it never joins a request left over from another test
+    private static double latitude = 10;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        server.route("/air_pollution", StubWeatherServer.SAMPLE_AIR_POLLUTION);
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.NONE);
+    }
+
+    @After
+    public void tearDown() {
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.DEFAULT);
+        server.close();
+    }
+
+    /** Fetches, returning the snapshot and how long it took in {@code elapsedMs[0]}. */
+    private static WeatherSnapshot fetch(long deadlineMs, long[] elapsedMs) throws InterruptedException {
+        latitude += 1;
+        WeatherSnapshot[] result = new WeatherSnapshot[1];
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        WeatherNetworkClient.fetchSnapshotWithAirQuality(latitude, -73.5, deadlineMs, null, snapshot -> {
+            result[0] = snapshot;
+            elapsedMs[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            done.countDown();
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    @Test
+    public void testParseAirQuality_readsIndexOrUnknown() throws IOException {
+        assertEquals(2, WeatherDataParser.parseAirQuality(new StringReader(StubWeatherServer.SAMPLE_AIR_POLLUTION)));
+        assertEquals(WeatherSnapshot.UNKNOWN_AIR_QUALITY,
+                WeatherDataParser.parseAirQuality(new StringReader("{\"coord\":[50,50],\"list\":[]}")));
+        assertEquals("Fair", WeatherSnapshot.describeAirQuality(2));
+        assertEquals("Unknown", WeatherSnapshot.describeAirQuality(9));
+    }
+
+    @Test
+    public void testBothArrive_takesTheSlowerNotTheSum() throws Exception {
+        long[] elapsed = new long[1];
+        // Warm-up so connection setup and class loading don't land in the measurement
+        fetch(2_000, elapsed);
+        server.delayPath("/weather", 300);
+        server.delayPath("/air_pollution", 300);
+        int requestsBefore = server.requestCount();
+
+        WeatherSnapshot snapshot = fetch(2_000, elapsed);
+
+        BenchmarkReport.print("weather + air quality, 300 ms each: " + elapsed[0] + " ms");
+        assertEquals("Montreal", snapshot.getCityName());
+        assertEquals(2, snapshot.getAirQualityIndex());
+        assertEquals(requestsBefore + 2, server.requestCount());
+        assertTrue("took " + elapsed[0] + " ms", elapsed[0] < 550);
+    }
+
+    @Test
+    public void testLateAirQuality_weatherGoesOutAtDeadline() throws Exception {
+        server.delayPath("/air_pollution", 3_000);
+        long[] elapsed = new long[1];
+
+        WeatherSnapshot snapshot = fetch(300, elapsed);
+
+        BenchmarkReport.print("air quality 3 s late, 300 ms deadline: " + elapsed[0] + " ms");
+        assertEquals("Montreal", snapshot.getCityName());
+        assertFalse(snapshot.hasAirQuality());
+        assertTrue("took " + elapsed[0] + " ms", elapsed[0] >= 250 && elapsed[0] < 1_500);
+    }
+
+    @Test
+    public void testFailedAirQuality_doesNotWaitForDeadline() throws Exception {
+        server.route("/air_pollution", "not json");
+        long[] elapsed = new long[1];
+
+        WeatherSnapshot snapshot = fetch(5_000, elapsed);
+
+        assertNotNull(snapshot);
+        assertFalse(snapshot.hasAirQuality());
+        assertTrue("took " + elapsed[0] + " ms", elapsed[0] < 2_000);
+    }
+
+    @Test
+    public void testLateWeather_isStillDelivered() throws Exception {
+        server.delayPath("/weather", 600);
+        long[] elapsed = new long[1];
+
+        WeatherSnapshot snapshot = fetch(100, elapsed);
+
+        assertEquals("Montreal", snapshot.getCityName());
+        assertEquals(2, snapshot.getAirQualityIndex());
+        assertTrue(elapsed[0] >= 550);
+    }
+
+    @Test
+    public void testFailedWeather_deliversNullOnce() throws Exception {
+        server.route("/weather", "not json");
+        AtomicInteger deliveries = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        WeatherNetworkClient.fetchSnapshotWithAirQuality(++latitude, -73.5, 200, null, snapshot -> {
+            assertNull(snapshot);
+            deliveries.incrementAndGet();
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertEquals(1, deliveries.get());
+    }
+
+    @Test
+    public void testCancelledScope_dropsResultAtDeadline() throws Exception {
+        server.delayPath("/air_pollution", 3_000);
+        RequestScope scope = new RequestScope();
+        AtomicInteger deliveries = new AtomicInteger();
+
+        WeatherNetworkClient.fetchSnapshotWithAirQuality(++latitude, -73.5, 300, scope, snapshot -> deliveries.incrementAndGet());
+        for (int i = 0; i < 100 && server.requestCount() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        scope.cancel();
+        Thread.sleep(500);
+
+        assertEquals(0, deliveries.get());
+        assertEquals(0, scope.pendingCount());
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Retries, circuit breaking and hedging against the stub server with injected faults: error
+ * statuses, dropped connections and slow responses.
+ */
+public class WeatherNetworkClientResilienceTest {
+
+    private StubWeatherServer server;
+    private long[] now;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        now = new long[]{0};
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+        WeatherNetworkClient.setRetryPolicy(new RetryPolicy(3, 10, 100));
+        WeatherNetworkClient.setCircuitBreaker(new CircuitBreaker(3, 1000, () -> now[0]));
+    }
+
+    @After
+    public void tearDown() {
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.DEFAULT);
+        WeatherNetworkClient.setCircuitBreaker(new CircuitBreaker());
+        WeatherNetworkClient.setHedgePolicy(null);
+        server.close();
+    }
+
+    private static String fetchCity(String city) throws InterruptedException {
+        String[] result = new String[1];
+        CountDownLatch done = new CountDownLatch(1);
+        WeatherNetworkClient.fetchWeatherByCity(city, json -> {
+            result[0] = json;
+            done.countDown();
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    @Test
+    public void testDelay_growsExponentiallyWithFullJitter() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000);
+
+        assertEquals(0, policy.delayMs(1, 0.0));
+        assertEquals(50, policy.delayMs(1, 0.5));
+        assertEquals(200, policy.delayMs(2, 0.999), 1);
+        assertEquals(400, policy.delayMs(3, 0.999), 1);
+        // Capped at the maximum however many attempts failed
+        assertEquals(1000, policy.delayMs(30, 0.9999), 1);
+    }
+
+    @Test
+    public void testRetryAfter_isHonouredOrGivesUp() {
+        RetryPolicy policy = new RetryPolicy(3, 100, 5000);
+
+        assertEquals(2000, policy.delayMs(1, 0.0, new HttpStatusException(429, "/weather", 2000)));
+        assertEquals(-1, policy.delayMs(1, 0.0, new HttpStatusException(429, "/weather", 60_000)));
+    }
+
+    @Test
+    public void testIsRetryable_onlyTransientFailures() {
+        assertTrue(RetryPolicy.isRetryable(new IOException("reset")));
+        assertTrue(RetryPolicy.isRetryable(new HttpStatusException(503, "/weather", 0)));
+        assertTrue(RetryPolicy.isRetryable(new HttpStatusException(429, "/weather", 0)));
+        assertFalse(RetryPolicy.isRetryable(new HttpStatusException(404, "/weather", 0)));
+        assertFalse(RetryPolicy.isRetryable(new IllegalStateException()));
+    }
+
+    @Test
+    public void testServerErrors_areRetriedUntilSuccess() throws Exception {
+        server.failNext(2, 503, -1);
+
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+        assertEquals(3, server.requestCount());
+    }
+
+    @Test
+    public void testDroppedConnection_isRetried() throws Exception {
+        server.dropNext(1);
+
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+        assertEquals(2, server.requestCount());
+    }
+
+    @Test
+    public void testNotFound_isNotRetriedAndKeepsCircuitClosed() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        WeatherNetworkClient.setCircuitBreaker(breaker);
+        server.failNext(1, 404, -1);
+
+        assertNull(fetchCity("Atlantis"));
+        assertEquals(1, server.requestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testTooManyRequests_waitsForRetryAfter() throws Exception {
+        WeatherNetworkClient.setRetryPolicy(new RetryPolicy(2, 10, 2000));
+        server.failNext(1, 429, 1);
+
+        long start = System.nanoTime();
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000);
+        assertEquals(2, server.requestCount());
+    }
+
+    @Test
+    public void testCircuit_opensFailsFastThenRecovers() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, () -> now[0]);
+        WeatherNetworkClient.setCircuitBreaker(breaker);
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.NONE);
+        server.failNext(100, 500, -1);
+
+        assertNull(fetchCity("Montreal"));
+        assertNull(fetchCity("Montreal"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // While open nothing reaches the server
+        int requestsWhenOpened = server.requestCount();
+        assertNull(fetchCity("Montreal"));
+        assertNull(fetchCity("Toronto"));
+        assertEquals(requestsWhenOpened, server.requestCount());
+        assertEquals(2, breaker.rejectedCount());
+
+        // After the open period one probe goes out; the upstream is back, so the circuit closes
+        server.failNext(0, 500, -1);
+        now[0] = 1000;
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(requestsWhenOpened + 1, server.requestCount());
+    }
+
+    @Test
+    public void testHalfOpen_letsOneProbeThroughAndReopensOnFailure() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        now[0] = 1000;
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    private static void awaitIdleWorkers() throws InterruptedException {
+        for (int i = 0; i < 300 && WeatherNetworkClient.activeRequestCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, WeatherNetworkClient.activeRequestCount());
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        for (int i = 0; i < 300 && server.requestCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.requestCount());
+    }
+
+    @Test
+    public void testHalfOpen_cancelledProbeFreesTheSlot() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        WeatherNetworkClient.setCircuitBreaker(breaker);
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.NONE);
+        server.failNext(1, 500, -1);
+        assertNull(fetchCity("Quebec"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // The probe hangs and its screen goes away
+        now[0] = 1000;
+        server.setLatencyMs(10_000);
+        RequestScope scope = new RequestScope();
+        WeatherNetworkClient.fetchSnapshotByCity("Laval", scope, snapshot -> fail("delivered after cancel"));
+        awaitRequests(2);
+        scope.cancel();
+        awaitIdleWorkers();
+
+        // Still half-open, and the next request is let through as the new probe
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        server.setLatencyMs(0);
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Gatineau"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testCancelDuringBackoff_isNotCountedAsFailure() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        WeatherNetworkClient.setCircuitBreaker(breaker);
+        WeatherNetworkClient.setRetryPolicy(new RetryPolicy(3, 400, 400));
+        server.failNext(1, 503, -1);
+
+        RequestScope scope = new RequestScope();
+        WeatherNetworkClient.fetchSnapshotByCity("Sherbrooke", scope, snapshot -> fail("delivered after cancel"));
+        awaitRequests(1);
+        scope.cancel();
+        awaitIdleWorkers();
+
+        assertEquals(1, server.requestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHedging_cutsTheSlowTail()throws Exception {
+        int requests = 40;
+        long[] plain = measureLatencies(requests, true);
+
+        WeatherNetworkClient.setHedgePolicy(new HedgePolicy(HedgePolicy.DEFAULT_PERCENTILE, 20));
+        // Warm the latency history so the policy knows what "slow" means
+        measureLatencies(20, false);
+        int hedgesBefore = WeatherNetworkClient.hedgeCount();
+        long[] hedged = measureLatencies(requests, true);
+
+        BenchmarkReport.print("hedging, every 5th response 600 ms late: p50 " + plain[requests / 2] + " -> "
+                + hedged[requests / 2] + " ms, max " + plain[requests - 1] + " -> " + hedged[requests - 1]
+                + " ms, " + (WeatherNetworkClient.hedgeCount() - hedgesBefore) + " hedges");
+        assertTrue(plain[requests - 1] >= 600);
+        assertTrue(hedged[requests - 1] < 400);
+        assertTrue(WeatherNetworkClient.hedgeCount() > hedgesBefore);
+    }
+
+    /** Sorted latencies of sequential fetches; with {@code slowTail}, every 5th response is 600 ms late. */
+    private long[] measureLatencies(int requests, boolean slowTail) throws Exception {
+        server.slowEvery(slowTail ? 5 : 0, 600);
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            assertNotNull(fetchCity("City " + i));
+            latencies[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WeatherNetworkClientSingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private StubWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        server.setLatencyMs(300);
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testConcurrentIdenticalRequests_shareOneUpstreamCall() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(CALLERS);
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        AtomicInteger received = new AtomicInteger();
+
+        for (int i = 0; i < CALLERS; i++) {
+            new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                WeatherNetworkClient.fetchWeatherByCity("Montreal", json -> {
+                    if (StubWeatherServer.SAMPLE_WEATHER.equals(json)) received.incrementAndGet();
+                    done.countDown();
+                });
+            }).start();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(CALLERS, received.get());
+        assertEquals(1, server.requestCount());
+        assertEquals(0, WeatherNetworkClient.inFlightCount());
+    }
+
+    @Test
+    public void testSameCoordinateBucket_isCoalescedAndParsedOnce() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        int parsesBefore = WeatherDataParser.parseCount();
+
+        WeatherNetworkClient.fetchSnapshotByCoordinates(45.5017, -73.5673, snapshot -> done.countDown());
+        WeatherNetworkClient.fetchSnapshotByCoordinates(45.5030, -73.5660, snapshot -> done.countDown());
+        WeatherNetworkClient.fetchWeatherByCoordinates(45.5017, -73.5673, json -> done.countDown());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, server.requestCount());
+        assertEquals(1, WeatherDataParser.parseCount() - parsesBefore);
+    }
+
+    @Test
+    public void testDifferentKeys_areNotCoalesced() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+
+        WeatherNetworkClient.fetchWeatherByCity("Montreal", json -> done.countDown());
+        WeatherNetworkClient.fetchWeatherByCity("Toronto", json -> done.countDown());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, server.requestCount());
+    }
+
+    @Test
+    public void testRequestAfterCompletion_goesUpstreamAgain() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch done = new CountDownLatch(1);
+            WeatherNetworkClient.fetchWeatherByCity("Montreal", json -> done.countDown());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, server.requestCount());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WeatherNetworkClientTest {
+
+    private StubWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubWeatherServer();
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+    }
+
+    @After
+    public void tearDown() {
+        WeatherNetworkClient.setCache(null);
+        WeatherNetworkClient.setApiRoot(null);
+        WeatherNetworkClient.setCallbackExecutor(null);
+        server.close();
+    }
+
+    private static String fetchCity(String city) throws InterruptedException {
+        String[] result = new String[1];
+        CountDownLatch done = new CountDownLatch(1);
+        WeatherNetworkClient.fetchWeatherByCity(city, json -> {
+            result[0] = json;
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result[0];
+    }
+
+    @Test
+    public void testFetch_gzipBodyIsDecoded() throws Exception {
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+    }
+
+    @Test
+    public void testFetchByCity_encodesName() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        WeatherNetworkClient.fetchWeatherByCity("São Paulo&x=1", json -> done.countDown());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(server.queries().get(0), server.queries().get(0).contains("q=S%C3%A3o+Paulo%26x%3D1&"));
+    }
+
+    @Test
+    public void testFetchSnapshot_parsesExactlyOnceBeforeDelivery() throws Exception {
+        WeatherSnapshot[] result = new WeatherSnapshot[1];
+        Thread[] deliveredOn = new Thread[1];
+        CountDownLatch done = new CountDownLatch(1);
+        int parsesBefore = WeatherDataParser.parseCount();
+
+        WeatherNetworkClient.fetchSnapshotByCity("Montreal", snapshot -> {
+            result[0] = snapshot;
+            deliveredOn[0] = Thread.currentThread();
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("Montreal", result[0].getCityName());
+        assertEquals(1, WeatherDataParser.parseCount() - parsesBefore);
+        assertNotSame(Thread.currentThread(), deliveredOn[0]);
+    }
+
+    @Test
+    public void testFetch_freshCacheEntrySkipsNetwork() throws Exception {
+        WeatherNetworkClient.setCache(new WeatherCache(null));
+
+        fetchCity("Montreal");
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("  MONTREAL "));
+
+        assertEquals(1, server.requestCount());
+    }
+
+    @Test
+    public void testFetch_staleEntryIsRevalidatedWithEtag() throws Exception {
+        long[] now = {0};
+        WeatherNetworkClient.setCache(new WeatherCache(null, 8, 8, 1000, () -> now[0]));
+        server.setEtag("\"v1\"");
+
+        fetchCity("Montreal");
+        now[0] = 5000;
+        server.setBody("{}");
+
+        assertEquals(StubWeatherServer.SAMPLE_WEATHER, fetchCity("Montreal"));
+        assertEquals(2, server.requestCount());
+        assertEquals(1, server.notModifiedCount());
+    }
+
+    @Test
+    public void testFetch_burstIsBoundedAndReusesConnections() throws Exception {
+        server.setLatencyMs(50);
+        int requests = 24;
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            long issued = System.nanoTime();
+            WeatherNetworkClient.fetchWeatherByCoordinates(45.5, -73.5 + i, json -> {
+                latencies[index] = System.nanoTime() - issued;
+                if (json == null) failures.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Arrays.sort(latencies);
+        BenchmarkReport.print("burst of " + requests + ": " + elapsedMs + " ms, "
+                + (requests * 1000L / Math.max(1, elapsedMs)) + " req/s, p50="
+                + TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]) + " ms, p99="
+                + TimeUnit.NANOSECONDS.toMillis(latencies[requests - 1]) + " ms, connections="
+                + server.connectionCount());
+
+        assertEquals(0, failures.get());
+        // Enough slow requests to fill every request thread, and never one more on the wire
+        assertEquals(WeatherNetworkClient.MAX_REQUEST_THREADS, server.maxConcurrentRequests());
+        assertTrue(server.connectionCount() < requests);
+    }
+}
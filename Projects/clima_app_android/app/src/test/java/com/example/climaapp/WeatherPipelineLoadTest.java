@@ -0,0 +1,107 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load runs of the fetch-and-parse pipeline against recorded responses. Each profile reports one
+ * line through {@link BenchmarkReport}; compare them across commits to spot regressions. The runs
+ * add up to several thousand requests, so they only happen with -Pclima.benchmark.report=true.
+ * Nothing here touches the live API unless recording is asked for with -Pclima.record.url=...
+ * -Pclima.record.file=...
+ */
+public class WeatherPipelineLoadTest {
+
+    private static final int REQUESTS = 1000;
+
+    private ReplayWeatherServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new ReplayWeatherServer();
+        WeatherNetworkClient.setApiRoot(server.root());
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+        WeatherNetworkClient.setCache(null);
+        WeatherNetworkClient.setHistory(null);
+        WeatherNetworkClient.setRetryPolicy(new RetryPolicy(3, 5, 50));
+        WeatherNetworkClient.setCircuitBreaker(new CircuitBreaker());
+    }
+
+    @After
+    public void tearDown() {
+        WeatherNetworkClient.setRetryPolicy(RetryPolicy.DEFAULT);
+        WeatherNetworkClient.setCircuitBreaker(new CircuitBreaker());
+        WeatherNetworkClient.setApiRoot(null);
+        WeatherNetworkClient.setCallbackExecutor(null);
+        server.close();
+    }
+
+    private PipelineLoadHarness.Report run(ReplayWeatherServer.Profile profile, int concurrency) throws Exception {
+        BenchmarkReport.assumeEnabled();
+        server.setProfile(profile);
+        PipelineLoadHarness harness = new PipelineLoadHarness(concurrency);
+        // Warm-up pass so class loading and JIT don't land in the measurement
+        harness.run(REQUESTS / 4);
+        PipelineLoadHarness.Report report = harness.run(REQUESTS);
+        BenchmarkReport.print("load " + profile + ", concurrency " + concurrency + ": " + report);
+        return report;
+    }
+
+    @Test
+    public void testFastUpstream_serialAndParallel() throws Exception {
+        ReplayWeatherServer.Profile profile = new ReplayWeatherServer.Profile("fast", 2, 0, 0, 0);
+
+        PipelineLoadHarness.Report serial = run(profile, 1);
+        PipelineLoadHarness.Report parallel = run(profile, WeatherNetworkClient.MAX_REQUEST_THREADS);
+
+        assertEquals(0, serial.failures);
+        assertEquals(0, parallel.failures);
+        // Throughput is in the report; which run comes out ahead depends too much on the machine
+        assertTrue(serial.p99Micros >= serial.p50Micros);
+        assertTrue(parallel.p99Micros >= parallel.p50Micros);
+    }
+
+    @Test
+    public void testSlowJitteryUpstream_reportsTail() throws Exception {
+        PipelineLoadHarness.Report report = run(
+                new ReplayWeatherServer.Profile("jittery 5-45 ms", 5, 40, 0, 0), 16);
+
+        assertEquals(0, report.failures);
+        assertTrue(report.p99Micros >= 5_000);
+    }
+
+    @Test
+    public void testLargePayloads_allocateMorePerRequest() throws Exception {
+        PipelineLoadHarness.Report small = run(new ReplayWeatherServer.Profile("0.5 KB", 0, 0, 0, 0), 4);
+        PipelineLoadHarness.Report large = run(new ReplayWeatherServer.Profile("64 KB", 0, 0, 0, 64 * 1024), 4);
+
+        assertEquals(0, large.failures);
+        Assume.assumeTrue("Thread allocation counter unavailable", small.allocatedBytes > 0);
+        assertTrue(large.allocatedBytes > small.allocatedBytes);
+    }
+
+    @Test
+    public void testFlakyUpstream_retriesHideMostErrors() throws Exception {
+        PipelineLoadHarness.Report report = run(new ReplayWeatherServer.Profile("5% 503", 1, 0, 0.05, 0), 4);
+
+        assertTrue(server.errorCount() > 0);
+        // Three attempts at 5% each: a request only fails if all of them do
+        assertTrue("failed " + report.failures, report.failures <= 2);
+    }
+
+    @Test
+    public void testRecord_fromLiveApi() throws Exception {
+        String url = System.getProperty("clima.record.url");
+        String file = System.getProperty("clima.record.file");
+        Assume.assumeTrue("Recording only runs when asked for", url != null && file != null);
+
+        ReplayWeatherServer.record(url, new File(file));
+        assertTrue(new File(file).length() > 0);
+    }
+}
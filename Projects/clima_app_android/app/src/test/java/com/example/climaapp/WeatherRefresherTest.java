@@ -0,0 +1,172 @@
+package com.example.climaapp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WeatherRefresherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "latest_snapshot");
+        WeatherNetworkClient.setCallbackExecutor(Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        WeatherNetworkClient.setCallbackExecutor(null);
+    }
+
+    private static WeatherSnapshot snapshot(double temperature, long timestamp) {
+        return new WeatherSnapshot(6077243, "Montreal", 45.5088, -73.5878, temperature, 803, timestamp);
+    }
+
+    @Test
+    public void testStore_roundTrips() {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        assertNull(store.load());
+
+        assertTrue(store.save(snapshot(12.4, 100).withAirQuality(3)));
+        WeatherSnapshot loaded = new WeatherSnapshotStore(file).load();
+
+        assertEquals("Montreal", loaded.getCityName());
+        assertEquals(12.4, loaded.getTemperature(), 0);
+        assertEquals(100, loaded.getTimestamp());
+        assertEquals(-73.5878, loaded.getLongitude(), 0);
+        assertEquals(3, loaded.getAirQualityIndex());
+    }
+
+    @Test
+    public void testStore_loadRecentSkipsSnapshotsOlderThanADay() {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        long takenAt = 1_700_000_000L;
+        store.save(snapshot(12.4, takenAt));
+        long takenAtMs = TimeUnit.SECONDS.toMillis(takenAt);
+
+        assertNotNull(store.loadRecent(takenAtMs + TimeUnit.HOURS.toMillis(3)));
+        assertNotNull(store.loadRecent(takenAtMs + WeatherSnapshotStore.MAX_SHOWN_AGE_MS));
+        assertNull(store.loadRecent(takenAtMs + WeatherSnapshotStore.MAX_SHOWN_AGE_MS + 1));
+        // Still there for the refresher to take its location from
+        assertNotNull(store.load());
+    }
+
+    @Test
+    public void testStore_loadRecentOffTheCallingThread() throws Exception {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        store.save(snapshot(12.4, 1_700_000_000L));
+        CountDownLatch done = new CountDownLatch(1);
+        String[] loadedOn = new String[1];
+        WeatherSnapshot[] loaded = new WeatherSnapshot[1];
+
+        store.loadRecent(TimeUnit.SECONDS.toMillis(1_700_000_000L), new RequestScope(), snapshot -> {
+            loadedOn[0] = Thread.currentThread().getName();
+            loaded[0] = snapshot;
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(12.4, loaded[0].getTemperature(), 0);
+        assertNotEquals(Thread.currentThread().getName(), loadedOn[0]);
+    }
+
+    @Test
+    public void testStore_loadRecentInCancelledScopeDeliversNothing() throws Exception {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        store.save(snapshot(12.4, 1_700_000_000L));
+        RequestScope scope = new RequestScope();
+        scope.cancel();
+        boolean[] delivered = {false};
+
+        store.loadRecent(TimeUnit.SECONDS.toMillis(1_700_000_000L), scope, snapshot -> delivered[0] = true);
+        Thread.sleep(100);
+
+        assertFalse(delivered[0]);
+    }
+
+    @Test
+    public void testStore_corruptFileReadsAsEmpty() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{0, 0, 0, 1, 7});
+        }
+
+        assertNull(new WeatherSnapshotStore(file).load());
+    }
+
+    @Test
+    public void testRefresh_usesStoredLocationAndReplacesSnapshot() {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        store.save(snapshot(12.4, 100));
+        List<double[]> requested = new ArrayList<>();
+        WeatherSnapshot[] delivered = new WeatherSnapshot[1];
+
+        new WeatherRefresher(store, (lat, lon, callback) -> {
+            requested.add(new double[]{lat, lon});
+            callback.accept(snapshot(14.0, 200));
+        }).refresh(result -> delivered[0] = result);
+
+        assertEquals(1, requested.size());
+        assertEquals(45.5088, requested.get(0)[0], 0);
+        assertEquals(200, delivered[0].getTimestamp());
+        assertEquals(200, store.load().getTimestamp());
+    }
+
+    @Test
+    public void testRefresh_failureKeepsPreviousSnapshot() {
+        WeatherSnapshotStore store = new WeatherSnapshotStore(file);
+        store.save(snapshot(12.4, 100));
+
+        new WeatherRefresher(store, (lat, lon, callback) -> callback.accept(null)).refresh(result -> assertNull(result));
+
+        assertEquals(100, store.load().getTimestamp());
+    }
+
+    @Test
+    public void testRefresh_withNothingStoredDoesNotFetch() {
+        boolean[] fetched = {false};
+
+        new WeatherRefresher(new WeatherSnapshotStore(file), (lat, lon, callback) -> fetched[0] = true)
+                .refresh(result -> assertNull(result));
+
+        assertFalse(fetched[0]);
+    }
+
+    @Test
+    public void testTimeToFirstRender_fromStoreAfterBackgroundJob() {
+        // Simulate the periodic job having run while the app was closed
+        new WeatherRefresher(new WeatherSnapshotStore(file), (lat, lon, callback) -> callback.accept(snapshot(9.0, 300)))
+                .refresh(45.5088, -73.5878, result -> { });
+
+        // Cold start: LoadingActivity only has to read the stored snapshot before rendering
+        int launches = 200;
+        long total = 0;
+        long worst = 0;
+        for (int i = 0; i < launches; i++) {
+            long start = System.nanoTime();
+            WeatherSnapshot cached = new WeatherSnapshotStore(file).load();
+            long elapsed = System.nanoTime() - start;
+            assertEquals(300, cached.getTimestamp());
+            total += elapsed;
+            worst = Math.max(worst, elapsed);
+        }
+
+        BenchmarkReport.print("time to first render from store: avg " + TimeUnit.NANOSECONDS.toMicros(total / launches)
+                + " us, worst " + TimeUnit.NANOSECONDS.toMicros(worst) + " us");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(total / launches) < 50);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.sqlexample;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batch insert against the one-row-at-a-time path, on a separate database file so the app's
+ * own entries are left alone. The benchmark writes over a million rows, so it only runs when
+ * asked for:
+ * <pre>
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.benchmark=true
+ * </pre>
+ */
+@RunWith(AndroidJUnit4.class)
+public class DBHelperBatchInsertTest {
+
+    private static final String DATABASE = "Userdata-benchmark.db";
+    // Each single insert syncs to disk, so 1M of them would take hours; time this many and
+    // report the rate
+    private static final int SINGLE_INSERT_SAMPLE = 10_000;
+
+    private Context context;
+    private DBHelper DB;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        DB = new DBHelper(context, DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        DB.close();
+        context.deleteDatabase(DATABASE);
+    }
+
+    // Rows are made as they are read, so a million of them don't have to fit in the heap at once
+    private static List<String[]> contacts(int count) {
+        return new AbstractList<String[]>() {
+            @Override
+            public String[] get(int i) {
+                return new String[] {"Contact " + i, "555-" + (1000 + i % 9000), "2000-01-" + (1 + i % 28)};
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private long rowCount() {
+        return DatabaseUtils.queryNumEntries(DB.getReadableDatabase(), "Userdetails");
+    }
+
+    @Test
+    public void insertUserDataBatch_reportsEachRow() {
+        List<String[]> rows = new ArrayList<>(contacts(3));
+        rows.add(1, new String[] {"Missing dob", "555-0000"});
+        rows.add(new String[] {"No contact yet", null, "1999-12-31"});
+
+        long[] results = DB.insertUserDataBatch(rows);
+
+        assertEquals(5, results.length);
+        assertEquals(-1, results[1]);
+        for (int i : new int[] {0, 2, 3, 4}) {
+            assertTrue(results[i] > 0);
+        }
+        assertEquals(4, rowCount());
+
+        Cursor cursor = DB.getData();
+        List<String> names = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(1));
+        }
+        cursor.close();
+        assertEquals(Arrays.asList("Contact 0", "Contact 1", "Contact 2", "No contact yet"), names);
+    }
+
+    @Test
+    public void insertUserDataBatch_benchmark() {
+        Assume.assumeTrue("Benchmark runs need the benchmark=true runner argument",
+                Boolean.parseBoolean(InstrumentationRegistry.getArguments().getString("benchmark")));
+        for (int count : new int[] {1_000, 100_000, 1_000_000}) {
+            List<String[]> rows = contacts(count);
+
+            DB.getWritableDatabase().execSQL("DELETE FROM Userdetails");
+            long start = System.nanoTime();
+            long[] results = DB.insertUserDataBatch(rows);
+            double batchRate = count / ((System.nanoTime() - start) / 1e9);
+            assertEquals(count, rowCount());
+            assertTrue(results[count - 1] > 0);
+
+            DB.getWritableDatabase().execSQL("DELETE FROM Userdetails");
+            int single = Math.min(count, SINGLE_INSERT_SAMPLE);
+            start = System.nanoTime();
+            for (int i = 0; i < single; i++) {
+                String[] row = rows.get(i);
+                assertTrue(DB.insertUserData(row[0], row[1], row[2]));
+            }
+            double singleRate = single / ((System.nanoTime() - start) / 1e9);
+
+            Log.i("benchmark", count + " rows: batch " + Math.round(batchRate) + " rows/s, one per row "
+                    + Math.round(singleRate) + " rows/s (timed over " + single + " rows)");
+            assertTrue(batchRate > singleRate);
+        }
+    }
+}
@@ -3,15 +3,24 @@ package com.example.sqlexample;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import java.util.List;
+
 public class DBHelper extends SQLiteOpenHelper {
 
 
     public DBHelper(Context context) {
-        super(context, "Userdata.db", null, 1);
+        this(context, "Userdata.db");
+    }
+
+    // Lets tests and benchmarks use their own database file
+    DBHelper(Context context, String databaseName) {
+        super(context, databaseName, null, 1);
     }
 
     @Override
@@ -44,6 +53,53 @@ public class DBHelper extends SQLiteOpenHelper {
         }
     }
 
+    /**
+     * Inserts many rows at once, e.g. an imported contact list. Each row is {name, contact, dob}.
+     * All rows go in one transaction through one compiled statement, instead of one implicit
+     * transaction (and disk sync) per row like {@link #insertUserData}.
+     *
+     * Returns the new row id for each row, or -1 for a row that could not be inserted; the
+     * other rows are still kept.
+     */
+    public long[] insertUserDataBatch(List<String[]> rows) {
+        long[] results = new long[rows.size()];
+        SQLiteDatabase DB = this.getWritableDatabase();
+        SQLiteStatement statement = DB.compileStatement(
+                "INSERT INTO Userdetails (name, contact, dob) VALUES (?, ?, ?)");
+
+        DB.beginTransaction();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                String[] row = rows.get(i);
+                if (row == null || row.length != 3) {
+                    results[i] = -1;
+                    continue;
+                }
+                statement.clearBindings();
+                for (int column = 0; column < 3; column++) {
+                    if (row[column] == null) {
+                        statement.bindNull(column + 1);
+                    } else {
+                        statement.bindString(column + 1, row[column]);
+                    }
+                }
+                try {
+                    results[i] = statement.executeInsert();
+                } catch (SQLException e) {
+                    // A bad row shouldn't throw away the rest of the batch
+                    Log.w("info", "Row " + i + " not inserted", e);
+                    results[i] = -1;
+                }
+            }
+            DB.setTransactionSuccessful();
+        } finally {
+            DB.endTransaction();
+            statement.close();
+        }
+
+        return results;
+    }
+
     public Boolean updateUserData(String keyName, String contact, String dob) {
         SQLiteDatabase DB = this.getWritableDatabase();
         ContentValues contentValues = new ContentValues();